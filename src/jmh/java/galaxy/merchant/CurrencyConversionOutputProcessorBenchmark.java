@@ -0,0 +1,73 @@
+package galaxy.merchant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import galaxy.merchant.model.CommonMetal;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.ClassifiedInput;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.workload.WorkloadGenerator;
+import galaxy.merchant.workload.WorkloadProfile;
+
+/**
+ * Throughput of
+ * {@link CurrencyConversionOutputProcessor#calculateValuesForCreditQueries(String, List)}.
+ * Run with -prof gc to report the allocation rate.
+ * 
+ * @author kommineni
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CurrencyConversionOutputProcessorBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "7", "5000" })
+	int currencySymbols;
+
+	private final List<String> creditQueries = new ArrayList<String>(QUERIES);
+	private CurrencyConversionOutputProcessor currencyConversionOutputProcessor;
+	private List<CommonMetal> metals;
+	private int next;
+
+	@Setup
+	public void setup() {
+		// only credit queries
+		final WorkloadProfile profile = WorkloadProfile.DEFAULT.toBuilder().currencySymbols(currencySymbols)
+				.howMuchWeight(0).uncategorizedWeight(0).distinctQueries(QUERIES).build();
+		final int definitions = profile.getCurrencySymbols() + profile.getMetals();
+		final List<String> input = new WorkloadGenerator(profile, 42).generate(definitions + QUERIES);
+		final ClassifiedInput classifiedInput = new InputClassifier(new GalaxyMerchant().getRomanSymbols())
+				.classifyAll(input.subList(0, definitions));
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		GalaxyMerchant.registerGalacticCurrencies(classifiedInput.getGalacticCurrencyDefinitions(), symbolRegistry);
+		GalaxyMerchant.registerMetals(classifiedInput.getMetalValueDefinitions(), symbolRegistry);
+		metals = symbolRegistry.getMetals();
+		currencyConversionOutputProcessor = new CurrencyConversionOutputProcessor(symbolRegistry, OutputSink.noOp());
+		creditQueries.addAll(input.subList(definitions, input.size()));
+	}
+
+	@Benchmark
+	public String calculateValuesForCreditQueries() {
+		next = (next + 1) & (QUERIES - 1);
+		return currencyConversionOutputProcessor.calculateValuesForCreditQueries(creditQueries.get(next), metals);
+	}
+}
@@ -0,0 +1,68 @@
+package galaxy.merchant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import galaxy.merchant.model.GalacticCurrency;
+import galaxy.merchant.model.GalacticCurrencyExpression;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.workload.WorkloadGenerator;
+import galaxy.merchant.workload.WorkloadProfile;
+
+/**
+ * Throughput of validating and evaluating a {@link GalacticCurrencyExpression}.
+ * Run with -prof gc to report the allocation rate.
+ * 
+ * @author kommineni
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GalacticCurrencyExpressionBenchmark {
+
+	private static final int EXPRESSIONS = 1024;
+
+	@Param({ "7", "5000" })
+	int currencySymbols;
+
+	private final List<List<GalacticCurrency>> expressions = new ArrayList<List<GalacticCurrency>>(EXPRESSIONS);
+	private int next;
+
+	@Setup
+	public void setup() {
+		// only how much is queries, whose expressions are resolved
+		final WorkloadProfile profile = WorkloadProfile.DEFAULT.toBuilder().currencySymbols(currencySymbols)
+				.howManyCreditsWeight(0).uncategorizedWeight(0).distinctQueries(EXPRESSIONS).build();
+		final int definitions = profile.getCurrencySymbols() + profile.getMetals();
+		final List<String> input = new WorkloadGenerator(profile, 42).generate(definitions + EXPRESSIONS);
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		GalaxyMerchant.registerGalacticCurrencies(new InputClassifier(new GalaxyMerchant().getRomanSymbols())
+				.classifyAll(input.subList(0, definitions)).getGalacticCurrencyDefinitions(), symbolRegistry);
+		for (String query : input.subList(definitions, input.size())) {
+			expressions.add(
+					symbolRegistry.resolveGalacticCurrencies(query, "how much is ".length(), query.length() - 2));
+		}
+	}
+
+	@Benchmark
+	public GalacticCurrencyExpression galacticCurrencyExpression() {
+		next = (next + 1) & (EXPRESSIONS - 1);
+		return new GalacticCurrencyExpression(expressions.get(next));
+	}
+}
@@ -0,0 +1,59 @@
+package galaxy.merchant;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.workload.WorkloadGenerator;
+import galaxy.merchant.workload.WorkloadProfile;
+
+/**
+ * End to end throughput of {@link GalaxyMerchant#galacticCurrencyConversion(List)}.
+ * Run with -prof gc to report the allocation rate.
+ * 
+ * @author kommineni
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GalaxyMerchantBenchmark {
+
+	@Param({ "10", "10000", "1000000" })
+	int lines;
+
+	@Param({ "7", "5000" })
+	int currencySymbols;
+
+	@Param({ "false", "true" })
+	boolean parallel;
+
+	private List<String> input;
+	private GalaxyMerchant galaxyMerchant;
+
+	@Setup
+	public void setup() {
+		input = new WorkloadGenerator(WorkloadProfile.DEFAULT.toBuilder().currencySymbols(currencySymbols).build(), 42)
+				.generate(lines);
+		galaxyMerchant = GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.parallelQueryEvaluator(parallel ? new ParallelQueryEvaluator() : null).build();
+	}
+
+	@Benchmark
+	public List<String> galacticCurrencyConversion() {
+		return galaxyMerchant.galacticCurrencyConversion(input);
+	}
+}
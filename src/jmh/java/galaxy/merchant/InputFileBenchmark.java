@@ -0,0 +1,76 @@
+package galaxy.merchant;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.workload.WorkloadGenerator;
+import galaxy.merchant.workload.WorkloadProfile;
+
+/**
+ * Streaming conversion of an input file read through a Reader, through the
+ * memory mapping and through the pipelined stages.
+ *
+ * @author kommineni
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InputFileBenchmark {
+
+	@Param({ "10000", "1000000" })
+	int lines;
+
+	private Path inputFile;
+	private GalaxyMerchant galaxyMerchant;
+
+	@Setup
+	public void setup() throws IOException {
+		inputFile = Files.createTempFile("galaxy-merchant", ".txt");
+		Files.write(inputFile, new WorkloadGenerator(WorkloadProfile.DEFAULT, 42).generate(lines), StandardCharsets.UTF_8);
+		galaxyMerchant = new GalaxyMerchant(OutputSink.noOp());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	public long bufferedReader() throws IOException {
+		return galaxyMerchant.galacticCurrencyConversion(inputFile);
+	}
+
+	@Benchmark
+	public long memoryMapped() throws IOException {
+		return galaxyMerchant.galacticCurrencyConversionMapped(inputFile);
+	}
+
+	@Benchmark
+	public long pipelined() throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+			return galaxyMerchant.pipelinedConversion(new GalacticSymbolRegistry()).run(reader::readLine, result -> {
+			});
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package galaxy.merchant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import galaxy.merchant.workload.WorkloadGenerator;
+import galaxy.merchant.workload.WorkloadProfile;
+
+/**
+ * Throughput of {@link GalaxyMerchant#santizeInput(List)} on input where every
+ * other line has surplus whitespace. Run with -prof gc to report the
+ * allocation rate.
+ * 
+ * @author kommineni
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SanitizeInputBenchmark {
+
+	@Param({ "10", "10000", "1000000" })
+	int lines;
+
+	private List<String> input;
+
+	@Setup
+	public void setup() {
+		final List<String> generatedInput = new WorkloadGenerator(WorkloadProfile.DEFAULT, 42).generate(lines);
+		input = new ArrayList<String>(generatedInput.size());
+		for (int line = 0; line < generatedInput.size(); line++) {
+			input.add(line % 2 == 0 ? generatedInput.get(line) : "  " + generatedInput.get(line).replace(" ", "   ") + " ");
+		}
+	}
+
+	@Benchmark
+	public List<String> santizeInput() {
+		return GalaxyMerchant.santizeInput(input);
+	}
+}
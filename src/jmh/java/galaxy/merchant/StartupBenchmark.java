@@ -0,0 +1,100 @@
+package galaxy.merchant;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import galaxy.merchant.workload.WorkloadGenerator;
+import galaxy.merchant.workload.WorkloadProfile;
+
+/**
+ * Time from launching the converter in a new JVM to its first answer on a small
+ * input file, as run by a batch scheduler. The JVM is the one of the benchmark
+ * (-jvm), the class path and JVM options are parameters, Ex: -p
+ * classPath=target/galaxy-merchant-standalone.jar -p
+ * jvmOptions=-XX:SharedArchiveFile=target/galaxy-merchant.jsa
+ *
+ * @author kommineni
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+	// space separated
+	@Param({ "-Xshare:auto" })
+	String jvmOptions;
+
+	// class path of the benchmark if empty
+	@Param({ "" })
+	String classPath;
+
+	@Param({ "100" })
+	int lines;
+
+	private Path inputFile;
+	private List<String> command;
+	private Process converter;
+
+	@Setup
+	public void setup() throws IOException {
+		inputFile = Files.createTempFile("galaxy-merchant", ".txt");
+		Files.write(inputFile, new WorkloadGenerator(WorkloadProfile.DEFAULT, 42).generate(lines), StandardCharsets.UTF_8);
+		command = new ArrayList<String>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(Arrays.asList(jvmOptions.trim().split("\\s+")));
+		command.add("-cp");
+		command.add(classPath.isEmpty() ? System.getProperty("java.class.path") : classPath);
+		command.add(GalacticCurrencyConverter.class.getName());
+		command.add(inputFile.toString());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	public String timeToFirstAnswer() throws IOException {
+		converter = new ProcessBuilder(command).redirectError(Redirect.INHERIT).start();
+		return new BufferedReader(new InputStreamReader(converter.getInputStream(), StandardCharsets.UTF_8))
+				.readLine();
+	}
+
+	/**
+	 * Waits for the converter outside of the measured time, the rest of its
+	 * output is discarded
+	 */
+	@TearDown(Level.Invocation)
+	public void awaitConverter() throws IOException, InterruptedException {
+		final byte[] discarded = new byte[8192];
+		while (converter.getInputStream().read(discarded) >= 0) {
+		}
+		converter.waitFor();
+	}
+}
@@ -1,16 +1,35 @@
 package galaxy.merchant;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
-import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+import galaxy.merchant.exception.InvalidInputException;
+import galaxy.merchant.exception.InvalidLineHandler;
+import galaxy.merchant.exception.QueryErrorCode;
+import galaxy.merchant.metrics.ConversionMetrics;
+import galaxy.merchant.metrics.QueryOutcome;
 import galaxy.merchant.model.CommonMetal;
+import galaxy.merchant.model.CreditRounding;
 import galaxy.merchant.model.GalacticCurrency;
 import galaxy.merchant.model.GalacticCurrencyExpression;
+import galaxy.merchant.model.GalacticExpressionTable;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.UnitPrice;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.CreditQuery;
+import galaxy.merchant.parser.GalacticCurrencyQuery;
+import galaxy.merchant.parser.GalacticValueQuery;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.InputRecordType;
+import galaxy.merchant.parser.LineTokenizer;
+import galaxy.merchant.parser.MetalQuantityQuery;
+import lombok.Builder;
 
 /**
  * @author kommineni
@@ -18,27 +37,338 @@ import galaxy.merchant.model.GalacticCurrencyExpression;
  */
 public class CurrencyConversionOutputProcessor {
 
-	static final String UNCATEGORIZED_QUERY = "I have no idea what you are talking about";
+	static final String UNCATEGORIZED_QUERY = QueryErrorCode.UNCATEGORIZED_QUERY.getMessage();
 
-	final List<GalacticCurrency> galacticCurrencies;
+	final GalacticSymbolRegistry symbolRegistry;
+	private final OutputSink outputSink;
+	// null if the results are not cached
+	private final QueryResultCache queryResultCache;
+	private final CreditRounding creditRounding;
+	// null if no metrics are recorded
+	private final ConversionMetrics conversionMetrics;
+	// null if invalid queries fail the conversion
+	private final InvalidLineHandler invalidLineHandler;
 
 	/**
 	 * @param galacticCurrenciesList
 	 */
 	public CurrencyConversionOutputProcessor(List<GalacticCurrency> galacticCurrenciesList) {
-		this.galacticCurrencies = galacticCurrenciesList;
+		this(GalacticSymbolRegistry.of(galacticCurrenciesList));
+	}
+
+	/**
+	 * Results are printed to System.out
+	 * @param symbolRegistry the currencies and metals known in the conversion run
+	 */
+	public CurrencyConversionOutputProcessor(GalacticSymbolRegistry symbolRegistry) {
+		this(symbolRegistry, OutputSink.standardOutput());
+	}
+
+	/**
+	 * @param symbolRegistry the currencies and metals known in the conversion run
+	 * @param outputSink destination of the query results
+	 */
+	public CurrencyConversionOutputProcessor(GalacticSymbolRegistry symbolRegistry, OutputSink outputSink) {
+		this(symbolRegistry, outputSink, null, null, null, null);
+	}
+
+	/**
+	 * Use {@link #builder()} for the optional cache, credit rounding, metrics and
+	 * invalid line handler
+	 * @param symbolRegistry     the currencies and metals known in the conversion
+	 *                           run
+	 * @param outputSink         destination of the query results, System.out if
+	 *                           null
+	 * @param queryResultCache   results of earlier queries, null to evaluate every
+	 *                           query
+	 * @param creditRounding     rounding of credits without a finite decimal
+	 *                           representation, {@link CreditRounding#DEFAULT} if
+	 *                           null
+	 * @param conversionMetrics  records the latency of every query, null to record
+	 *                           nothing
+	 * @param invalidLineHandler receives the queries that can not be answered,
+	 *                           whose result is the error message, null to fail on
+	 *                           them
+	 */
+	@Builder(toBuilder = true)
+	private CurrencyConversionOutputProcessor(GalacticSymbolRegistry symbolRegistry, OutputSink outputSink,
+			QueryResultCache queryResultCache, CreditRounding creditRounding, ConversionMetrics conversionMetrics,
+			InvalidLineHandler invalidLineHandler) {
+		Preconditions.checkArgument(symbolRegistry != null);
+		this.symbolRegistry = symbolRegistry;
+		this.outputSink = outputSink != null ? outputSink : OutputSink.standardOutput();
+		this.queryResultCache = queryResultCache;
+		this.creditRounding = creditRounding != null ? creditRounding : CreditRounding.DEFAULT;
+		this.conversionMetrics = conversionMetrics;
+		this.invalidLineHandler = invalidLineHandler;
+	}
+
+	/**
+	 * @param symbolRegistry other currencies and metals
+	 * @param outputSink     other destination of the query results
+	 * @return processor with the same cache, credit rounding, metrics and invalid
+	 *         line handler
+	 */
+	public CurrencyConversionOutputProcessor withSymbolRegistry(GalacticSymbolRegistry symbolRegistry,
+			OutputSink outputSink) {
+		return toBuilder().symbolRegistry(symbolRegistry).outputSink(outputSink).build();
+	}
+
+	/**
+	 * @return receives the queries that can not be answered, null if they fail
+	 */
+	public InvalidLineHandler getInvalidLineHandler() {
+		return invalidLineHandler;
+	}
+
+	/**
+	 * @return the currencies and metals the queries are evaluated against
+	 */
+	public GalacticSymbolRegistry getSymbolRegistry() {
+		return symbolRegistry;
+	}
+
+	/**
+	 * Function to calculate the value for a classified query of any type, the
+	 * result is taken from the cache if the query was answered before. With an
+	 * invalid line handler a query that can not be answered is reported to it and
+	 * its result is the error message.
+	 * @param query
+	 * @return
+	 */
+	public String calculateValuesForQuery(InputRecord query) {
+		if (invalidLineHandler == null) {
+			return calculateMeasuredValuesForQuery(query);
+		}
+		try {
+			return calculateMeasuredValuesForQuery(query);
+		} catch (InvalidInputException e) {
+			invalidLineHandler.reject(query.getLine(), e);
+			final String errorResult = e.getErrorCode().getMessage();
+			printResult(errorResult);
+			return errorResult;
+		}
+	}
+
+	/**
+	 * @param query
+	 * @return
+	 */
+	private String calculateMeasuredValuesForQuery(InputRecord query) {
+		if (conversionMetrics == null) {
+			return calculateCachedValuesForQuery(query);
+		}
+		final long startNanos = System.nanoTime();
+		try {
+			final String queryResult = calculateCachedValuesForQuery(query);
+			conversionMetrics.recordQuery(outcomeOf(query.getType()), startNanos);
+			return queryResult;
+		} catch (RuntimeException e) {
+			conversionMetrics.recordQuery(QueryOutcome.FAILED, startNanos);
+			throw e;
+		}
+	}
+
+	/**
+	 * @param query
+	 * @return
+	 */
+	private String calculateCachedValuesForQuery(InputRecord query) {
+		if (queryResultCache == null || query.getType() == InputRecordType.UNCATEGORIZED_QUERY) {
+			return evaluateQuery(query);
+		}
+		final long definitionsVersion = symbolRegistry.getVersion();
+		final String cachedResult = queryResultCache.get(query.getLine(), definitionsVersion);
+		if (cachedResult != null) {
+			printResult(cachedResult);
+			return cachedResult;
+		}
+		final String queryResult = evaluateQuery(query);
+		queryResultCache.put(query.getLine(), definitionsVersion, queryResult);
+		return queryResult;
+	}
+
+	/**
+	 * @param query
+	 * @return
+	 */
+	private String evaluateQuery(InputRecord query) {
+		switch (query.getType()) {
+		case GALACTIC_CURRENCY_QUERY:
+			return calculateValuesForGalacticCurrencyQuery((GalacticCurrencyQuery) query);
+		case CREDIT_QUERY:
+			return calculateValuesForCreditQueries((CreditQuery) query);
+		case GALACTIC_VALUE_QUERY:
+		case METAL_QUANTITY_QUERY:
+			return calculateValuesForReverseQuery(query);
+		default:
+			return handleUncategorizedQuery(query.getLine());
+		}
+	}
+
+	/**
+	 * Evaluates the queries without formatting or printing their results, a query
+	 * that can not be answered gets the error code instead of failing the batch
+	 * @param queries classified queries of any type
+	 * @return typed results in query order
+	 */
+	public List<QueryResult> evaluateQueries(List<? extends InputRecord> queries) {
+		final List<QueryResult> queryResults = new ArrayList<QueryResult>(queries.size());
+		for (InputRecord query : queries) {
+			queryResults.add(evaluateQueryResult(query));
+		}
+		return queryResults;
+	}
+
+	/**
+	 * @param query classified query of any type
+	 * @return typed result, with the error code if the query can not be answered
+	 */
+	public QueryResult evaluateQueryResult(InputRecord query) {
+		if (conversionMetrics == null) {
+			return evaluateUnmeasuredQueryResult(query);
+		}
+		final long startNanos = System.nanoTime();
+		final QueryResult queryResult = evaluateUnmeasuredQueryResult(query);
+		conversionMetrics.recordQuery(
+				queryResult.isAnswered() || query.getType() == InputRecordType.UNCATEGORIZED_QUERY
+						? outcomeOf(query.getType())
+						: QueryOutcome.FAILED,
+				startNanos);
+		return queryResult;
+	}
+
+	/**
+	 * @param query
+	 * @return
+	 */
+	private QueryResult evaluateUnmeasuredQueryResult(InputRecord query) {
+		switch (query.getType()) {
+		case GALACTIC_CURRENCY_QUERY:
+			final GalacticCurrencyQuery galacticCurrencyQuery = (GalacticCurrencyQuery) query;
+			return evaluateQueryResult(query, galacticCurrencyQuery.getExpressionStart(),
+					galacticCurrencyQuery.getExpressionEnd(), null);
+		case CREDIT_QUERY:
+			final CreditQuery creditQuery = (CreditQuery) query;
+			return evaluateQueryResult(query, creditQuery.getExpressionStart(), creditQuery.getExpressionEnd(),
+					creditQuery.getMetalName());
+		case GALACTIC_VALUE_QUERY:
+			return evaluateGalacticExpression(query, ((GalacticValueQuery) query).getValue(), null, null);
+		case METAL_QUANTITY_QUERY:
+			return evaluateMetalQuantity((MetalQuantityQuery) query);
+		default:
+			return QueryResult.ofError(query.getType(), ImmutableList.of(), null, QueryErrorCode.UNCATEGORIZED_QUERY);
+		}
+	}
+
+	/**
+	 * @param query
+	 * @param expressionStart
+	 * @param expressionEnd
+	 * @param metalName       null for Galactic Currency queries
+	 * @return
+	 */
+	private QueryResult evaluateQueryResult(InputRecord query, int expressionStart, int expressionEnd, String metalName) {
+		final List<GalacticCurrency> galacticCurrencies = symbolRegistry.resolveGalacticCurrencies(query.getLine(),
+				expressionStart, expressionEnd);
+		final List<String> currencySymbols = new ArrayList<String>(galacticCurrencies.size());
+		for (GalacticCurrency galacticCurrency : galacticCurrencies) {
+			currencySymbols.add(galacticCurrency.getSymbol());
+		}
+		final CommonMetal metalInTrade = metalName == null ? null : symbolRegistry.findMetal(metalName).orElse(null);
+		if (metalName != null && metalInTrade == null) {
+			return QueryResult.ofError(query.getType(), currencySymbols, metalName, QueryErrorCode.UNKNOWN_METAL);
+		}
+		final int expressionValue;
+		try {
+			expressionValue = new GalacticCurrencyExpression(galacticCurrencies).getGalacticCurrencyExpressionValue();
+		} catch (InvalidGalacticCurrencyExpressionException e) {
+			return QueryResult.ofError(query.getType(), currencySymbols, metalName, e.getErrorCode());
+		}
+		return metalInTrade == null ? QueryResult.ofGalacticCurrencyValue(currencySymbols, expressionValue)
+				: QueryResult.ofCredits(currencySymbols, expressionValue, metalName, metalInTrade.getUnitPrice());
+	}
+
+	/**
+	 * @param query
+	 * @return answer of a Metal Quantity query, with the error code if the metal is
+	 *         unknown or the credits do not buy a whole number of units
+	 */
+	private QueryResult evaluateMetalQuantity(MetalQuantityQuery query) {
+		final CommonMetal metalInTrade = symbolRegistry.lookupMetal(query.getLine(), query.getMetalStart(),
+				query.getMetalEnd());
+		if (metalInTrade == null) {
+			return QueryResult.ofError(query.getType(), ImmutableList.of(), query.getMetalName(),
+					QueryErrorCode.UNKNOWN_METAL);
+		}
+		final OptionalLong quantity = metalInTrade.getUnitPrice().unitsFor(query.getCredits());
+		if (!quantity.isPresent()) {
+			return QueryResult.ofError(query.getType(), ImmutableList.of(), query.getMetalName(),
+					QueryErrorCode.FRACTIONAL_QUANTITY);
+		}
+		return evaluateGalacticExpression(query, quantity.getAsLong(), query.getMetalName(),
+				metalInTrade.getUnitPrice());
+	}
+
+	/**
+	 * Renders the value in Galactic Currency with the per-digit expression table of
+	 * the registry
+	 * @param query
+	 * @param value
+	 * @param metalName null for Galactic Value queries
+	 * @param unitPrice null for Galactic Value queries
+	 * @return
+	 */
+	private QueryResult evaluateGalacticExpression(InputRecord query, long value, String metalName,
+			UnitPrice unitPrice) {
+		final GalacticExpressionTable expressionTable = symbolRegistry.getExpressionTable();
+		final QueryErrorCode errorCode = expressionTable.check(value);
+		if (errorCode != null) {
+			return QueryResult.ofError(query.getType(), ImmutableList.of(), metalName, errorCode);
+		}
+		final List<GalacticCurrency> galacticCurrencies = expressionTable.toGalacticCurrencies(value);
+		final List<String> currencySymbols = new ArrayList<String>(galacticCurrencies.size());
+		for (GalacticCurrency galacticCurrency : galacticCurrencies) {
+			currencySymbols.add(galacticCurrency.getSymbol());
+		}
+		return metalName == null ? QueryResult.ofGalacticValueExpression(currencySymbols, (int) value)
+				: QueryResult.ofMetalQuantity(currencySymbols, (int) value, metalName, unitPrice);
+	}
+
+	/**
+	 * Function to calculate the value for Galactic Value and Metal Quantity
+	 * queries, the result is formatted from the typed result
+	 * @param query
+	 * @return
+	 */
+	private String calculateValuesForReverseQuery(InputRecord query) {
+		final QueryResult queryResult = evaluateUnmeasuredQueryResult(query);
+		if (!queryResult.isAnswered()) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(queryResult.getErrorCode());
+		}
+		final String reverseQueryResult = queryResult.toText(creditRounding);
+		printResult(reverseQueryResult);
+		return reverseQueryResult;
 	}
 
-	
 	/**
 	 * Function to calculate the value for Galactic Currency queries
 	 * @param query
 	 * @return
 	 */
 	public String calculateValuesForGalacticCurrencyQuery(String query) {
-		final GalacticCurrencyExpression galacticCurrencyExpression = getGalacticCurrencyExpression(galacticCurrencies,
-				query);
-		String gcValueResult = generateGalacticCurrencyQueryResult(query, galacticCurrencyExpression);
+		return calculateValuesForGalacticCurrencyQuery(GalacticCurrencyQuery.parse(query));
+	}
+
+	/**
+	 * Function to calculate the value for a classified Galactic Currency query
+	 * @param query
+	 * @return
+	 */
+	public String calculateValuesForGalacticCurrencyQuery(GalacticCurrencyQuery query) {
+		final GalacticCurrencyExpression galacticCurrencyExpression = getGalacticCurrencyExpression(query.getLine(),
+				query.getExpressionStart(), query.getExpressionEnd());
+		String gcValueResult = formatGCQueryResult(galacticCurrencyExpression);
 		printResult(gcValueResult);
 		return gcValueResult;
 	}
@@ -50,9 +380,52 @@ public class CurrencyConversionOutputProcessor {
 	 * @return
 	 */
 	public String calculateValuesForCreditQueries(String query, List<CommonMetal> metalsInTrade) {
-		final GalacticCurrencyExpression galacticCurrencyExpressions = getGalacticCurrencyExpression(galacticCurrencies,
-				query);
-		final String creditQueryResult = generateCreditQueryResult(query, metalsInTrade, galacticCurrencyExpressions);
+		return calculateValuesForCreditQueries(CreditQuery.parse(query), metalsInTrade);
+	}
+
+	/**
+	 * Function to calculate the value for a classified Metal Credit value query
+	 * @param query
+	 * @param metalsInTrade
+	 * @return
+	 */
+	public String calculateValuesForCreditQueries(CreditQuery query, List<CommonMetal> metalsInTrade) {
+		return calculateValuesForCreditQueries(query,
+				CommonMetal.selectBySymbol(query.getMetalName(), metalsInTrade).orElse(null));
+	}
+
+	/**
+	 * Function to calculate the value for a classified Metal Credit value query
+	 * against the metals of the symbol registry
+	 * @param query
+	 * @return
+	 */
+	public String calculateValuesForCreditQueries(CreditQuery query) {
+		return calculateValuesForCreditQueries(query,
+				symbolRegistry.lookupMetal(query.getLine(), query.getMetalStart(), query.getMetalEnd()));
+	}
+
+	/**
+	 * @param query
+	 * @param metalInTrade null if the metal of the query is unknown
+	 * @return
+	 */
+	private String calculateValuesForCreditQueries(CreditQuery query, CommonMetal metalInTrade) {
+		if (metalInTrade == null) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.UNKNOWN_METAL);
+		}
+		final GalacticCurrencyExpression galacticCurrencyExpression = getGalacticCurrencyExpression(query.getLine(),
+				query.getExpressionStart(), query.getExpressionEnd());
+		final StringBuilder creditTransactionOutput = appendSymbols(new StringBuilder(),
+				galacticCurrencyExpression.getGalacticCurrencyExpression());
+		if (creditTransactionOutput.length() > 0) {
+			creditTransactionOutput.append(' ');
+		}
+		creditTransactionOutput.append(query.getLine(), query.getMetalStart(), query.getMetalEnd()).append(" is ");
+		final String creditQueryResult = metalInTrade.getUnitPrice()
+				.appendCredits(creditTransactionOutput,
+						galacticCurrencyExpression.getGalacticCurrencyExpressionValue(), creditRounding)
+				.append(" Credits").toString();
 		printResult(creditQueryResult);
 		return creditQueryResult;
 	}
@@ -69,16 +442,15 @@ public class CurrencyConversionOutputProcessor {
 	}
 
 	/**
-	 * Function to build the GalacticCurrencyExpression from the GalacticCurrencyValueQuery
-	 * @param galacticCurrenciesList
-	 * @param gcQuery
+	 * Function to build the GalacticCurrencyExpression from a region of the query
+	 * @param query
+	 * @param expressionStart
+	 * @param expressionEnd
 	 * @return
 	 */
-	static GalacticCurrencyExpression getGalacticCurrencyExpression(List<GalacticCurrency> galacticCurrenciesList,
-			String gcQuery) {
-		final List<String> galacticCurrencyQueryComponents = Arrays.asList(gcQuery.split(" "));
-		final List<GalacticCurrency> galacticCurrencies = GalacticCurrency
-				.getGalacticCurrencyFromComponents(galacticCurrencyQueryComponents, galacticCurrenciesList);
+	GalacticCurrencyExpression getGalacticCurrencyExpression(String query, int expressionStart, int expressionEnd) {
+		final List<GalacticCurrency> galacticCurrencies = symbolRegistry.resolveGalacticCurrencies(query,
+				expressionStart, expressionEnd);
 		GalacticCurrencyExpression galacticCurrencyExpression = new GalacticCurrencyExpression(galacticCurrencies);
 
 		return galacticCurrencyExpression;
@@ -95,83 +467,96 @@ public class CurrencyConversionOutputProcessor {
 	}
 
 	/**
-	 * @param galacticCurrencyValueQuery
-	 * @param galacticCurrencyExpression
+	 * @param gcValueQuery
+	 * @param gcExpression
 	 * @return
 	 */
-	private String generateGalacticCurrencyQueryResult(String galacticCurrencyValueQuery,
-			GalacticCurrencyExpression galacticCurrencyExpression) {
-		Preconditions.checkArgument(galacticCurrencyValueQuery != null && galacticCurrencyExpression != null);
-		return formatGCQueryResult(galacticCurrencyValueQuery, galacticCurrencyExpression);
+	static String formatGCQueryResult(final String gcValueQuery, final GalacticCurrencyExpression gcExpression) {
+		final LineTokenizer tokens = new LineTokenizer().tokenize(gcValueQuery);
+		final StringBuilder gcQueryResult = appendTokensInExpression(new StringBuilder(), tokens, 0,
+				tokens.tokenCount(), gcExpression.getGalacticCurrencyExpression());
+		return appendIs(gcQueryResult).append(gcExpression.getGalacticCurrencyExpressionValue()).toString();
 	}
 
 	/**
-	 * @param gcValueQuery
 	 * @param gcExpression
 	 * @return
 	 */
-	static String formatGCQueryResult(final String gcValueQuery, final GalacticCurrencyExpression gcExpression) {
-		final String[] splits = gcValueQuery.split(" ");
-		final List<String> gcQueryResult = Arrays.asList(splits).stream().filter(s -> gcExpression
-				.getGalacticCurrencyExpression().stream().anyMatch(galacticCurrency -> galacticCurrency.isSame(s)))
-				.collect(Collectors.toList());
-		gcQueryResult.add("is");
-		gcQueryResult.add(gcExpression.getGalacticCurrencyExpressionValue().toString());
-		return Joiner.on(" ").join(gcQueryResult);
+	static String formatGCQueryResult(final GalacticCurrencyExpression gcExpression) {
+		Preconditions.checkArgument(gcExpression != null);
+		return appendIs(appendSymbols(new StringBuilder(), gcExpression.getGalacticCurrencyExpression()))
+				.append(gcExpression.getGalacticCurrencyExpressionValue()).toString();
 	}
 
 	/**
-	 * @param creditsQuery
-	 * @param metals
-	 * @param galacticCurrencyExpressions
+	 * @param creditsTransaction
+	 * @param creditsValue
+	 * @param galacticCurrenciesInQuery
 	 * @return
 	 */
-	private String generateCreditQueryResult(String creditsQuery, List<CommonMetal> metals,
-			GalacticCurrencyExpression galacticCurrencyExpression) {
-		final String creditQueryResult = formatResultsForCreditQueries(creditsQuery, metals, galacticCurrencyExpression);
-		return creditQueryResult;
+	static String formatCreditsQueryResult(String creditsTransaction, BigDecimal creditsValue,
+			List<GalacticCurrency> galacticCurrenciesInQuery) {
+		final LineTokenizer tokens = new LineTokenizer().tokenize(creditsTransaction);
+		final int metalToken = tokens.tokenCount() - 2;
+		final StringBuilder creditTransactionOutput = appendTokensInExpression(new StringBuilder(), tokens, 0,
+				tokens.tokenCount(), galacticCurrenciesInQuery);
+		if (creditTransactionOutput.length() > 0) {
+			creditTransactionOutput.append(' ');
+		}
+		return creditTransactionOutput.append(creditsTransaction, tokens.start(metalToken), tokens.end(metalToken))
+				.append(" is ").append(creditsValue.stripTrailingZeros().toPlainString()).append(" Credits")
+				.toString();
 	}
 
-	
 	/**
-	 * @param creditsTransaction
-	 * @param metalList
-	 * @param galacticCurrencyExpression
+	 * Appends the tokens that are one of the Galactic Currencies of the expression
+	 * @param output
+	 * @param tokens
+	 * @param fromToken
+	 * @param toToken
+	 * @param galacticCurrencies
 	 * @return
 	 */
-	private static String formatResultsForCreditQueries(String creditsTransaction, List<CommonMetal> metalList,
-			GalacticCurrencyExpression galacticCurrencyExpression) {
-		String[] creditTransactionComponents = creditsTransaction.split(" ");
-		final String rareMetalSymbol = creditTransactionComponents[creditTransactionComponents.length - 2];
-		Optional<CommonMetal> rareMetal = CommonMetal.selectBySymbol(rareMetalSymbol, metalList);
-		if (rareMetal.isPresent()) {
-			final BigDecimal creditsValue = rareMetal.get().getPerUnitValue()
-					.multiply(BigDecimal.valueOf(galacticCurrencyExpression.getGalacticCurrencyExpressionValue()));
-			final String creditTransactionOutput = formatCreditsQueryResult(creditsTransaction,
-					creditsValue, galacticCurrencyExpression.getGalacticCurrencyExpression());
-			return creditTransactionOutput;
-		} else {
-			throw new InvalidGalacticCurrencyConvesionQueryException("Common metal not found in credit transaction");
+	private static StringBuilder appendTokensInExpression(StringBuilder output, LineTokenizer tokens, int fromToken,
+			int toToken, List<GalacticCurrency> galacticCurrencies) {
+		for (int token = fromToken; token < toToken; token++) {
+			for (GalacticCurrency galacticCurrency : galacticCurrencies) {
+				if (tokens.tokenEquals(token, galacticCurrency.getSymbol())) {
+					if (output.length() > 0) {
+						output.append(' ');
+					}
+					output.append(tokens.getLine(), tokens.start(token), tokens.end(token));
+					break;
+				}
+			}
 		}
+		return output;
 	}
 
 	/**
-	 * @param creditsTransaction
-	 * @param creditsValue
-	 * @param galacticCurrenciesInQuery
+	 * @param output symbols of the expression, empty if none is defined
+	 * @return the output followed by "is ", separated by a space from the symbols
+	 */
+	private static StringBuilder appendIs(StringBuilder output) {
+		if (output.length() > 0) {
+			output.append(' ');
+		}
+		return output.append("is ");
+	}
+
+	/**
+	 * @param output
+	 * @param galacticCurrencies
 	 * @return
 	 */
-	static String formatCreditsQueryResult(String creditsTransaction, BigDecimal creditsValue,
-			List<GalacticCurrency> galacticCurrenciesInQuery) {
-		final String[] splits = creditsTransaction.split(" ");
-		final List<String> galacticCurrenciesInTransactionOutput = Arrays.asList(splits).stream().filter(
-				s -> galacticCurrenciesInQuery.stream().anyMatch(galacticCurrency -> galacticCurrency.isSame(s)))
-				.collect(Collectors.toList());
-		galacticCurrenciesInTransactionOutput.add(splits[splits.length - 2]);
-		galacticCurrenciesInTransactionOutput.add("is");
-		galacticCurrenciesInTransactionOutput.add(creditsValue.stripTrailingZeros().toPlainString());
-		galacticCurrenciesInTransactionOutput.add("Credits");
-		return Joiner.on(" ").join(galacticCurrenciesInTransactionOutput);
+	private static StringBuilder appendSymbols(StringBuilder output, List<GalacticCurrency> galacticCurrencies) {
+		for (GalacticCurrency galacticCurrency : galacticCurrencies) {
+			if (output.length() > 0) {
+				output.append(' ');
+			}
+			output.append(galacticCurrency.getSymbol());
+		}
+		return output;
 	}
 
 	/**
@@ -184,11 +569,30 @@ public class CurrencyConversionOutputProcessor {
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * @param queryType
+	 * @return outcome of an answered query of the type
+	 */
+	private static QueryOutcome outcomeOf(InputRecordType queryType) {
+		switch (queryType) {
+		case GALACTIC_CURRENCY_QUERY:
+			return QueryOutcome.GALACTIC_CURRENCY;
+		case CREDIT_QUERY:
+			return QueryOutcome.CREDIT;
+		case GALACTIC_VALUE_QUERY:
+			return QueryOutcome.GALACTIC_VALUE;
+		case METAL_QUANTITY_QUERY:
+			return QueryOutcome.METAL_QUANTITY;
+		default:
+			return QueryOutcome.UNCATEGORIZED;
+		}
+	}
+
 	/**
 	 * @param queryResult
 	 */
-	private static void printResult(String queryResult) {
-		System.out.println(queryResult);
+	private void printResult(String queryResult) {
+		outputSink.write(queryResult);
 	}
 
 }
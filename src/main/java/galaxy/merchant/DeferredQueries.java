@@ -0,0 +1,263 @@
+package galaxy.merchant;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import com.google.common.base.Preconditions;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.parser.CreditQuery;
+import galaxy.merchant.parser.GalacticCurrencyQuery;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.MetalQuantityQuery;
+
+/**
+ * Parking area for queries that arrive before the definitions they use. A
+ * parked query is indexed by the first Galactic Currency symbol or metal name
+ * it is missing and released as soon as that definition is registered, or
+ * parked again under the next missing symbol. Queries parked longer than the
+ * timeout, and the oldest queries once more than the maximum are parked, are
+ * released unresolved and answered against the definitions known by then.
+ * <p>
+ * Released queries are handed to the caller, which answers them, so results of
+ * deferred queries are not in input order. Instances are not thread safe.
+ *
+ * @author kommineni
+ *
+ */
+public class DeferredQueries {
+
+	public static final int DEFAULT_MAXIMUM_PARKED = 100_000;
+	public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+	private final int maximumParked;
+	private final long timeoutNanos;
+	private final LongSupplier nanoClock;
+
+	// parked queries in arrival order
+	private final Set<ParkedQuery> parkedQueries = new LinkedHashSet<ParkedQuery>();
+	// parked queries by the symbol they wait for
+	private final Map<String, Set<ParkedQuery>> waitingQueries = new HashMap<String, Set<ParkedQuery>>();
+
+	private long parkedCount;
+	private long resolvedCount;
+	private long expiredCount;
+	private long evictedCount;
+
+	public DeferredQueries() {
+		this(DEFAULT_MAXIMUM_PARKED, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * @param maximumParked queries parked at most, the oldest one is released
+	 *                      when another one is parked
+	 * @param timeout       time a query is parked at most
+	 */
+	public DeferredQueries(int maximumParked, Duration timeout) {
+		this(maximumParked, timeout, System::nanoTime);
+	}
+
+	/**
+	 * @param maximumParked queries parked at most
+	 * @param timeout       time a query is parked at most
+	 * @param nanoClock     source of {@link System#nanoTime()} values
+	 */
+	DeferredQueries(int maximumParked, Duration timeout, LongSupplier nanoClock) {
+		Preconditions.checkArgument(maximumParked > 0);
+		Preconditions.checkArgument(!timeout.isNegative());
+		this.maximumParked = maximumParked;
+		this.timeoutNanos = timeout.toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * Parks the query if it uses a symbol that is not defined yet
+	 * @param query
+	 * @param symbolRegistry definitions known so far
+	 * @param release        answers the oldest query if the parking area is full
+	 * @return false if nothing is missing and the query has to be answered now
+	 */
+	public boolean defer(InputRecord query, GalacticSymbolRegistry symbolRegistry, Consumer<InputRecord> release) {
+		final String missingSymbol = missingSymbol(query, symbolRegistry);
+		if (missingSymbol == null) {
+			return false;
+		}
+		if (parkedQueries.size() == maximumParked) {
+			final ParkedQuery oldest = parkedQueries.iterator().next();
+			unpark(oldest);
+			evictedCount++;
+			release.accept(oldest.query);
+		}
+		final ParkedQuery parkedQuery = new ParkedQuery(query, nanoClock.getAsLong() + timeoutNanos);
+		parkedQueries.add(parkedQuery);
+		park(parkedQuery, missingSymbol);
+		parkedCount++;
+		return true;
+	}
+
+	/**
+	 * Releases the queries waiting for a symbol that was just defined, or parks
+	 * them again under their next missing symbol
+	 * @param symbol         Galactic Currency symbol or metal name
+	 * @param symbolRegistry definitions including the symbol
+	 * @param release        answers the queries that are complete
+	 */
+	public void resolve(String symbol, GalacticSymbolRegistry symbolRegistry, Consumer<InputRecord> release) {
+		final Set<ParkedQuery> waiting = waitingQueries.remove(symbol);
+		if (waiting == null) {
+			return;
+		}
+		for (ParkedQuery parkedQuery : waiting) {
+			final String missingSymbol = missingSymbol(parkedQuery.query, symbolRegistry);
+			if (missingSymbol == null) {
+				parkedQueries.remove(parkedQuery);
+				resolvedCount++;
+				release.accept(parkedQuery.query);
+			} else {
+				park(parkedQuery, missingSymbol);
+			}
+		}
+	}
+
+	/**
+	 * Releases the queries parked longer than the timeout, oldest first
+	 * @param release answers the queries against the definitions known so far
+	 */
+	public void expire(Consumer<InputRecord> release) {
+		if (parkedQueries.isEmpty()) {
+			return;
+		}
+		final long now = nanoClock.getAsLong();
+		final Iterator<ParkedQuery> oldestFirst = parkedQueries.iterator();
+		while (oldestFirst.hasNext()) {
+			final ParkedQuery parkedQuery = oldestFirst.next();
+			if (parkedQuery.deadlineNanos - now > 0) {
+				return;
+			}
+			oldestFirst.remove();
+			removeWaiting(parkedQuery);
+			expiredCount++;
+			release.accept(parkedQuery.query);
+		}
+	}
+
+	/**
+	 * Releases every parked query in arrival order, at the end of the input
+	 * @param release answers the queries against the definitions known so far
+	 */
+	public void releaseAll(Consumer<InputRecord> release) {
+		for (ParkedQuery parkedQuery : parkedQueries) {
+			release.accept(parkedQuery.query);
+		}
+		parkedQueries.clear();
+		waitingQueries.clear();
+	}
+
+	/**
+	 * @return number of queries parked now
+	 */
+	public int size() {
+		return parkedQueries.size();
+	}
+
+	/**
+	 * @return number of queries parked so far
+	 */
+	public long getParkedCount() {
+		return parkedCount;
+	}
+
+	/**
+	 * @return number of parked queries released because their definitions arrived
+	 */
+	public long getResolvedCount() {
+		return resolvedCount;
+	}
+
+	/**
+	 * @return number of parked queries released by the timeout
+	 */
+	public long getExpiredCount() {
+		return expiredCount;
+	}
+
+	/**
+	 * @return number of parked queries released to stay within the maximum
+	 */
+	public long getEvictedCount() {
+		return evictedCount;
+	}
+
+	/**
+	 * @param query
+	 * @param symbolRegistry
+	 * @return the first symbol of the query without a definition, null if the
+	 *         query can be answered
+	 */
+	static String missingSymbol(InputRecord query, GalacticSymbolRegistry symbolRegistry) {
+		switch (query.getType()) {
+		case GALACTIC_CURRENCY_QUERY:
+			return missingCurrency(((GalacticCurrencyQuery) query).getExpressionTokens(), symbolRegistry);
+		case CREDIT_QUERY:
+			final CreditQuery creditQuery = (CreditQuery) query;
+			final String missingCurrency = missingCurrency(creditQuery.getExpressionTokens(), symbolRegistry);
+			if (missingCurrency != null) {
+				return missingCurrency;
+			}
+			return missingMetal(creditQuery.getMetalName(), symbolRegistry);
+		case METAL_QUANTITY_QUERY:
+			return missingMetal(((MetalQuantityQuery) query).getMetalName(), symbolRegistry);
+		default:
+			return null;
+		}
+	}
+
+	private static String missingCurrency(Iterable<String> symbols, GalacticSymbolRegistry symbolRegistry) {
+		for (String symbol : symbols) {
+			if (!symbolRegistry.findGalacticCurrency(symbol).isPresent()) {
+				return symbol;
+			}
+		}
+		return null;
+	}
+
+	private static String missingMetal(String metalName, GalacticSymbolRegistry symbolRegistry) {
+		return symbolRegistry.findMetal(metalName).isPresent() ? null : metalName;
+	}
+
+	private void park(ParkedQuery parkedQuery, String missingSymbol) {
+		parkedQuery.missingSymbol = missingSymbol;
+		waitingQueries.computeIfAbsent(missingSymbol, symbol -> new LinkedHashSet<ParkedQuery>()).add(parkedQuery);
+	}
+
+	private void unpark(ParkedQuery parkedQuery) {
+		parkedQueries.remove(parkedQuery);
+		removeWaiting(parkedQuery);
+	}
+
+	private void removeWaiting(ParkedQuery parkedQuery) {
+		final Set<ParkedQuery> waiting = waitingQueries.get(parkedQuery.missingSymbol);
+		if (waiting != null && waiting.remove(parkedQuery) && waiting.isEmpty()) {
+			waitingQueries.remove(parkedQuery.missingSymbol);
+		}
+	}
+
+	/**
+	 * Parked query, compared by identity
+	 */
+	private static final class ParkedQuery {
+
+		private final InputRecord query;
+		private final long deadlineNanos;
+		private String missingSymbol;
+
+		private ParkedQuery(InputRecord query, long deadlineNanos) {
+			this.query = query;
+			this.deadlineNanos = deadlineNanos;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package galaxy.merchant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import com.google.common.base.Preconditions;
+import galaxy.merchant.model.CommonMetal;
+import galaxy.merchant.model.GalacticCurrency;
+import galaxy.merchant.model.GalacticCurrencyExpression;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.NumeralTable;
+import galaxy.merchant.parser.GalacticCurrencyDefinition;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.MetalValueDefinition;
+
+/**
+ * Definitions that are added or redefined one at a time. Every metal is
+ * indexed by the symbols of its definition, including symbols that are not
+ * defined yet, so redefining a Galactic Currency only recomputes the unit
+ * prices of the metals that use it. A metal is held back until every symbol of
+ * its definition is defined, a redefined metal keeps its earlier price until
+ * then.
+ * <p>
+ * Unlike a conversion run, a redefinition replaces the earlier definition. An
+ * update that leaves a dependent metal without a valid price fails and changes
+ * nothing. The session is not thread safe, queries can be answered from
+ * {@link GalacticSymbolRegistry#snapshot()} of the registry.
+ *
+ * @author kommineni
+ *
+ */
+public class DefinitionSession {
+
+	private final GalacticSymbolRegistry symbolRegistry;
+	private final InputClassifier inputClassifier;
+	private final Map<String, MetalValueDefinition> metalDefinitions = new HashMap<String, MetalValueDefinition>();
+	// metal names by the symbols of their definitions
+	private final Map<String, Set<String>> dependentMetals = new HashMap<String, Set<String>>();
+
+	public DefinitionSession() {
+		this(new GalacticSymbolRegistry());
+	}
+
+	/**
+	 * @param symbolRegistry definitions to start from, metals already registered
+	 *                       are not recomputed until they are redefined
+	 */
+	public DefinitionSession(GalacticSymbolRegistry symbolRegistry) {
+		Preconditions.checkArgument(!symbolRegistry.isFrozen());
+		this.symbolRegistry = symbolRegistry;
+		this.inputClassifier = new InputClassifier(NumeralTable.standardRomanSymbols());
+	}
+
+	/**
+	 * @param source session to copy, its registry is copied as well
+	 */
+	private DefinitionSession(DefinitionSession source) {
+		this.symbolRegistry = source.symbolRegistry.copy();
+		this.inputClassifier = source.inputClassifier;
+		this.metalDefinitions.putAll(source.metalDefinitions);
+		source.dependentMetals.forEach(
+				(symbol, metalNames) -> dependentMetals.put(symbol, new LinkedHashSet<String>(metalNames)));
+	}
+
+	/**
+	 * @return a session over a copy of the definitions, changing it leaves this
+	 *         session unchanged
+	 */
+	public DefinitionSession copy() {
+		return new DefinitionSession(this);
+	}
+
+	/**
+	 * Adds or redefines the definition of an input line
+	 * @param definitionLine currency or metal definition
+	 * @return the metals whose unit price was recomputed
+	 * @throws IllegalArgumentException if the line is not a definition
+	 */
+	public List<CommonMetal> define(String definitionLine) {
+		final Optional<InputRecord> inputRecord = inputClassifier.classify(definitionLine);
+		Preconditions.checkArgument(inputRecord.isPresent(), "Blank definition");
+		switch (inputRecord.get().getType()) {
+		case GALACTIC_CURRENCY_DEFINITION:
+			return defineGalacticCurrency(((GalacticCurrencyDefinition) inputRecord.get()).toGalacticCurrency());
+		case METAL_VALUE_DEFINITION:
+			return defineMetal((MetalValueDefinition) inputRecord.get()).map(Collections::singletonList)
+					.orElse(Collections.emptyList());
+		default:
+			throw new IllegalArgumentException("Not a definition: " + definitionLine);
+		}
+	}
+
+	/**
+	 * Adds or redefines a Galactic Currency and recomputes the metals using it
+	 * @param galacticCurrency
+	 * @return the metals whose unit price was recomputed
+	 */
+	public List<CommonMetal> defineGalacticCurrency(GalacticCurrency galacticCurrency) {
+		final Optional<GalacticCurrency> previous = symbolRegistry.findGalacticCurrency(galacticCurrency.getSymbol());
+		if (previous.isPresent() && previous.get().equals(galacticCurrency)) {
+			return Collections.emptyList();
+		}
+		// compute every dependent price before changing anything
+		final List<CommonMetal> recomputedMetals = new ArrayList<CommonMetal>();
+		for (String metalName : getDependentMetals(galacticCurrency.getSymbol())) {
+			toCommonMetal(metalDefinitions.get(metalName), galacticCurrency).ifPresent(recomputedMetals::add);
+		}
+		symbolRegistry.putGalacticCurrency(galacticCurrency);
+		recomputedMetals.forEach(symbolRegistry::putMetal);
+		return recomputedMetals;
+	}
+
+	/**
+	 * Adds or redefines a metal
+	 * @param metalValueDefinition
+	 * @return the metal with its unit price, empty while a symbol of its
+	 *         definition is not defined
+	 */
+	public Optional<CommonMetal> defineMetal(MetalValueDefinition metalValueDefinition) {
+		final String metalName = metalValueDefinition.getMetalName();
+		final Optional<CommonMetal> metal = toCommonMetal(metalValueDefinition, null);
+		final MetalValueDefinition previous = metalDefinitions.put(metalName, metalValueDefinition);
+		if (previous != null) {
+			for (String symbol : previous.getExpressionTokens()) {
+				final Set<String> metalNames = dependentMetals.get(symbol);
+				if (metalNames != null && metalNames.remove(metalName) && metalNames.isEmpty()) {
+					dependentMetals.remove(symbol);
+				}
+			}
+		}
+		for (String symbol : metalValueDefinition.getExpressionTokens()) {
+			dependentMetals.computeIfAbsent(symbol, key -> new LinkedHashSet<String>()).add(metalName);
+		}
+		metal.ifPresent(symbolRegistry::putMetal);
+		return metal;
+	}
+
+	/**
+	 * @param symbol Galactic Currency symbol, defined or not
+	 * @return names of the metals whose definition uses the symbol
+	 */
+	public Set<String> getDependentMetals(String symbol) {
+		final Set<String> metalNames = dependentMetals.get(symbol);
+		return metalNames == null ? Collections.emptySet() : Collections.unmodifiableSet(metalNames);
+	}
+
+	/**
+	 * @return the live definitions of the session
+	 */
+	public GalacticSymbolRegistry getSymbolRegistry() {
+		return symbolRegistry;
+	}
+
+	/**
+	 * @param metalValueDefinition
+	 * @param pendingCurrency      replaces the registered currency of its
+	 *                             symbol, null if there is none
+	 * @return the metal priced with the pending currency, empty if a symbol of
+	 *         the definition is not defined
+	 */
+	private Optional<CommonMetal> toCommonMetal(MetalValueDefinition metalValueDefinition,
+			GalacticCurrency pendingCurrency) {
+		final List<GalacticCurrency> galacticCurrencies = new ArrayList<GalacticCurrency>();
+		for (String symbol : metalValueDefinition.getExpressionTokens()) {
+			final Optional<GalacticCurrency> galacticCurrency = pendingCurrency != null && pendingCurrency.isSame(symbol)
+					? Optional.of(pendingCurrency)
+					: symbolRegistry.findGalacticCurrency(symbol);
+			if (!galacticCurrency.isPresent()) {
+				return Optional.empty();
+			}
+			galacticCurrencies.add(galacticCurrency.get());
+		}
+		return Optional.of(CommonMetal.createFromMetalValueDefinition(metalValueDefinition.getMetalName(),
+				metalValueDefinition.getCredits(), new GalacticCurrencyExpression(galacticCurrencies)));
+	}
+}
@@ -1,11 +1,39 @@
 package galaxy.merchant;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.RoundingMode;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
-import com.google.common.collect.ImmutableList;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.management.JMException;
+import com.google.common.base.Enums;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.primitives.Longs;
+import galaxy.merchant.exception.InvalidLineHandler;
+import galaxy.merchant.input.LineReader;
+import galaxy.merchant.input.MappedLineReader;
+import galaxy.merchant.metrics.ConversionMetrics;
+import galaxy.merchant.model.CreditRounding;
+import galaxy.merchant.model.DefinitionSnapshot;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.NumeralTable;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.output.WriterOutputSink;
+import galaxy.merchant.pipeline.PipelinedConversion;
+import galaxy.merchant.server.QueryServer;
+import galaxy.merchant.server.QueryService;
 
 /**
  * @author kommineni
@@ -13,15 +41,302 @@ import com.google.common.collect.ImmutableList;
  */
 
 public class GalacticCurrencyConverter {
+
+	/** evaluates the queries on all cores */
+	static final String PARALLEL_OPTION = "--parallel";
+	/** answers every query as soon as it is read, after the definitions before it */
+	static final String STREAM_OPTION = "--stream";
+	/** streams the memory mapped input file */
+	static final String MMAP_OPTION = "--mmap";
+	/** --cache[=size] answers repeated queries from a cache */
+	static final String CACHE_OPTION = "--cache";
+	/** --credit-scale=n rounds credits without finite decimals to n decimals */
+	static final String CREDIT_SCALE_OPTION = "--credit-scale";
+	/** --credit-rounding=mode is the {@link RoundingMode} of such credits */
+	static final String CREDIT_ROUNDING_OPTION = "--credit-rounding";
+	/** --server[=port] answers queries over HTTP until the JVM is stopped */
+	static final String SERVER_OPTION = "--server";
+	/** exposes stage and query latencies over JMX and prints them to System.err */
+	static final String METRICS_OPTION = "--metrics";
+	/** --snapshot=file starts from the definitions of the file and saves changed ones */
+	static final String SNAPSHOT_OPTION = "--snapshot";
+	/** reads, classifies, evaluates and writes on separate threads */
+	static final String PIPELINE_OPTION = "--pipeline";
+	/** reports invalid lines to System.err and continues */
+	static final String KEEP_GOING_OPTION = "--keep-going";
+	/** --defer[=millis] answers queries using undefined symbols once they are defined */
+	static final String DEFER_OPTION = "--defer";
+	/** --ingest=dir[/glob] converts the matching files in parallel against their merged definitions */
+	static final String INGEST_OPTION = "--ingest";
+	/** --output-dir=dir receives the results of --ingest, dir/out by default */
+	static final String OUTPUT_DIR_OPTION = "--output-dir";
+	static final int DEFAULT_SERVER_PORT = 8642;
+
+	static final String USAGE = "Usage: GalacticCurrencyConverter [--stream] [--mmap] [--parallel] [--pipeline]"
+			+ " [--defer[=millis]] [--keep-going] [--cache[=size]] [--credit-scale=n] [--credit-rounding=mode]"
+			+ " [--metrics] [--snapshot=file] [--ingest=dir[/glob] [--output-dir=dir]] [--server[=port]]"
+			+ " [input file]";
+
+	// options that are ignored next to the option of the key
+	private static final SetMultimap<String, String> INCOMPATIBLE_OPTIONS = ImmutableSetMultimap
+			.<String, String>builder()
+			.putAll(SERVER_OPTION, PARALLEL_OPTION, STREAM_OPTION, MMAP_OPTION, PIPELINE_OPTION, DEFER_OPTION,
+					KEEP_GOING_OPTION, CREDIT_SCALE_OPTION, CREDIT_ROUNDING_OPTION, METRICS_OPTION, SNAPSHOT_OPTION,
+					INGEST_OPTION, OUTPUT_DIR_OPTION)
+			.putAll(INGEST_OPTION, STREAM_OPTION, MMAP_OPTION, PIPELINE_OPTION, DEFER_OPTION)
+			.putAll(PIPELINE_OPTION, PARALLEL_OPTION, STREAM_OPTION, DEFER_OPTION).build();
+
+	/**
+	 * Converts the input file, the bundled input.txt if there is none. By default
+	 * the whole file is read and all its definitions are registered before the
+	 * queries are answered.
+	 * @param args options of {@link #USAGE}
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 * @throws JMException
+	 * @throws IllegalArgumentException with the usage if an option is unknown, has
+	 *                                  an invalid value or is ignored next to
+	 *                                  another one
+	 */
+	public static void main(String[] args) throws IOException, URISyntaxException, JMException {
+		boolean parallel = false;
+		boolean streaming = false;
+		boolean memoryMapped = false;
+		boolean pipelined = false;
+		InvalidLineHandler invalidLineHandler = null;
+		DeferredQueries deferredQueries = null;
+		Integer cacheSize = null;
+		int creditScale = CreditRounding.DEFAULT.getScale();
+		RoundingMode creditRoundingMode = CreditRounding.DEFAULT.getRoundingMode();
+		Integer serverPort = null;
+		boolean metrics = false;
+		Path snapshotFile = null;
+		Path inputFile = null;
+		Path ingestPath = null;
+		Path outputDirectory = null;
+		final Set<String> options = new LinkedHashSet<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				options.add(arg.indexOf('=') < 0 ? arg : arg.substring(0, arg.indexOf('=')));
+			}
+			if (PARALLEL_OPTION.equals(arg)) {
+				parallel = true;
+			} else if (STREAM_OPTION.equals(arg)) {
+				streaming = true;
+			} else if (MMAP_OPTION.equals(arg)) {
+				memoryMapped = true;
+			} else if (PIPELINE_OPTION.equals(arg)) {
+				pipelined = true;
+			} else if (DEFER_OPTION.equals(arg)) {
+				deferredQueries = new DeferredQueries();
+			} else if (arg.startsWith(DEFER_OPTION + "=")) {
+				deferredQueries = new DeferredQueries(DeferredQueries.DEFAULT_MAXIMUM_PARKED,
+						Duration.ofMillis(numberOption(arg, DEFER_OPTION, 0, Long.MAX_VALUE)));
+			} else if (KEEP_GOING_OPTION.equals(arg)) {
+				invalidLineHandler = (line, errorCode) -> System.err
+						.println("Invalid line (" + errorCode.getMessage() + "): " + line);
+			} else if (CACHE_OPTION.equals(arg)) {
+				cacheSize = QueryResultCache.DEFAULT_MAXIMUM_SIZE;
+			} else if (arg.startsWith(CACHE_OPTION + "=")) {
+				cacheSize = (int) numberOption(arg, CACHE_OPTION, 1, Integer.MAX_VALUE);
+			} else if (arg.startsWith(CREDIT_SCALE_OPTION + "=")) {
+				creditScale = (int) numberOption(arg, CREDIT_SCALE_OPTION, 0, Integer.MAX_VALUE);
+			} else if (arg.startsWith(CREDIT_ROUNDING_OPTION + "=")) {
+				final String mode = arg.substring(CREDIT_ROUNDING_OPTION.length() + 1);
+				checkUsage(Enums.getIfPresent(RoundingMode.class, mode).isPresent(),
+						"Invalid value for " + CREDIT_ROUNDING_OPTION + ": " + mode);
+				creditRoundingMode = RoundingMode.valueOf(mode);
+			} else if (SERVER_OPTION.equals(arg)) {
+				serverPort = DEFAULT_SERVER_PORT;
+			} else if (arg.startsWith(SERVER_OPTION + "=")) {
+				serverPort = (int) numberOption(arg, SERVER_OPTION, 0, 65535);
+			} else if (METRICS_OPTION.equals(arg)) {
+				metrics = true;
+			} else if (arg.startsWith(INGEST_OPTION + "=")) {
+				ingestPath = Paths.get(arg.substring(INGEST_OPTION.length() + 1));
+			} else if (arg.startsWith(OUTPUT_DIR_OPTION + "=")) {
+				outputDirectory = Paths.get(arg.substring(OUTPUT_DIR_OPTION.length() + 1));
+			} else if (arg.startsWith(SNAPSHOT_OPTION + "=")) {
+				snapshotFile = Paths.get(arg.substring(SNAPSHOT_OPTION.length() + 1));
+			} else {
+				checkUsage(!arg.startsWith("--"), "Unknown option " + arg);
+				checkUsage(inputFile == null, "More than one input file: " + inputFile + ", " + arg);
+				inputFile = Paths.get(arg);
+			}
+		}
+		for (String option : options) {
+			for (String ignoredOption : INCOMPATIBLE_OPTIONS.get(option)) {
+				checkUsage(!options.contains(ignoredOption), ignoredOption + " can not be combined with " + option);
+			}
+		}
+		checkUsage(ingestPath == null || inputFile == null, "An input file can not be combined with " + INGEST_OPTION);
+		checkUsage(outputDirectory == null || ingestPath != null, OUTPUT_DIR_OPTION + " needs " + INGEST_OPTION);
+		final ConversionMetrics conversionMetrics = metrics ? new ConversionMetrics() : null;
+		if (conversionMetrics != null) {
+			conversionMetrics.registerMBean();
+		}
+		if (serverPort != null) {
+			startServer(serverPort, inputFile, cacheSize == null ? null : new QueryResultCache(cacheSize));
+			return;
+		}
+		if (inputFile == null) {
+			inputFile = bundledInputFile();
+		}
+		final GalacticSymbolRegistry symbolRegistry = snapshotFile != null && Files.exists(snapshotFile)
+				? DefinitionSnapshot.read(snapshotFile)
+				: new GalacticSymbolRegistry();
+		final long snapshotVersion = symbolRegistry.getVersion();
+		// the results are written through a large buffer, which is flushed but
+		// leaves System.out open
+		final OutputSink outputSink = new WriterOutputSink(System.out);
+		try {
+			final GalaxyMerchant galaxyMerchant = GalaxyMerchant.builder().outputSink(outputSink)
+					.parallelQueryEvaluator(parallel ? new ParallelQueryEvaluator() : null)
+					.queryResultCache(cacheSize == null ? null : new QueryResultCache(cacheSize))
+					.creditRounding(new CreditRounding(creditScale, creditRoundingMode))
+					.conversionMetrics(conversionMetrics).invalidLineHandler(invalidLineHandler).build();
+			if (ingestPath != null) {
+				ingest(galaxyMerchant, ingestPath, outputDirectory, symbolRegistry);
+			} else if (pipelined) {
+				final PipelinedConversion pipelinedConversion = galaxyMerchant.pipelinedConversion(symbolRegistry);
+				convert(inputFile, memoryMapped, reader -> pipelinedConversion.run(reader, result -> {
+				}));
+				if (conversionMetrics != null) {
+					System.err.print(pipelinedConversion.getReport());
+				}
+			} else if (deferredQueries != null) {
+				final DeferredQueries parkedQueries = deferredQueries;
+				convert(inputFile, memoryMapped, reader -> galaxyMerchant.galacticCurrencyConversion(reader,
+						symbolRegistry, parkedQueries, result -> {
+						}));
+			} else if (memoryMapped) {
+				galaxyMerchant.galacticCurrencyConversionMapped(inputFile, symbolRegistry);
+			} else if (streaming) {
+				galaxyMerchant.galacticCurrencyConversion(inputFile, symbolRegistry);
+			} else {
+				galaxyMerchant.galacticCurrencyConversion(Files.readAllLines(inputFile, StandardCharsets.UTF_8),
+						symbolRegistry);
+			}
+		} finally {
+			outputSink.flush();
+		}
+		if (snapshotFile != null && symbolRegistry.getVersion() != snapshotVersion) {
+			DefinitionSnapshot.write(symbolRegistry, snapshotFile);
+		}
+		if (conversionMetrics != null) {
+			System.err.print(conversionMetrics.getReport());
+		}
+	}
+
 	/**
-	 * @param args
+	 * @param inputFile
+	 * @param memoryMapped scans the memory mapped input file instead of reading it
+	 *                     through a Reader
+	 * @param conversion
+	 * @throws IOException
+	 */
+	private static void convert(Path inputFile, boolean memoryMapped, LineConversion conversion)
+			throws IOException {
+		if (memoryMapped) {
+			try (MappedLineReader reader = new MappedLineReader(inputFile)) {
+				conversion.convert(reader);
+			}
+		} else {
+			try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+				conversion.convert(reader::readLine);
+			}
+		}
+	}
+
+	/**
+	 * @return the bundled input.txt, copied to a temporary file when it is read
+	 *         from the self-contained jar
 	 * @throws IOException
 	 * @throws URISyntaxException
 	 */
-	public static void main(String[] args) throws IOException, URISyntaxException {
-		// Read Data from Input file
-		final List<String> input = Files.readAllLines(Paths.get(ClassLoader.getSystemResource("input.txt").toURI()));
-		// Currency Conversion
-		new GalaxyMerchant().galacticCurrencyConversion(ImmutableList.copyOf(input));
+	private static Path bundledInputFile() throws IOException, URISyntaxException {
+		final URL bundledInput = ClassLoader.getSystemResource("input.txt");
+		if ("file".equals(bundledInput.getProtocol())) {
+			return Paths.get(bundledInput.toURI());
+		}
+		final Path inputFile = Files.createTempFile("galaxy-merchant", ".txt");
+		inputFile.toFile().deleteOnExit();
+		try (InputStream inputStream = bundledInput.openStream()) {
+			Files.copy(inputStream, inputFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return inputFile;
+	}
+
+	/**
+	 * @param galaxyMerchant
+	 * @param ingestPath      directory, or directory and glob of the file names
+	 * @param outputDirectory may be null for the directory out next to the input
+	 *                        files
+	 * @param symbolRegistry
+	 * @throws IOException
+	 */
+	private static void ingest(GalaxyMerchant galaxyMerchant, Path ingestPath, Path outputDirectory,
+			GalacticSymbolRegistry symbolRegistry) throws IOException {
+		final Path inputDirectory = Files.isDirectory(ingestPath) ? ingestPath : ingestPath.toAbsolutePath().getParent();
+		final String glob = Files.isDirectory(ingestPath) ? "*" : ingestPath.getFileName().toString();
+		final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			galaxyMerchant.multiFileConversion(executor).run(MultiFileConversion.listInputFiles(inputDirectory, glob),
+					symbolRegistry, MultiFileConversion
+							.outputDirectory(outputDirectory != null ? outputDirectory : inputDirectory.resolve("out")));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Starts the query server, the definitions of the input file are loaded
+	 * before the first request. The server runs until the JVM is stopped.
+	 * @param port
+	 * @param inputFile        may be null
+	 * @param queryResultCache may be null
+	 * @throws IOException
+	 */
+	private static void startServer(int port, Path inputFile, QueryResultCache queryResultCache)
+			throws IOException {
+		final QueryService queryService = new QueryService(NumeralTable.standardRomanSymbols(), queryResultCache);
+		if (inputFile != null) {
+			try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+				queryService.process(reader);
+			}
+		}
+		final QueryServer queryServer = new QueryServer(port, queryService);
+		Runtime.getRuntime().addShutdownHook(new Thread(queryServer::close));
+		System.err.println("Galaxy merchant listening on http://127.0.0.1:" + queryServer.getPort() + "/");
+	}
+
+	/**
+	 * @param arg     the option followed by = and its value
+	 * @param option
+	 * @param minimum
+	 * @param maximum
+	 * @return the value of the option
+	 */
+	private static long numberOption(String arg, String option, long minimum, long maximum) {
+		final String value = arg.substring(option.length() + 1);
+		final Long number = Longs.tryParse(value);
+		checkUsage(number != null && number >= minimum && number <= maximum,
+				"Invalid value for " + option + ": " + value + ", expected " + minimum + " to " + maximum);
+		return number;
+	}
+
+	/**
+	 * @param valid
+	 * @param message reported with the usage unless valid
+	 */
+	private static void checkUsage(boolean valid, String message) {
+		if (!valid) {
+			throw new IllegalArgumentException(message + System.lineSeparator() + USAGE);
+		}
+	}
+
+	@FunctionalInterface
+	private interface LineConversion {
+		long convert(LineReader reader) throws IOException;
 	}
 }
@@ -1,16 +1,40 @@
 package galaxy.merchant;
 
-import static galaxy.merchant.model.CommonMetal.buildMetalList;
-import static galaxy.merchant.model.CommonMetal.fetchMetalValueDefinitions;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
-import galaxy.merchant.model.CommonMetal;
 import galaxy.merchant.model.GalacticCurrency;
+import galaxy.merchant.exception.InvalidInputException;
+import galaxy.merchant.exception.InvalidLineHandler;
+import galaxy.merchant.input.LineReader;
+import galaxy.merchant.input.MappedLineReader;
+import galaxy.merchant.metrics.ConversionMetrics;
+import galaxy.merchant.metrics.ConversionStage;
+import galaxy.merchant.model.CreditRounding;
+import galaxy.merchant.model.DefinitionSnapshot;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.NumeralTable;
 import galaxy.merchant.model.RomanNumeral;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.pipeline.PipelinedConversion;
+import galaxy.merchant.parser.ClassifiedInput;
+import galaxy.merchant.parser.GalacticCurrencyDefinition;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.LineTokenizer;
+import galaxy.merchant.parser.MetalValueDefinition;
+import lombok.Builder;
 import lombok.Getter;
 
 /**
@@ -22,20 +46,78 @@ public class GalaxyMerchant {
 	@Getter
 	private final List<RomanNumeral> romanSymbols;
 
+	/**
+	 * Number of consecutive queries evaluated together by the streaming
+	 * conversion in parallel mode
+	 */
+	static final int STREAMING_BATCH_SIZE = 1 << 16;
+
+	private final InputClassifier inputClassifier;
+
+	private final OutputSink outputSink;
+
+	// null if the queries are evaluated one after the other
+	private final ParallelQueryEvaluator parallelQueryEvaluator;
+
+	// null if the query results are not cached
+	private final QueryResultCache queryResultCache;
+
+	private final CreditRounding creditRounding;
+
+	// null if no metrics are recorded
+	private final ConversionMetrics conversionMetrics;
+
+	// null if invalid input fails the conversion
+	private final InvalidLineHandler invalidLineHandler;
+
+	/**
+	 * Query results are printed to System.out
+	 */
 	public GalaxyMerchant() {
-		RomanNumeral romanSymbolThousand = RomanNumeral.standAlone('M', 1000);
-		RomanNumeral romanSymbolFiveHundred = RomanNumeral.standAlone('D', 500);
-		RomanNumeral romanSymbolFifty = RomanNumeral.standAlone('L', 50);
-		RomanNumeral romanSymbolFive = RomanNumeral.standAlone('V', 5);
-		RomanNumeral romanSymbolHundred = RomanNumeral.repeatableAndSubtractable('C',
-				Lists.newArrayList(romanSymbolFiveHundred, romanSymbolThousand), 100);
-		RomanNumeral romanSymbolTen = RomanNumeral.repeatableAndSubtractable('X',
-				Lists.newArrayList(romanSymbolFifty, romanSymbolHundred), 10);
-		RomanNumeral romanSymbolOne = RomanNumeral.repeatableAndSubtractable('I',
-				Lists.newArrayList(romanSymbolFive, romanSymbolTen), 1);
-		romanSymbols = ImmutableList.of(romanSymbolOne, romanSymbolFive, romanSymbolTen, romanSymbolFifty,
-				romanSymbolHundred, romanSymbolFiveHundred, romanSymbolThousand);
+		this(OutputSink.standardOutput());
+	}
 
+	/**
+	 * @param outputSink destination of the query results, flushed at the end of
+	 *                   every conversion
+	 */
+	public GalaxyMerchant(OutputSink outputSink) {
+		this(outputSink, null, null, null, null, null);
+	}
+
+	/**
+	 * Use {@link #builder()} for the optional parallel evaluation, cache, credit
+	 * rounding, metrics and invalid line handler
+	 * @param outputSink             destination of the query results, flushed at
+	 *                               the end of every conversion, System.out if
+	 *                               null
+	 * @param parallelQueryEvaluator evaluates the queries in parallel, null to
+	 *                               evaluate them one after the other
+	 * @param queryResultCache       answers repeated queries, null to evaluate
+	 *                               every query
+	 * @param creditRounding         rounding of credits without a finite decimal
+	 *                               representation, {@link CreditRounding#DEFAULT}
+	 *                               if null
+	 * @param conversionMetrics      records the latency of the stages and the
+	 *                               queries, null to record nothing
+	 * @param invalidLineHandler     receives the lines that can not be
+	 *                               classified, registered or answered while the
+	 *                               conversion continues, null to fail on them. The
+	 *                               result of an invalid query is the error message,
+	 *                               an invalid definition is skipped.
+	 */
+	@Builder
+	private GalaxyMerchant(OutputSink outputSink, ParallelQueryEvaluator parallelQueryEvaluator,
+			QueryResultCache queryResultCache, CreditRounding creditRounding, ConversionMetrics conversionMetrics,
+			InvalidLineHandler invalidLineHandler) {
+		this.outputSink = outputSink != null ? outputSink : OutputSink.standardOutput();
+		this.parallelQueryEvaluator = parallelQueryEvaluator;
+		this.queryResultCache = queryResultCache;
+		this.creditRounding = creditRounding != null ? creditRounding : CreditRounding.DEFAULT;
+		this.conversionMetrics = conversionMetrics;
+		this.invalidLineHandler = invalidLineHandler;
+		romanSymbols = NumeralTable.standardRomanSymbols();
+		inputClassifier = new InputClassifier(romanSymbols);
 	}
 
 	/**
@@ -43,34 +125,321 @@ public class GalaxyMerchant {
 	 * @return
 	 */
 	public List<String> galacticCurrencyConversion(final List<String> inputData) {
+		return galacticCurrencyConversion(inputData, new GalacticSymbolRegistry());
+	}
 
-		// sanitize the input
-		final List<String> sanitizedInput = santizeInput(inputData);
+	/**
+	 * Currency conversion that starts from known definitions, for instance the
+	 * ones of a {@link DefinitionSnapshot}. All the definitions of the input are
+	 * registered before the first query is answered, so a query may come before
+	 * the definitions it uses.
+	 * @param inputData
+	 * @param symbolRegistry definitions known before the input, the definitions
+	 *                       of the input are added to it and replace its
+	 *                       provisional ones
+	 * @return results of the queries in input order
+	 */
+	public List<String> galacticCurrencyConversion(final List<String> inputData,
+			final GalacticSymbolRegistry symbolRegistry) {
 
-		// Filter the Galactic Currency definitions from the input.
-		List<String> galacticCurrencyDefinitions = identifyGalacticCurrencyDefinitions(sanitizedInput, romanSymbols);
+		// sanitize the input and classify every line in a single pass, then
+		// register the definitions
+		final ClassifiedInput classifiedInput = classifyAll(inputData);
+		registerDefinitions(classifiedInput, symbolRegistry);
 
-		// Build a list of Galactic Currencies along with their roman numeral values
-		// from the input
-		final List<GalacticCurrency> galacticCurrencies = ImmutableList
-				.copyOf(createGalacticCurrencies(galacticCurrencyDefinitions, romanSymbols));
+		//Determine the values for the currency/credit queries
+		long stageStart = startStage();
+		List<String> output = parallelQueryEvaluator == null
+				? calculateResultsForQueries(classifiedInput.getQueries(), newOutputProcessor(symbolRegistry))
+				: parallelQueryEvaluator.evaluate(classifiedInput.getQueries(), newOutputProcessor(symbolRegistry),
+						outputSink);
+		endStage(ConversionStage.QUERY_EVALUATION, stageStart);
+		flushOutput();
+		return output;
+	}
 
-		// Identify the non currency definitions in the input for further processing
-		// (Metal value determination)
-		final ArrayList<String> nonCurrencyDefinitionInput = Lists.newArrayList(sanitizedInput);
-		nonCurrencyDefinitionInput.removeAll(galacticCurrencyDefinitions);
+	/**
+	 * Typed variant of the currency conversion, the results are neither formatted
+	 * nor written to the output sink
+	 * @param inputData
+	 * @return typed results of the queries in input order
+	 */
+	public List<QueryResult> evaluateQueries(final List<String> inputData) {
+		final ClassifiedInput classifiedInput = classifyAll(inputData);
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		registerDefinitions(classifiedInput, symbolRegistry);
+		final long stageStart = startStage();
+		final List<QueryResult> queryResults = newOutputProcessor(symbolRegistry)
+				.evaluateQueries(classifiedInput.getQueries());
+		endStage(ConversionStage.QUERY_EVALUATION, stageStart);
+		return queryResults;
+	}
 
-		// Determine the unit Value for the metals that are traded
-		final List<CommonMetal> metals = buildMetalList(nonCurrencyDefinitionInput, galacticCurrencies);
+	/**
+	 * Streaming variant of the currency conversion that reads the input file line
+	 * by line instead of loading it into memory.
+	 * @param inputFile
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final Path inputFile) throws IOException {
+		return galacticCurrencyConversion(inputFile, new GalacticSymbolRegistry());
+	}
 
-		// Filter the queryList
-		final ArrayList<String> queryList = Lists.newArrayList(nonCurrencyDefinitionInput);
-		final List<String> metalValueDefinitions = fetchMetalValueDefinitions(nonCurrencyDefinitionInput);
-		queryList.removeAll(metalValueDefinitions);
+	/**
+	 * Streaming variant of the currency conversion that starts from known
+	 * definitions, for instance the ones of a {@link DefinitionSnapshot}.
+	 * @param inputFile
+	 * @param symbolRegistry definitions known before the input, the definitions
+	 *                       of the input are added to it and replace its
+	 *                       provisional ones
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final Path inputFile, final GalacticSymbolRegistry symbolRegistry)
+			throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+			return galacticCurrencyConversion(reader::readLine, symbolRegistry, result -> {
+			});
+		}
+	}
 
-		//Determine the values for the currency/credit queries
-		List<String> output = calculateResultsForQueries(queryList, galacticCurrencies, metals);
-		return output;
+	/**
+	 * Streaming variant of the currency conversion that scans the memory mapped
+	 * input file, for inputs too large to be read through a Reader efficiently.
+	 * @param inputFile
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversionMapped(final Path inputFile) throws IOException {
+		return galacticCurrencyConversionMapped(inputFile, new GalacticSymbolRegistry());
+	}
+
+	/**
+	 * Memory mapped variant of the currency conversion that starts from known
+	 * definitions.
+	 * @param inputFile
+	 * @param symbolRegistry definitions known before the input, the definitions
+	 *                       of the input are added to it and replace its
+	 *                       provisional ones
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversionMapped(final Path inputFile, final GalacticSymbolRegistry symbolRegistry)
+			throws IOException {
+		try (MappedLineReader reader = new MappedLineReader(inputFile)) {
+			return galacticCurrencyConversion(reader, symbolRegistry, result -> {
+			});
+		}
+	}
+
+	/**
+	 * Streaming variant of the currency conversion reading from an InputStream.
+	 * The stream is not closed.
+	 * @param inputStream
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final InputStream inputStream) throws IOException {
+		return galacticCurrencyConversion(new InputStreamReader(inputStream, StandardCharsets.UTF_8), result -> {
+		});
+	}
+
+	/**
+	 * Streaming variant of the currency conversion reading from a Reader.
+	 * @param input
+	 * @param resultConsumer
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final Reader input, final Consumer<String> resultConsumer)
+			throws IOException {
+		final BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input
+				: new BufferedReader(input);
+		return galacticCurrencyConversion(reader::readLine, resultConsumer);
+	}
+
+	/**
+	 * Streaming variant of the currency conversion. Every line is processed as soon
+	 * as it is read and the result of a query is handed to the resultConsumer
+	 * before the next line is read, so only the definitions are retained in memory.
+	 * Definitions have to appear before the queries that use them. In parallel
+	 * mode consecutive queries are collected into batches of
+	 * {@link #STREAMING_BATCH_SIZE} that are evaluated against the definitions
+	 * read before them. A batch that fits in a single chunk is evaluated on the
+	 * calling thread.
+	 * @param reader
+	 * @param resultConsumer
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final LineReader reader, final Consumer<String> resultConsumer)
+			throws IOException {
+		return galacticCurrencyConversion(reader, new GalacticSymbolRegistry(), resultConsumer);
+	}
+
+	/**
+	 * Streaming variant of the currency conversion that starts from known
+	 * definitions. A definition of the input only replaces a known one that is
+	 * provisional, see {@link GalacticSymbolRegistry#markProvisional()}.
+	 * @param reader
+	 * @param symbolRegistry definitions known before the input, the definitions
+	 *                       of the input are added to it and replace its
+	 *                       provisional ones
+	 * @param resultConsumer
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final LineReader reader, final GalacticSymbolRegistry symbolRegistry,
+			final Consumer<String> resultConsumer) throws IOException {
+		return galacticCurrencyConversion(reader, symbolRegistry, null, resultConsumer);
+	}
+
+	/**
+	 * Streaming variant of the currency conversion that answers queries using
+	 * symbols that are not defined yet once their definitions arrive. Deferred
+	 * results follow the definition that completed them, the queries still parked
+	 * at the end of the input are answered last.
+	 * @param reader
+	 * @param symbolRegistry  definitions known before the input, the definitions
+	 *                        of the input are added to it and replace its
+	 *                        provisional ones
+	 * @param deferredQueries parks the queries with missing definitions, null to
+	 *                        answer every query against the definitions read
+	 *                        before it
+	 * @param resultConsumer
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long galacticCurrencyConversion(final LineReader reader, final GalacticSymbolRegistry symbolRegistry,
+			final DeferredQueries deferredQueries, final Consumer<String> resultConsumer) throws IOException {
+		final CurrencyConversionOutputProcessor currencyConversionOutputProcessor = newOutputProcessor(
+				symbolRegistry);
+		final List<InputRecord> pendingQueries = new ArrayList<InputRecord>();
+		final Consumer<InputRecord> answer = query -> answerQuery(query, pendingQueries,
+				currencyConversionOutputProcessor, resultConsumer);
+
+		long resultCount = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			long stageStart = startStage();
+			final Optional<InputRecord> classifiedLine = classify(line);
+			endStage(ConversionStage.CLASSIFICATION, stageStart);
+			if (!classifiedLine.isPresent()) {
+				continue;
+			}
+			final InputRecord inputRecord = classifiedLine.get();
+			if (deferredQueries != null) {
+				deferredQueries.expire(answer);
+			}
+			switch (inputRecord.getType()) {
+			case GALACTIC_CURRENCY_DEFINITION:
+				evaluatePendingQueries(pendingQueries, currencyConversionOutputProcessor, resultConsumer);
+				stageStart = startStage();
+				final GalacticCurrency galacticCurrency = ((GalacticCurrencyDefinition) inputRecord)
+						.toGalacticCurrency();
+				symbolRegistry.registerGalacticCurrency(galacticCurrency);
+				endStage(ConversionStage.CURRENCY_DEFINITIONS, stageStart);
+				if (deferredQueries != null) {
+					deferredQueries.resolve(galacticCurrency.getSymbol(), symbolRegistry, answer);
+				}
+				break;
+			case METAL_VALUE_DEFINITION:
+				evaluatePendingQueries(pendingQueries, currencyConversionOutputProcessor, resultConsumer);
+				stageStart = startStage();
+				registerMetal((MetalValueDefinition) inputRecord, symbolRegistry, invalidLineHandler);
+				endStage(ConversionStage.METAL_DEFINITIONS, stageStart);
+				if (deferredQueries != null) {
+					deferredQueries.resolve(((MetalValueDefinition) inputRecord).getMetalName(), symbolRegistry,
+							answer);
+				}
+				break;
+			default:
+				if (deferredQueries == null || !deferredQueries.defer(inputRecord, symbolRegistry, answer)) {
+					answer.accept(inputRecord);
+				}
+				resultCount++;
+			}
+		}
+		if (deferredQueries != null) {
+			deferredQueries.releaseAll(answer);
+		}
+		evaluatePendingQueries(pendingQueries, currencyConversionOutputProcessor, resultConsumer);
+		flushOutput();
+		return resultCount;
+	}
+
+	/**
+	 * Pipelined variant of the streaming conversion that reads, classifies,
+	 * evaluates and writes on separate threads. The queries are evaluated one
+	 * after the other in input order, the parallel query evaluator is not used.
+	 * @param symbolRegistry definitions known before the input, the definitions
+	 *                       of the input are added to it and replace its
+	 *                       provisional ones
+	 * @return conversion to run on an input, reporting the statistics of its
+	 *         stages
+	 */
+	public PipelinedConversion pipelinedConversion(final GalacticSymbolRegistry symbolRegistry) {
+		return new PipelinedConversion(romanSymbols, newOutputProcessor(symbolRegistry), outputSink);
+	}
+
+	/**
+	 * Converts many input files in parallel against the merged definitions of all
+	 * of them, see {@link MultiFileConversion}
+	 * @param executor reads and converts the files, one task per file
+	 * @return conversion to run on the input files
+	 */
+	public MultiFileConversion multiFileConversion(final Executor executor) {
+		return new MultiFileConversion(romanSymbols, newOutputProcessor(new GalacticSymbolRegistry()), executor);
+	}
+
+	/**
+	 * Answers the query now, or collects it for the next batch in parallel mode
+	 * @param query
+	 * @param pendingQueries                    queries collected in parallel mode
+	 * @param currencyConversionOutputProcessor evaluates against the definitions
+	 *                                          known so far
+	 * @param resultConsumer
+	 */
+	private void answerQuery(InputRecord query, List<InputRecord> pendingQueries,
+			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, Consumer<String> resultConsumer) {
+		if (parallelQueryEvaluator == null) {
+			final long stageStart = startStage();
+			resultConsumer.accept(currencyConversionOutputProcessor.calculateValuesForQuery(query));
+			endStage(ConversionStage.QUERY_EVALUATION, stageStart);
+		} else {
+			pendingQueries.add(query);
+			if (pendingQueries.size() == STREAMING_BATCH_SIZE) {
+				evaluatePendingQueries(pendingQueries, currencyConversionOutputProcessor, resultConsumer);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the queries collected in parallel mode against the definitions
+	 * known so far. A batch that fits in a single chunk is evaluated on the
+	 * calling thread against the live definitions, without a snapshot.
+	 * @param pendingQueries                    cleared after the evaluation
+	 * @param currencyConversionOutputProcessor evaluates against the definitions
+	 *                                          known so far
+	 * @param resultConsumer
+	 */
+	private void evaluatePendingQueries(List<InputRecord> pendingQueries,
+			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, Consumer<String> resultConsumer) {
+		if (pendingQueries.isEmpty()) {
+			return;
+		}
+		final long stageStart = startStage();
+		if (pendingQueries.size() <= parallelQueryEvaluator.getChunkSize()) {
+			for (InputRecord query : pendingQueries) {
+				resultConsumer.accept(currencyConversionOutputProcessor.calculateValuesForQuery(query));
+			}
+		} else {
+			parallelQueryEvaluator.evaluate(pendingQueries, currencyConversionOutputProcessor, outputSink)
+					.forEach(resultConsumer);
+		}
+		endStage(ConversionStage.QUERY_EVALUATION, stageStart);
+		pendingQueries.clear();
 	}
 
 	/**
@@ -79,7 +448,12 @@ public class GalaxyMerchant {
 	 * @return
 	 */
 	static List<String> santizeInput(final List<String> inputList) {
-		return inputList.stream().map((input) -> input.trim().replaceAll(" +", " ")).collect(Collectors.toList());
+		final LineTokenizer tokenizer = new LineTokenizer();
+		final List<String> sanitizedInput = new ArrayList<String>(inputList.size());
+		for (String input : inputList) {
+			sanitizedInput.add(tokenizer.tokenize(input).sanitized());
+		}
+		return sanitizedInput;
 	}
 
 	/**
@@ -89,15 +463,8 @@ public class GalaxyMerchant {
 	 * @return
 	 */
 	static List<String> identifyGalacticCurrencyDefinitions(List<String> inputData, List<RomanNumeral> romanSymbols) {
-		return inputData.stream().filter(inputRecord -> {
-			if (inputRecord.split(" ").length == 3) {
-				final Character symbol = inputRecord.split(" ")[2].toCharArray()[0];
-				final Optional<RomanNumeral> matchedRomanSymbol = romanSymbols.stream()
-						.filter(romanSymbol -> romanSymbol.isSameSymbol(symbol)).findAny();
-				return matchedRomanSymbol.isPresent();
-			}
-			return false;
-		}).collect(Collectors.toList());
+		return new InputClassifier(romanSymbols).classifyAll(inputData).getGalacticCurrencyDefinitions().stream()
+				.map(GalacticCurrencyDefinition::getLine).collect(Collectors.toList());
 	}
 
 	/**
@@ -108,74 +475,149 @@ public class GalaxyMerchant {
 	 */
 	static List<GalacticCurrency> createGalacticCurrencies(List<String> galacticCurrencyDefinitions,
 			List<RomanNumeral> romanSymbols) {
-		return galacticCurrencyDefinitions.stream().map(galacticCurrency -> {
-			final String[] gcTokens = galacticCurrency.split(" ");
-			final String galacticCurrencySymbol = gcTokens[0];
-			final Character romanValueSymbol = gcTokens[2].toCharArray()[0];
-			final RomanNumeral selectedRomanSymbol = romanSymbols.stream()
-					.filter(romanSymbol -> romanSymbol.isSameSymbol(romanValueSymbol)).findAny().get();
-			return new GalacticCurrency(galacticCurrencySymbol, selectedRomanSymbol);
-		}).collect(Collectors.toList());
+		return new InputClassifier(romanSymbols).classifyAll(galacticCurrencyDefinitions)
+				.getGalacticCurrencyDefinitions().stream().map(GalacticCurrencyDefinition::toGalacticCurrency)
+				.collect(Collectors.toList());
 	}
 
 	/**
-	 * @param queryList
-	 * @param galacticCurrencies
-	 * @param metals
-	 * @return
+	 * Function to register the Galactic Currencies of the classified Galactic Currency Definitions
+	 * @param galacticCurrencyDefinitions
+	 * @param symbolRegistry
 	 */
-	private static List<String> calculateResultsForQueries(List<String> queryList,
-			final List<GalacticCurrency> galacticCurrencies, List<CommonMetal> metals) {
-
-		CurrencyConversionOutputProcessor currencyConversionOutputProcessor = new CurrencyConversionOutputProcessor(
-				galacticCurrencies);
-
-		List<String> results = new ArrayList<String>();
-		for (String query : queryList) {
-			if (!query.isEmpty()) {
-				if (query.startsWith("how much is")) {
-					results.add(calculateValuesForGalacticCurrencyQueries(query, currencyConversionOutputProcessor));
-				} else if (query.startsWith("how many Credits")) {
-					results.add(calculateValuesForCreditQueries(query, currencyConversionOutputProcessor, metals));
-				} else {
-					results.add(handleUncategorizedQuery(query, currencyConversionOutputProcessor));
-				}
-			}
+	static void registerGalacticCurrencies(List<GalacticCurrencyDefinition> galacticCurrencyDefinitions,
+			GalacticSymbolRegistry symbolRegistry) {
+		for (GalacticCurrencyDefinition galacticCurrencyDefinition : galacticCurrencyDefinitions) {
+			symbolRegistry.registerGalacticCurrency(galacticCurrencyDefinition.toGalacticCurrency());
 		}
+	}
 
-		return results;
+	/**
+	 * Function to determine the unit value of the metals from the classified Metal
+	 * Value Definitions and register them
+	 * @param metalValueDefinitions
+	 * @param symbolRegistry
+	 */
+	static void registerMetals(List<MetalValueDefinition> metalValueDefinitions,
+			GalacticSymbolRegistry symbolRegistry) {
+		for (MetalValueDefinition metalValueDefinition : metalValueDefinitions) {
+			symbolRegistry.registerMetal(metalValueDefinition.toCommonMetal(symbolRegistry));
+		}
 	}
 
 	/**
-	 * @param query
-	 * @param currencyConversionOutputProcessor
-	 * @param rareMetals
-	 * @return
+	 * @param symbolRegistry
+	 * @return processor writing to the output sink of the conversion
 	 */
-	private static String calculateValuesForCreditQueries(String query,
-			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, List<CommonMetal> rareMetals) {
-		return currencyConversionOutputProcessor.calculateValuesForCreditQueries(query, rareMetals);
+	private CurrencyConversionOutputProcessor newOutputProcessor(GalacticSymbolRegistry symbolRegistry) {
+		return CurrencyConversionOutputProcessor.builder().symbolRegistry(symbolRegistry).outputSink(outputSink)
+				.queryResultCache(queryResultCache).creditRounding(creditRounding).conversionMetrics(conversionMetrics)
+				.invalidLineHandler(invalidLineHandler).build();
 	}
 
-	
 	/**
-	 * @param qcQuery
-	 * @param currencyConversionOutputProcessor
-	 * @return
+	 * @param line
+	 * @return the classified line, empty for blank lines and for invalid lines
+	 *         reported to the invalid line handler
 	 */
-	private static String calculateValuesForGalacticCurrencyQueries(String qcQuery,
-			CurrencyConversionOutputProcessor currencyConversionOutputProcessor) {
-		return currencyConversionOutputProcessor.calculateValuesForGalacticCurrencyQuery(qcQuery);
+	private Optional<InputRecord> classify(String line) {
+		if (invalidLineHandler == null) {
+			return inputClassifier.classify(line);
+		}
+		try {
+			return inputClassifier.classify(line);
+		} catch (InvalidInputException e) {
+			invalidLineHandler.reject(line, e);
+			return Optional.empty();
+		}
 	}
 
 	/**
-	 * @param qcQuery
+	 * Registers the metal unless its definition is invalid and reported to the
+	 * invalid line handler
+	 * @param metalValueDefinition
+	 * @param symbolRegistry
+	 * @param invalidLineHandler   null to fail on an invalid definition
+	 */
+	static void registerMetal(MetalValueDefinition metalValueDefinition, GalacticSymbolRegistry symbolRegistry,
+			InvalidLineHandler invalidLineHandler) {
+		if (invalidLineHandler == null) {
+			symbolRegistry.registerMetal(metalValueDefinition.toCommonMetal(symbolRegistry));
+			return;
+		}
+		try {
+			symbolRegistry.registerMetal(metalValueDefinition.toCommonMetal(symbolRegistry));
+		} catch (InvalidInputException e) {
+			invalidLineHandler.reject(metalValueDefinition.getLine(), e);
+		}
+	}
+
+	/**
+	 * @param inputData
+	 * @return the sanitized and classified lines
+	 */
+	private ClassifiedInput classifyAll(List<String> inputData) {
+		final long stageStart = startStage();
+		final ClassifiedInput classifiedInput = invalidLineHandler == null ? inputClassifier.classifyAll(inputData)
+				: inputClassifier.classifyAll(inputData, invalidLineHandler);
+		endStage(ConversionStage.CLASSIFICATION, stageStart);
+		return classifiedInput;
+	}
+
+	/**
+	 * Registers the Galactic Currencies with their roman numeral values, then the
+	 * unit values of the metals that are traded
+	 * @param classifiedInput
+	 * @param symbolRegistry receives the definitions
+	 */
+	private void registerDefinitions(ClassifiedInput classifiedInput, GalacticSymbolRegistry symbolRegistry) {
+		long stageStart = startStage();
+		registerGalacticCurrencies(classifiedInput.getGalacticCurrencyDefinitions(), symbolRegistry);
+		endStage(ConversionStage.CURRENCY_DEFINITIONS, stageStart);
+		stageStart = startStage();
+		for (MetalValueDefinition metalValueDefinition : classifiedInput.getMetalValueDefinitions()) {
+			registerMetal(metalValueDefinition, symbolRegistry, invalidLineHandler);
+		}
+		endStage(ConversionStage.METAL_DEFINITIONS, stageStart);
+	}
+
+	private void flushOutput() {
+		final long stageStart = startStage();
+		outputSink.flush();
+		endStage(ConversionStage.OUTPUT, stageStart);
+	}
+
+	/**
+	 * @return start of a stage, 0 without metrics
+	 */
+	private long startStage() {
+		return conversionMetrics == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * @param stage
+	 * @param stageStart value of {@link #startStage()}
+	 */
+	private void endStage(ConversionStage stage, long stageStart) {
+		if (conversionMetrics != null) {
+			conversionMetrics.recordStage(stage, stageStart);
+		}
+	}
+
+	/**
+	 * @param queryList
 	 * @param currencyConversionOutputProcessor
 	 * @return
 	 */
-	private static String handleUncategorizedQuery(String qcQuery,
+	private static List<String> calculateResultsForQueries(List<InputRecord> queryList,
 			CurrencyConversionOutputProcessor currencyConversionOutputProcessor) {
-		return currencyConversionOutputProcessor.handleUncategorizedQuery(qcQuery);
+
+		List<String> results = new ArrayList<String>(queryList.size());
+		for (InputRecord query : queryList) {
+			results.add(currencyConversionOutputProcessor.calculateValuesForQuery(query));
+		}
+
+		return results;
 	}
 
 }
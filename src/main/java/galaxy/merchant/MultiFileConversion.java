@@ -0,0 +1,263 @@
+package galaxy.merchant;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import com.google.common.base.Preconditions;
+import galaxy.merchant.exception.InvalidInputException;
+import galaxy.merchant.exception.InvalidLineHandler;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.RomanNumeral;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.output.WriterOutputSink;
+import galaxy.merchant.parser.GalacticCurrencyDefinition;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.InputRecordType;
+import galaxy.merchant.parser.MetalValueDefinition;
+
+/**
+ * Converts many input files, for instance one per trading post and hour, in two
+ * parallel passes with one task per file. The first pass reads the definitions
+ * of every file, the second pass answers the queries of every file against the
+ * merged definitions and writes them to an output of their own.
+ * <p>
+ * Precedence: the files are merged in the order given, which
+ * {@link #listInputFiles(Path, String)} sorts by file name, as if they were
+ * concatenated. The first definition of a symbol wins, and all Galactic
+ * Currencies are registered before the metals are priced, so a metal of one
+ * file can use the currencies of another.
+ *
+ * @author kommineni
+ *
+ */
+public class MultiFileConversion {
+
+	private static final InvalidLineHandler SKIP_INVALID_LINE = (line, errorCode) -> {
+	};
+
+	private final List<RomanNumeral> romanSymbols;
+	private final CurrencyConversionOutputProcessor currencyConversionOutputProcessor;
+	private final Executor executor;
+
+	/**
+	 * @param romanSymbols
+	 * @param currencyConversionOutputProcessor cache, rounding, metrics and invalid
+	 *                                          line handler of the conversion
+	 * @param executor                          reads and converts the files, one
+	 *                                          task per file
+	 */
+	public MultiFileConversion(List<RomanNumeral> romanSymbols,
+			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, Executor executor) {
+		Preconditions.checkArgument(executor != null);
+		this.romanSymbols = romanSymbols;
+		this.currencyConversionOutputProcessor = currencyConversionOutputProcessor;
+		this.executor = executor;
+	}
+
+	/**
+	 * @param inputFiles     in order of precedence
+	 * @param symbolRegistry definitions known before the files, which take
+	 *                       precedence unless they are provisional; the
+	 *                       definitions of the files are added to it
+	 * @param outputs        opens the output of the results of an input file,
+	 *                       which is closed after the file was converted
+	 * @return number of query results by input file, in input order
+	 * @throws IOException
+	 */
+	public Map<Path, Long> run(List<Path> inputFiles, GalacticSymbolRegistry symbolRegistry, OutputOpener outputs)
+			throws IOException {
+		final List<CompletableFuture<FileDefinitions>> readDefinitions = new ArrayList<CompletableFuture<FileDefinitions>>(
+				inputFiles.size());
+		for (Path inputFile : inputFiles) {
+			readDefinitions.add(CompletableFuture.supplyAsync(() -> readDefinitions(inputFile), executor));
+		}
+		final List<FileDefinitions> fileDefinitions = new ArrayList<FileDefinitions>(inputFiles.size());
+		for (CompletableFuture<FileDefinitions> definitions : readDefinitions) {
+			fileDefinitions.add(join(definitions));
+		}
+
+		final InvalidLineHandler invalidLineHandler = currencyConversionOutputProcessor.getInvalidLineHandler();
+		for (FileDefinitions definitions : fileDefinitions) {
+			GalaxyMerchant.registerGalacticCurrencies(definitions.galacticCurrencyDefinitions, symbolRegistry);
+		}
+		for (FileDefinitions definitions : fileDefinitions) {
+			for (MetalValueDefinition metalValueDefinition : definitions.metalValueDefinitions) {
+				GalaxyMerchant.registerMetal(metalValueDefinition, symbolRegistry, invalidLineHandler);
+			}
+		}
+
+		final GalacticSymbolRegistry snapshot = symbolRegistry.snapshot();
+		final List<CompletableFuture<Long>> conversions = new ArrayList<CompletableFuture<Long>>(inputFiles.size());
+		for (Path inputFile : inputFiles) {
+			conversions.add(CompletableFuture.supplyAsync(() -> answerQueries(inputFile, snapshot, outputs), executor));
+		}
+		final Map<Path, Long> resultCounts = new LinkedHashMap<Path, Long>();
+		for (int index = 0; index < inputFiles.size(); index++) {
+			resultCounts.put(inputFiles.get(index), join(conversions.get(index)));
+		}
+		return resultCounts;
+	}
+
+	/**
+	 * @param directory
+	 * @param glob      pattern of the file names, Ex: *.txt
+	 * @return the regular files of the directory matching the pattern, sorted by
+	 *         file name
+	 * @throws IOException
+	 */
+	public static List<Path> listInputFiles(Path directory, String glob) throws IOException {
+		final List<Path> inputFiles = new ArrayList<Path>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, glob)) {
+			for (Path entry : entries) {
+				if (Files.isRegularFile(entry)) {
+					inputFiles.add(entry);
+				}
+			}
+		}
+		Collections.sort(inputFiles);
+		return inputFiles;
+	}
+
+	/**
+	 * @param outputDirectory created if it does not exist
+	 * @return opener writing the results of an input file to a file of the same
+	 *         name with the extension .out in the output directory
+	 */
+	public static OutputOpener outputDirectory(Path outputDirectory) {
+		return inputFile -> {
+			Files.createDirectories(outputDirectory);
+			return new WriterOutputSink(
+					Files.newOutputStream(outputDirectory.resolve(inputFile.getFileName() + ".out")));
+		};
+	}
+
+	/**
+	 * First pass over an input file
+	 * @param inputFile
+	 * @return the definitions of the file in input order
+	 */
+	private FileDefinitions readDefinitions(Path inputFile) {
+		final InputClassifier inputClassifier = new InputClassifier(romanSymbols);
+		final FileDefinitions definitions = new FileDefinitions();
+		try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final Optional<InputRecord> classifiedLine = classify(inputClassifier, line);
+				if (!classifiedLine.isPresent()) {
+					continue;
+				}
+				if (classifiedLine.get().getType() == InputRecordType.GALACTIC_CURRENCY_DEFINITION) {
+					definitions.galacticCurrencyDefinitions.add((GalacticCurrencyDefinition) classifiedLine.get());
+				} else if (classifiedLine.get().getType() == InputRecordType.METAL_VALUE_DEFINITION) {
+					definitions.metalValueDefinitions.add((MetalValueDefinition) classifiedLine.get());
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return definitions;
+	}
+
+	/**
+	 * Second pass over an input file
+	 * @param inputFile
+	 * @param snapshot  merged definitions of all the files
+	 * @param outputs
+	 * @return number of query results written
+	 */
+	private long answerQueries(Path inputFile, GalacticSymbolRegistry snapshot, OutputOpener outputs) {
+		final InputClassifier inputClassifier = new InputClassifier(romanSymbols);
+		long resultCount = 0;
+		try (OutputSink outputSink = outputs.open(inputFile);
+				BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+			final CurrencyConversionOutputProcessor processor = currencyConversionOutputProcessor
+					.withSymbolRegistry(snapshot, outputSink);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// invalid lines were reported by the first pass
+				final Optional<InputRecord> classifiedLine = classify(inputClassifier, line, SKIP_INVALID_LINE);
+				if (classifiedLine.isPresent() && !isDefinition(classifiedLine.get())) {
+					processor.calculateValuesForQuery(classifiedLine.get());
+					resultCount++;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return resultCount;
+	}
+
+	private Optional<InputRecord> classify(InputClassifier inputClassifier, String line) {
+		return classify(inputClassifier, line, currencyConversionOutputProcessor.getInvalidLineHandler());
+	}
+
+	/**
+	 * @param inputClassifier
+	 * @param line
+	 * @param invalidLineHandler null to rethrow the failure of an invalid line
+	 * @return the classified line, empty for blank and invalid lines
+	 */
+	private static Optional<InputRecord> classify(InputClassifier inputClassifier, String line,
+			InvalidLineHandler invalidLineHandler) {
+		try {
+			return inputClassifier.classify(line);
+		} catch (InvalidInputException e) {
+			if (invalidLineHandler != null) {
+				invalidLineHandler.reject(line, e);
+				return Optional.empty();
+			}
+			throw e;
+		}
+	}
+
+	private static boolean isDefinition(InputRecord inputRecord) {
+		return inputRecord.getType() == InputRecordType.GALACTIC_CURRENCY_DEFINITION
+				|| inputRecord.getType() == InputRecordType.METAL_VALUE_DEFINITION;
+	}
+
+	/**
+	 * @param task
+	 * @return the result of the task
+	 * @throws IOException if the task failed to read or write a file
+	 */
+	private static <T> T join(CompletableFuture<T> task) throws IOException {
+		try {
+			return task.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the output of the results of an input file
+	 */
+	@FunctionalInterface
+	public interface OutputOpener {
+		OutputSink open(Path inputFile) throws IOException;
+	}
+
+	private static final class FileDefinitions {
+		private final List<GalacticCurrencyDefinition> galacticCurrencyDefinitions = new ArrayList<GalacticCurrencyDefinition>();
+		private final List<MetalValueDefinition> metalValueDefinitions = new ArrayList<MetalValueDefinition>();
+	}
+}
@@ -0,0 +1,152 @@
+package galaxy.merchant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import com.google.common.base.Preconditions;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.InputRecord;
+
+/**
+ * Evaluates independent queries in chunks on an executor against an immutable
+ * snapshot of the definitions. The snapshot is reused as long as the
+ * definitions keep its version. The results are written to the output sink and
+ * returned in the order of the queries.
+ * @author kommineni
+ *
+ */
+public class ParallelQueryEvaluator {
+
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+
+	private final Executor executor;
+	private final int chunkSize;
+	// null until the first evaluation
+	private volatile GalacticSymbolRegistry lastSnapshot;
+
+	/**
+	 * Queries are evaluated on the common fork-join pool
+	 */
+	public ParallelQueryEvaluator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param executor  runs the chunks of queries
+	 * @param chunkSize number of queries evaluated by one task
+	 */
+	public ParallelQueryEvaluator(Executor executor, int chunkSize) {
+		Preconditions.checkArgument(executor != null);
+		Preconditions.checkArgument(chunkSize > 0);
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * If a query fails the results of the queries before it are written and the
+	 * exception of the failing query is rethrown.
+	 * @param queries
+	 * @param symbolRegistry definitions of the queries, a snapshot is taken if it
+	 *                       is not frozen
+	 * @param outputSink     destination of the query results
+	 * @return results in the order of the queries
+	 */
+	public List<String> evaluate(List<? extends InputRecord> queries, GalacticSymbolRegistry symbolRegistry,
+			OutputSink outputSink) {
+		return evaluate(queries, symbolRegistry, outputSink, null);
+	}
+
+	/**
+	 * @param queries
+	 * @param symbolRegistry   definitions of the queries, a snapshot is taken if
+	 *                         it is not frozen
+	 * @param outputSink       destination of the query results
+	 * @param queryResultCache shared by the tasks, null to evaluate every query
+	 * @return results in the order of the queries
+	 */
+	public List<String> evaluate(List<? extends InputRecord> queries, GalacticSymbolRegistry symbolRegistry,
+			OutputSink outputSink, QueryResultCache queryResultCache) {
+		return evaluate(queries, CurrencyConversionOutputProcessor.builder().symbolRegistry(symbolRegistry)
+				.outputSink(OutputSink.noOp()).queryResultCache(queryResultCache).build(), outputSink);
+	}
+
+	/**
+	 * @param queries
+	 * @param currencyConversionOutputProcessor evaluates the queries against a
+	 *                                          snapshot of its definitions, its
+	 *                                          own sink is not used
+	 * @param outputSink                        destination of the query results
+	 * @return results in the order of the queries
+	 */
+	public List<String> evaluate(List<? extends InputRecord> queries,
+			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, OutputSink outputSink) {
+		final CurrencyConversionOutputProcessor snapshotProcessor = currencyConversionOutputProcessor
+				.withSymbolRegistry(snapshotOf(currencyConversionOutputProcessor.getSymbolRegistry()), OutputSink.noOp());
+		final String[] results = new String[queries.size()];
+		final List<CompletableFuture<Void>> chunks = new ArrayList<CompletableFuture<Void>>(
+				(results.length + chunkSize - 1) / chunkSize);
+		for (int chunkStart = 0; chunkStart < results.length; chunkStart += chunkSize) {
+			final int from = chunkStart;
+			final int to = Math.min(chunkStart + chunkSize, results.length);
+			chunks.add(CompletableFuture.runAsync(() -> {
+				for (int query = from; query < to; query++) {
+					results[query] = snapshotProcessor.calculateValuesForQuery(queries.get(query));
+				}
+			}, executor));
+		}
+
+		int written = 0;
+		for (CompletableFuture<Void> chunk : chunks) {
+			try {
+				chunk.join();
+			} catch (CompletionException e) {
+				// results of a failed chunk are complete up to the failing query
+				while (written < results.length && results[written] != null) {
+					outputSink.write(results[written++]);
+				}
+				throw unwrap(e);
+			}
+			final int to = Math.min(written + chunkSize, results.length);
+			while (written < to) {
+				outputSink.write(results[written++]);
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * @param symbolRegistry
+	 * @return the snapshot of the last evaluation if the definitions did not
+	 *         change since, a new snapshot otherwise
+	 */
+	GalacticSymbolRegistry snapshotOf(GalacticSymbolRegistry symbolRegistry) {
+		final GalacticSymbolRegistry snapshot = lastSnapshot;
+		if (snapshot != null && snapshot.getVersion() == symbolRegistry.getVersion()) {
+			return snapshot;
+		}
+		final GalacticSymbolRegistry newSnapshot = symbolRegistry.snapshot();
+		lastSnapshot = newSnapshot;
+		return newSnapshot;
+	}
+
+	private static RuntimeException unwrap(CompletionException e) {
+		final Throwable cause = e.getCause();
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return e;
+	}
+
+}
@@ -0,0 +1,175 @@
+package galaxy.merchant;
+
+import java.math.BigDecimal;
+import java.util.List;
+import com.google.common.collect.ImmutableList;
+import galaxy.merchant.exception.QueryErrorCode;
+import galaxy.merchant.model.CreditRounding;
+import galaxy.merchant.model.UnitPrice;
+import galaxy.merchant.parser.InputRecordType;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Typed answer of a query. The credits are kept as the unit price of the metal
+ * and the value of the expression, text is only produced on request with
+ * {@link #toText(CreditRounding)}.
+ *
+ * @author kommineni
+ *
+ */
+@EqualsAndHashCode
+@ToString
+@Getter
+public final class QueryResult {
+
+	private final InputRecordType queryType;
+	private final List<String> currencySymbols;
+	// 0 if the query was not answered
+	private final int value;
+	// null for queries without a metal
+	private final String metalName;
+	// null unless a credit or metal quantity query was answered
+	private final UnitPrice unitPrice;
+	// null if the query was answered
+	private final QueryErrorCode errorCode;
+
+	private QueryResult(InputRecordType queryType, List<String> currencySymbols, int value, String metalName,
+			UnitPrice unitPrice, QueryErrorCode errorCode) {
+		this.queryType = queryType;
+		this.currencySymbols = ImmutableList.copyOf(currencySymbols);
+		this.value = value;
+		this.metalName = metalName;
+		this.unitPrice = unitPrice;
+		this.errorCode = errorCode;
+	}
+
+	/**
+	 * @param currencySymbols symbols of the expression in query order
+	 * @param value           value of the expression
+	 * @return answer of a Galactic Currency query
+	 */
+	public static QueryResult ofGalacticCurrencyValue(List<String> currencySymbols, int value) {
+		return new QueryResult(InputRecordType.GALACTIC_CURRENCY_QUERY, currencySymbols, value, null, null, null);
+	}
+
+	/**
+	 * @param currencySymbols symbols of the expression in query order
+	 * @param value           value of the expression, the quantity of the metal
+	 * @param metalName
+	 * @param unitPrice       price of one unit of the metal
+	 * @return answer of a credit query
+	 */
+	public static QueryResult ofCredits(List<String> currencySymbols, int value, String metalName,
+			UnitPrice unitPrice) {
+		return new QueryResult(InputRecordType.CREDIT_QUERY, currencySymbols, value, metalName, unitPrice, null);
+	}
+
+	/**
+	 * @param currencySymbols symbols of the canonical expression of the value
+	 * @param value
+	 * @return answer of a Galactic Value query
+	 */
+	public static QueryResult ofGalacticValueExpression(List<String> currencySymbols, int value) {
+		return new QueryResult(InputRecordType.GALACTIC_VALUE_QUERY, currencySymbols, value, null, null, null);
+	}
+
+	/**
+	 * @param currencySymbols symbols of the canonical expression of the quantity
+	 * @param quantity        units of the metal bought for the credits
+	 * @param metalName
+	 * @param unitPrice       price of one unit of the metal
+	 * @return answer of a Metal Quantity query
+	 */
+	public static QueryResult ofMetalQuantity(List<String> currencySymbols, int quantity, String metalName,
+			UnitPrice unitPrice) {
+		return new QueryResult(InputRecordType.METAL_QUANTITY_QUERY, currencySymbols, quantity, metalName, unitPrice,
+				null);
+	}
+
+	/**
+	 * @param queryType
+	 * @param currencySymbols symbols of the expression known so far
+	 * @param metalName       null for queries without a metal
+	 * @param errorCode       reason the query was not answered
+	 * @return
+	 */
+	public static QueryResult ofError(InputRecordType queryType, List<String> currencySymbols, String metalName,
+			QueryErrorCode errorCode) {
+		return new QueryResult(queryType, currencySymbols, 0, metalName, null, errorCode);
+	}
+
+	/**
+	 * @return false if the error code tells why the query was not answered
+	 */
+	public boolean isAnswered() {
+		return errorCode == null;
+	}
+
+	/**
+	 * @param rounding applied if the credits have no finite decimal representation
+	 * @return the credits of the quantity, null unless a credit or metal quantity
+	 *         query was answered
+	 */
+	public BigDecimal getCredits(CreditRounding rounding) {
+		return unitPrice == null ? null : unitPrice.credits(value, rounding);
+	}
+
+	/**
+	 * @param rounding applied if the credits have no finite decimal representation
+	 * @return the result line printed for the query, the error message if it was
+	 *         not answered
+	 */
+	public String toText(CreditRounding rounding) {
+		return appendText(new StringBuilder(), rounding).toString();
+	}
+
+	/**
+	 * @param output
+	 * @param rounding applied if the credits have no finite decimal representation
+	 * @return the output with the result line appended
+	 */
+	public StringBuilder appendText(StringBuilder output, CreditRounding rounding) {
+		if (errorCode != null) {
+			return output.append(errorCode.getMessage());
+		}
+		switch (queryType) {
+		case GALACTIC_VALUE_QUERY:
+			return appendSymbols(output.append(value).append(" is "));
+		case METAL_QUANTITY_QUERY:
+			unitPrice.appendCredits(output, value, rounding).append(" Credits is ");
+			final int symbolsStart = output.length();
+			appendSymbols(output);
+			if (output.length() > symbolsStart) {
+				output.append(' ');
+			}
+			return output.append(metalName);
+		default:
+			final int start = output.length();
+			appendSymbols(output);
+			if (output.length() > start) {
+				output.append(' ');
+			}
+			if (unitPrice == null) {
+				return output.append("is ").append(value);
+			}
+			output.append(metalName).append(" is ");
+			return unitPrice.appendCredits(output, value, rounding).append(" Credits");
+		}
+	}
+
+	/**
+	 * @param output
+	 * @return the output with the currency symbols appended, separated by spaces
+	 */
+	private StringBuilder appendSymbols(StringBuilder output) {
+		for (int index = 0; index < currencySymbols.size(); index++) {
+			if (index > 0) {
+				output.append(' ');
+			}
+			output.append(currencySymbols.get(index));
+		}
+		return output;
+	}
+}
@@ -0,0 +1,108 @@
+package galaxy.merchant;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Size bounded cache of query results keyed by the sanitized query line. The
+ * least recently used results are evicted first.
+ * <p>
+ * Every result is stored with the version of the definitions it was
+ * calculated from, the cache is emptied as soon as a query is evaluated
+ * against other definitions. The cache is thread safe.
+ *
+ * @author kommineni
+ *
+ */
+public class QueryResultCache {
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+	private final Cache<String, CachedResult> results;
+	private final AtomicLong definitionsVersion = new AtomicLong();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	public QueryResultCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param maximumSize number of results kept
+	 */
+	public QueryResultCache(int maximumSize) {
+		Preconditions.checkArgument(maximumSize > 0);
+		this.results = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+
+	/**
+	 * @param query              sanitized query line
+	 * @param definitionsVersion version of the definitions the query is evaluated
+	 *                           against
+	 * @return the cached result, null if there is none for these definitions
+	 */
+	String get(String query, long definitionsVersion) {
+		invalidateIfChanged(definitionsVersion);
+		final CachedResult cachedResult = results.getIfPresent(query);
+		if (cachedResult == null || cachedResult.definitionsVersion != definitionsVersion) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		return cachedResult.result;
+	}
+
+	/**
+	 * @param query              sanitized query line
+	 * @param definitionsVersion version of the definitions the result was
+	 *                           calculated from
+	 * @param result
+	 */
+	void put(String query, long definitionsVersion, String result) {
+		results.put(query, new CachedResult(definitionsVersion, result));
+	}
+
+	/**
+	 * Removes all the results
+	 */
+	public void invalidateAll() {
+		results.invalidateAll();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return number of results currently cached
+	 */
+	public long size() {
+		return results.size();
+	}
+
+	private void invalidateIfChanged(long version) {
+		final long cachedVersion = definitionsVersion.get();
+		if (cachedVersion != version && definitionsVersion.compareAndSet(cachedVersion, version)) {
+			results.invalidateAll();
+		}
+	}
+
+	private static final class CachedResult {
+
+		private final long definitionsVersion;
+		private final String result;
+
+		private CachedResult(long definitionsVersion, String result) {
+			this.definitionsVersion = definitionsVersion;
+			this.result = result;
+		}
+	}
+
+}
@@ -1,14 +1,47 @@
 package galaxy.merchant.exception;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * @author kommineni
  *
  */
-public class InvalidGalacticCurrencyConvesionQueryException extends RuntimeException {
+public class InvalidGalacticCurrencyConvesionQueryException extends InvalidInputException {
 
 	private static final long serialVersionUID = -4798158351740954637L;
 
+	private static final Map<QueryErrorCode, InvalidGalacticCurrencyConvesionQueryException> SHARED_INSTANCES = sharedInstances();
+
 	public InvalidGalacticCurrencyConvesionQueryException(String s) {
 		super(s);
 	}
+
+	/**
+	 * @param errorCode reason of the failure, its message is the exception message
+	 */
+	public InvalidGalacticCurrencyConvesionQueryException(QueryErrorCode errorCode) {
+		super(errorCode, true);
+	}
+
+	private InvalidGalacticCurrencyConvesionQueryException(QueryErrorCode errorCode, boolean writeStackTrace) {
+		super(errorCode, writeStackTrace);
+	}
+
+	/**
+	 * @param errorCode reason of the failure
+	 * @return the shared instance of the code, without a stack trace
+	 */
+	public static InvalidGalacticCurrencyConvesionQueryException of(QueryErrorCode errorCode) {
+		return SHARED_INSTANCES.get(errorCode);
+	}
+
+	private static Map<QueryErrorCode, InvalidGalacticCurrencyConvesionQueryException> sharedInstances() {
+		final Map<QueryErrorCode, InvalidGalacticCurrencyConvesionQueryException> sharedInstances = new EnumMap<QueryErrorCode, InvalidGalacticCurrencyConvesionQueryException>(
+				QueryErrorCode.class);
+		for (QueryErrorCode errorCode : QueryErrorCode.values()) {
+			sharedInstances.put(errorCode, new InvalidGalacticCurrencyConvesionQueryException(errorCode, false));
+		}
+		return sharedInstances;
+	}
 }
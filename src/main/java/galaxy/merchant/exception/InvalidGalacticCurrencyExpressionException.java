@@ -1,14 +1,47 @@
 package galaxy.merchant.exception;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * @author kommineni
  *
  */
-public class InvalidGalacticCurrencyExpressionException extends RuntimeException {
+public class InvalidGalacticCurrencyExpressionException extends InvalidInputException {
 
 	private static final long serialVersionUID = -46655037660102838L;
 
+	private static final Map<QueryErrorCode, InvalidGalacticCurrencyExpressionException> SHARED_INSTANCES = sharedInstances();
+
 	public InvalidGalacticCurrencyExpressionException(String s) {
 		super(s);
 	}
+
+	/**
+	 * @param errorCode reason of the failure, its message is the exception message
+	 */
+	public InvalidGalacticCurrencyExpressionException(QueryErrorCode errorCode) {
+		super(errorCode, true);
+	}
+
+	private InvalidGalacticCurrencyExpressionException(QueryErrorCode errorCode, boolean writeStackTrace) {
+		super(errorCode, writeStackTrace);
+	}
+
+	/**
+	 * @param errorCode reason of the failure
+	 * @return the shared instance of the code, without a stack trace
+	 */
+	public static InvalidGalacticCurrencyExpressionException of(QueryErrorCode errorCode) {
+		return SHARED_INSTANCES.get(errorCode);
+	}
+
+	private static Map<QueryErrorCode, InvalidGalacticCurrencyExpressionException> sharedInstances() {
+		final Map<QueryErrorCode, InvalidGalacticCurrencyExpressionException> sharedInstances = new EnumMap<QueryErrorCode, InvalidGalacticCurrencyExpressionException>(
+				QueryErrorCode.class);
+		for (QueryErrorCode errorCode : QueryErrorCode.values()) {
+			sharedInstances.put(errorCode, new InvalidGalacticCurrencyExpressionException(errorCode, false));
+		}
+		return sharedInstances;
+	}
 }
@@ -0,0 +1,41 @@
+package galaxy.merchant.exception;
+
+/**
+ * Failure caused by a statement of the input. Failures with an error code are
+ * expected on dirty input, so {@link InvalidGalacticCurrencyExpressionException#of(QueryErrorCode)}
+ * and {@link InvalidGalacticCurrencyConvesionQueryException#of(QueryErrorCode)}
+ * hand out one shared instance per code without a stack trace.
+ *
+ * @author kommineni
+ *
+ */
+public abstract class InvalidInputException extends RuntimeException {
+
+	private static final long serialVersionUID = 2739512395069862375L;
+
+	// null if the exception was created with a message only
+	private final QueryErrorCode errorCode;
+
+	protected InvalidInputException(String s) {
+		super(s);
+		this.errorCode = null;
+	}
+
+	/**
+	 * @param errorCode       reason of the failure, its message is the exception
+	 *                        message
+	 * @param writeStackTrace false for the shared instance of the code
+	 */
+	protected InvalidInputException(QueryErrorCode errorCode, boolean writeStackTrace) {
+		super(errorCode.getMessage(), null, writeStackTrace, writeStackTrace);
+		this.errorCode = errorCode;
+	}
+
+	/**
+	 * @return reason of the failure, null if the exception was created with a
+	 *         message only
+	 */
+	public QueryErrorCode getErrorCode() {
+		return errorCode;
+	}
+}
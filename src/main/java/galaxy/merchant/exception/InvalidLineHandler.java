@@ -0,0 +1,32 @@
+package galaxy.merchant.exception;
+
+/**
+ * Receives the input lines that can not be classified, registered or answered
+ * when a conversion continues after invalid input instead of failing.
+ *
+ * @author kommineni
+ *
+ */
+@FunctionalInterface
+public interface InvalidLineHandler {
+
+	/**
+	 * Called from the thread that processed the line, which is not the same for
+	 * every line in parallel or pipelined mode
+	 * @param line      the input line
+	 * @param errorCode reason the line was rejected
+	 */
+	void invalidLine(String line, QueryErrorCode errorCode);
+
+	/**
+	 * @param line
+	 * @param failure
+	 * @throws InvalidInputException the failure if it has no error code
+	 */
+	default void reject(String line, InvalidInputException failure) {
+		if (failure.getErrorCode() == null) {
+			throw failure;
+		}
+		invalidLine(line, failure.getErrorCode());
+	}
+}
@@ -0,0 +1,32 @@
+package galaxy.merchant.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Reasons a statement of the input can not be answered, with the message
+ * reported for them.
+ *
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@Getter
+public enum QueryErrorCode {
+
+	REPETITION_NOT_PERMITTED("Invalid Currency Format - Repetition not permitted"),
+	REPETITION_BEYOND_PERMITTED("Invalid Currency Format - Repetition beyond permitted"),
+	INVALID_SUBTRACTION("Invalid Currency Format - character Sequence invalid for substraction"),
+	UNKNOWN_METAL("Common metal not found in credit transaction"),
+	NO_METAL_NAME("No metal name in input String"),
+	NO_CREDITS("No credits found in transaction"),
+	INVALID_CREDITS("Credits are not a whole number"),
+	UNKNOWN_CURRENCY("Galactic Currency not defined"),
+	NO_UNITS("No Galactic Currency value for the units of the metal"),
+	VALUE_OUT_OF_RANGE("Value can not be expressed in Galactic Currency"),
+	NO_CURRENCY_FOR_NUMERAL("No Galactic Currency defined for a roman numeral of the value"),
+	FRACTIONAL_QUANTITY("Credits do not buy a whole number of units"),
+	UNCATEGORIZED_QUERY("I have no idea what you are talking about");
+
+	private final String message;
+}
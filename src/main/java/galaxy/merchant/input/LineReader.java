@@ -0,0 +1,21 @@
+package galaxy.merchant.input;
+
+import java.io.IOException;
+
+/**
+ * Source of the input lines of a conversion. A {@link java.io.BufferedReader}
+ * is adapted with {@code bufferedReader::readLine}.
+ *
+ * @author kommineni
+ *
+ */
+@FunctionalInterface
+public interface LineReader {
+
+	/**
+	 * @return the next line without the line terminator, null at the end of the
+	 *         input
+	 * @throws IOException
+	 */
+	String readLine() throws IOException;
+}
@@ -0,0 +1,160 @@
+package galaxy.merchant.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import com.google.common.base.Preconditions;
+
+/**
+ * Reads the lines of a file through a memory mapping. Line terminators, white
+ * space and non ASCII bytes are searched in the mapped bytes eight at a time.
+ * Blank lines are returned as the empty string without copying them, other
+ * lines are copied out of the mapping into a reused buffer and decoded into a
+ * String, ASCII lines without a charset decoder and other lines as UTF-8.
+ * <p>
+ * Files larger than a region are mapped region by region, a region always
+ * starts at the beginning of a line. The reader is not thread safe.
+ *
+ * @author kommineni
+ *
+ */
+public class MappedLineReader implements LineReader, Closeable {
+
+	static final long DEFAULT_REGION_SIZE = Integer.MAX_VALUE;
+
+	private static final long NEW_LINES = 0x0A0A0A0A0A0A0A0AL;
+	private static final long LOW_BITS = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	// sets the high bit of every ASCII byte above ' '
+	private static final long ABOVE_SPACE = 0x5F5F5F5F5F5F5F5FL;
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private final long regionSize;
+
+	private MappedByteBuffer region;
+	private long regionStart;
+	private int position;
+	private byte[] lineBytes = new byte[256];
+
+	/**
+	 * @param inputFile
+	 * @throws IOException
+	 */
+	public MappedLineReader(Path inputFile) throws IOException {
+		this(inputFile, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * @param inputFile
+	 * @param regionSize bytes mapped at a time, at least the length of the
+	 *                   longest line
+	 * @throws IOException
+	 */
+	MappedLineReader(Path inputFile, long regionSize) throws IOException {
+		Preconditions.checkArgument(regionSize > 0 && regionSize <= DEFAULT_REGION_SIZE);
+		this.channel = FileChannel.open(inputFile, StandardOpenOption.READ);
+		this.fileSize = channel.size();
+		this.regionSize = regionSize;
+		map(0);
+	}
+
+	@Override
+	public String readLine() throws IOException {
+		int lineEnd = indexOfNewLine(position);
+		while (lineEnd < 0 && regionStart + region.limit() < fileSize) {
+			if (position == 0) {
+				throw new IOException("Line at offset " + regionStart + " is longer than " + regionSize + " bytes");
+			}
+			map(regionStart + position);
+			lineEnd = indexOfNewLine(position);
+		}
+		if (lineEnd < 0) {
+			if (position == region.limit()) {
+				return null;
+			}
+			lineEnd = region.limit();
+		}
+		final int lineStart = position;
+		position = Math.min(lineEnd + 1, region.limit());
+		int contentEnd = lineEnd;
+		if (contentEnd > lineStart && region.get(contentEnd - 1) == '\r') {
+			contentEnd--;
+		}
+		return decode(lineStart, contentEnd);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void map(long start) throws IOException {
+		regionStart = start;
+		region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, fileSize - start));
+		region.order(ByteOrder.LITTLE_ENDIAN);
+		position = 0;
+	}
+
+	/**
+	 * @param from
+	 * @return position of the next '\n' in the region, -1 if there is none
+	 */
+	private int indexOfNewLine(int from) {
+		final int limit = region.limit();
+		int index = from;
+		for (; index + Long.BYTES <= limit; index += Long.BYTES) {
+			final long bytes = region.getLong(index) ^ NEW_LINES;
+			final long newLines = (bytes - LOW_BITS) & ~bytes & HIGH_BITS;
+			if (newLines != 0) {
+				// little endian, the lowest byte comes first in the file
+				return index + (Long.numberOfTrailingZeros(newLines) >>> 3);
+			}
+		}
+		for (; index < limit; index++) {
+			if (region.get(index) == '\n') {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param start
+	 * @param end
+	 * @return the line, the empty string if it only holds white space
+	 */
+	private String decode(int start, int end) {
+		// high bits of the bytes that are not white space or not ASCII
+		long visible = 0;
+		long nonAscii = 0;
+		int index = start;
+		for (; index + Long.BYTES <= end; index += Long.BYTES) {
+			final long bytes = region.getLong(index);
+			visible |= bytes | (bytes + ABOVE_SPACE);
+			nonAscii |= bytes;
+		}
+		for (; index < end; index++) {
+			final byte b = region.get(index);
+			visible |= b < 0 || b > ' ' ? HIGH_BITS : 0;
+			nonAscii |= b;
+		}
+		if ((visible & HIGH_BITS) == 0) {
+			return "";
+		}
+		final int length = end - start;
+		if (lineBytes.length < length) {
+			lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+		}
+		region.position(start);
+		region.get(lineBytes, 0, length);
+		return new String(lineBytes, 0, length,
+				(nonAscii & HIGH_BITS) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+	}
+
+}
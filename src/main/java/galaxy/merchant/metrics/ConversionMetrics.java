@@ -0,0 +1,154 @@
+package galaxy.merchant.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of the stages of a conversion and of the
+ * queries by outcome. Instances are thread safe, components without metrics
+ * hold null instead of an instance so that disabled metrics cost a null check.
+ *
+ * @author kommineni
+ *
+ */
+public class ConversionMetrics implements ConversionMetricsMXBean {
+
+	public static final String OBJECT_NAME = "galaxy.merchant:type=ConversionMetrics";
+
+	private final LatencyHistogram[] stageLatencies = newHistograms(ConversionStage.values().length);
+	private final LatencyHistogram[] queryLatencies = newHistograms(QueryOutcome.values().length);
+
+	/**
+	 * @param stage
+	 * @param startNanos {@link System#nanoTime()} at the start of the stage
+	 */
+	public void recordStage(ConversionStage stage, long startNanos) {
+		stageLatencies[stage.ordinal()].record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * @param outcome
+	 * @param startNanos {@link System#nanoTime()} before the query was evaluated
+	 */
+	public void recordQuery(QueryOutcome outcome, long startNanos) {
+		queryLatencies[outcome.ordinal()].record(System.nanoTime() - startNanos);
+	}
+
+	public LatencyHistogram getStageLatency(ConversionStage stage) {
+		return stageLatencies[stage.ordinal()];
+	}
+
+	public LatencyHistogram getQueryLatency(QueryOutcome outcome) {
+		return queryLatencies[outcome.ordinal()];
+	}
+
+	@Override
+	public Map<String, Long> getStageCounts() {
+		return stageValues(LatencyHistogram::getCount);
+	}
+
+	@Override
+	public Map<String, Long> getStageTotalNanos() {
+		return stageValues(LatencyHistogram::getTotalNanos);
+	}
+
+	@Override
+	public Map<String, Long> getQueryCounts() {
+		return queryValues(LatencyHistogram::getCount);
+	}
+
+	@Override
+	public Map<String, Long> getQueryMeanNanos() {
+		return queryValues(LatencyHistogram::getMeanNanos);
+	}
+
+	@Override
+	public Map<String, Long> getQueryP99Nanos() {
+		return queryValues(histogram -> histogram.getPercentileNanos(99));
+	}
+
+	@Override
+	public Map<String, Long> getQueryMaxNanos() {
+		return queryValues(LatencyHistogram::getMaxNanos);
+	}
+
+	@Override
+	public String getReport() {
+		final StringBuilder report = new StringBuilder(String.format("%-22s %10s %14s %12s %12s%n", "stage",
+				"count", "total us", "mean us", "max us"));
+		for (ConversionStage stage : ConversionStage.values()) {
+			final LatencyHistogram histogram = getStageLatency(stage);
+			report.append(String.format("%-22s %10d %14.1f %12.3f %12.3f%n", stage, histogram.getCount(),
+					micros(histogram.getTotalNanos()), micros(histogram.getMeanNanos()),
+					micros(histogram.getMaxNanos())));
+		}
+		report.append(String.format("%-22s %10s %12s %12s %12s%n", "query", "count", "mean us", "p99 us",
+				"max us"));
+		for (QueryOutcome outcome : QueryOutcome.values()) {
+			final LatencyHistogram histogram = getQueryLatency(outcome);
+			report.append(String.format("%-22s %10d %12.3f %12.3f %12.3f%n", outcome, histogram.getCount(),
+					micros(histogram.getMeanNanos()), micros(histogram.getPercentileNanos(99)),
+					micros(histogram.getMaxNanos())));
+		}
+		return report.toString();
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : stageLatencies) {
+			histogram.reset();
+		}
+		for (LatencyHistogram histogram : queryLatencies) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server under
+	 * {@link #OBJECT_NAME}, replacing earlier metrics
+	 * @return the name of the MBean
+	 * @throws JMException
+	 */
+	public ObjectName registerMBean() throws JMException {
+		final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = new ObjectName(OBJECT_NAME);
+		if (mBeanServer.isRegistered(objectName)) {
+			mBeanServer.unregisterMBean(objectName);
+		}
+		mBeanServer.registerMBean(this, objectName);
+		return objectName;
+	}
+
+	private Map<String, Long> stageValues(ToLongFunction<LatencyHistogram> value) {
+		final Map<String, Long> values = new LinkedHashMap<String, Long>();
+		for (ConversionStage stage : ConversionStage.values()) {
+			values.put(stage.name(), value.applyAsLong(getStageLatency(stage)));
+		}
+		return values;
+	}
+
+	private Map<String, Long> queryValues(ToLongFunction<LatencyHistogram> value) {
+		final Map<String, Long> values = new LinkedHashMap<String, Long>();
+		for (QueryOutcome outcome : QueryOutcome.values()) {
+			values.put(outcome.name(), value.applyAsLong(getQueryLatency(outcome)));
+		}
+		return values;
+	}
+
+	private static double micros(long nanos) {
+		return nanos / 1000.0;
+	}
+
+	private static LatencyHistogram[] newHistograms(int count) {
+		final LatencyHistogram[] histograms = new LatencyHistogram[count];
+		for (int index = 0; index < count; index++) {
+			histograms[index] = new LatencyHistogram();
+		}
+		return histograms;
+	}
+}
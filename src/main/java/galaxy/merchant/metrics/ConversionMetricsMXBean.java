@@ -0,0 +1,32 @@
+package galaxy.merchant.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the {@link ConversionMetrics}, keys of the maps are
+ * the names of the stages and query outcomes.
+ *
+ * @author kommineni
+ *
+ */
+public interface ConversionMetricsMXBean {
+
+	Map<String, Long> getStageCounts();
+
+	Map<String, Long> getStageTotalNanos();
+
+	Map<String, Long> getQueryCounts();
+
+	Map<String, Long> getQueryMeanNanos();
+
+	Map<String, Long> getQueryP99Nanos();
+
+	Map<String, Long> getQueryMaxNanos();
+
+	/**
+	 * @return the statistics as printed at the end of a run
+	 */
+	String getReport();
+
+	void reset();
+}
@@ -0,0 +1,20 @@
+package galaxy.merchant.metrics;
+
+/**
+ * Stages of a currency conversion run.
+ *
+ * @author kommineni
+ *
+ */
+public enum ConversionStage {
+	/** sanitizing and classifying the input lines */
+	CLASSIFICATION,
+	/** registering the Galactic Currency definitions */
+	CURRENCY_DEFINITIONS,
+	/** calculating the unit prices of the metal definitions */
+	METAL_DEFINITIONS,
+	/** answering the queries */
+	QUERY_EVALUATION,
+	/** flushing the results to the output sink */
+	OUTPUT
+}
@@ -0,0 +1,87 @@
+package galaxy.merchant.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import com.google.common.base.Preconditions;
+
+/**
+ * Lock free histogram of latencies in nanoseconds. A latency is counted in the
+ * power of two bucket holding it, percentiles are reported as the upper bound
+ * of their bucket and are at most twice the exact value.
+ *
+ * @author kommineni
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = Long.SIZE;
+
+	// bucket i counts the latencies below 2^i and at least 2^(i-1)
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param nanos latency, negative values are counted as 0
+	 */
+	public void record(long nanos) {
+		final long latency = Math.max(nanos, 0);
+		buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(latency));
+		count.increment();
+		totalNanos.add(latency);
+		maxNanos.accumulate(latency);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * @return 0 if nothing was recorded
+	 */
+	public long getMeanNanos() {
+		final long recorded = getCount();
+		return recorded == 0 ? 0 : getTotalNanos() / recorded;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return upper bound of the bucket holding the percentile, 0 if nothing was
+	 *         recorded
+	 */
+	public long getPercentileNanos(double percentile) {
+		Preconditions.checkArgument(percentile >= 0 && percentile <= 100);
+		final long recorded = getCount();
+		if (recorded == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += buckets.get(bucket);
+			if (seen >= rank) {
+				return Math.min((1L << bucket) - 1, getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	public void reset() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			buckets.set(bucket, 0);
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+}
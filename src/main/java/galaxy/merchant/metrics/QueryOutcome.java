@@ -0,0 +1,12 @@
+package galaxy.merchant.metrics;
+
+/**
+ * Kinds of answered queries, queries that fail are counted as
+ * {@link #FAILED} whatever their type.
+ *
+ * @author kommineni
+ *
+ */
+public enum QueryOutcome {
+	GALACTIC_CURRENCY, CREDIT, GALACTIC_VALUE, METAL_QUANTITY, UNCATEGORIZED, FAILED
+}
@@ -1,7 +1,6 @@
 package galaxy.merchant.model;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -10,7 +9,8 @@ import java.util.stream.Collectors;
 import com.google.common.collect.Lists;
 
 import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
-import lombok.AllArgsConstructor;
+import galaxy.merchant.exception.QueryErrorCode;
+import galaxy.merchant.parser.LineTokenizer;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -20,33 +20,67 @@ import lombok.ToString;
  *
  */
 
-@AllArgsConstructor
 @EqualsAndHashCode
 @ToString
 @Getter
 public class CommonMetal {
 
 	private final String metalName;
+	// rounded with the default credit rounding if the unit price has no finite
+	// decimal representation
 	private final BigDecimal perUnitValue;
+	private final UnitPrice unitPrice;
+
+	/**
+	 * @param metalName
+	 * @param perUnitValue
+	 */
+	public CommonMetal(String metalName, BigDecimal perUnitValue) {
+		this.metalName = metalName;
+		this.perUnitValue = perUnitValue;
+		this.unitPrice = UnitPrice.of(perUnitValue);
+	}
+
+	/**
+	 * @param metalName
+	 * @param unitPrice
+	 */
+	public CommonMetal(String metalName, UnitPrice unitPrice) {
+		this.metalName = metalName;
+		this.perUnitValue = unitPrice.toBigDecimal(CreditRounding.DEFAULT);
+		this.unitPrice = unitPrice;
+	}
 
 	public static CommonMetal createFromMetalValueDefinition(String metalValueDefinition,
 			final GalacticCurrencyExpression galacticCurrencyExpression) {
-		final Integer galacticCurrencyExpressionValue = galacticCurrencyExpression.getGalacticCurrencyExpressionValue();
 		final String metalSymbol = extractCommonMetalName(metalValueDefinition);
 		final Integer metalTotalValue = extractMetalValue(metalValueDefinition);
-		BigDecimal perUnitValue = BigDecimal.valueOf(metalTotalValue)
-				.divide(BigDecimal.valueOf(galacticCurrencyExpressionValue));
-		return new CommonMetal(metalSymbol, perUnitValue);
+		return createFromMetalValueDefinition(metalSymbol, metalTotalValue, galacticCurrencyExpression);
+	}
+
+	/**
+	 * @param metalSymbol
+	 * @param metalTotalValue
+	 * @param galacticCurrencyExpression
+	 * @return
+	 */
+	public static CommonMetal createFromMetalValueDefinition(String metalSymbol, Integer metalTotalValue,
+			final GalacticCurrencyExpression galacticCurrencyExpression) {
+		final Integer galacticCurrencyExpressionValue = galacticCurrencyExpression.getGalacticCurrencyExpressionValue();
+		if (galacticCurrencyExpressionValue == 0) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.NO_UNITS);
+		}
+		return new CommonMetal(metalSymbol, UnitPrice.of(metalTotalValue, galacticCurrencyExpressionValue));
 	}
 
 	static String extractCommonMetalName(String metalValueDefinition) {
-		final String[] components = metalValueDefinition.split(" ");
-		for (int i = 0; i < components.length; i++) {
-			if (components[i].equals("is")) {
-				return components[i - 1];
+		final LineTokenizer components = new LineTokenizer().tokenize(metalValueDefinition);
+		for (int i = 0; i < components.tokenCount(); i++) {
+			if (i > 0 && components.tokenEquals(i, "is")) {
+				return components.token(i - 1);
 			}
 		}
-		throw new InvalidGalacticCurrencyConvesionQueryException("No metal name in input String");
+		throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.NO_METAL_NAME);
 	}
 
 	/**
@@ -54,13 +88,17 @@ public class CommonMetal {
 	 * @return
 	 */
 	static Integer extractMetalValue(String assignmentTransaction) {
-		final String[] components = assignmentTransaction.split(" ");
-		for (int i = 0; i < components.length; i++) {
-			if (components[i].equals("Credits")) {
-				return Integer.valueOf(components[i - 1]);
+		final LineTokenizer components = new LineTokenizer().tokenize(assignmentTransaction);
+		for (int i = 0; i < components.tokenCount(); i++) {
+			if (i > 0 && components.tokenEquals(i, "Credits")) {
+				try {
+					return Integer.valueOf(components.token(i - 1));
+				} catch (NumberFormatException e) {
+					throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.INVALID_CREDITS);
+				}
 			}
 		}
-		throw new InvalidGalacticCurrencyConvesionQueryException("No credits found in transaction");
+		throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.NO_CREDITS);
 	}
 
 	public static Optional<CommonMetal> selectBySymbol(final String metal, final Collection<CommonMetal> metalList) {
@@ -74,19 +112,31 @@ public class CommonMetal {
 	 */
 	public static List<CommonMetal> buildMetalList(List<String> nonCurrencyDefinitionInput,
 			List<GalacticCurrency> galacticCurrencyList) {
+		return buildMetalList(nonCurrencyDefinitionInput, GalacticSymbolRegistry.of(galacticCurrencyList));
+	}
+
+	/**
+	 * Builds the metals from the metal value definitions and registers them with
+	 * the symbol registry.
+	 * @param nonCurrencyDefinitionInput
+	 * @param symbolRegistry
+	 * @return
+	 */
+	public static List<CommonMetal> buildMetalList(List<String> nonCurrencyDefinitionInput,
+			GalacticSymbolRegistry symbolRegistry) {
 
 		// Determine the metal value definition input records
 		final List<String> metalValueDefinitions = fetchMetalValueDefinitions(nonCurrencyDefinitionInput);
 
 		final List<CommonMetal> commonMetals = Lists.newArrayList();
 		for (String metalValueDefinition : metalValueDefinitions) {
-			final List<GalacticCurrency> galacticCurrenciesInMetalValueDefinition = GalacticCurrency
-					.getGalacticCurrencyFromComponents(Arrays.asList(metalValueDefinition.split(" ")),
-							galacticCurrencyList);
+			final List<GalacticCurrency> galacticCurrenciesInMetalValueDefinition = symbolRegistry
+					.resolveGalacticCurrencies(metalValueDefinition, 0, metalValueDefinition.length());
 			GalacticCurrencyExpression galacticCurrencyExpression = new GalacticCurrencyExpression(
 					galacticCurrenciesInMetalValueDefinition);
 			final CommonMetal rareMetal = CommonMetal.createFromMetalValueDefinition(metalValueDefinition,
 					galacticCurrencyExpression);
+			symbolRegistry.registerMetal(rareMetal);
 			commonMetals.add(rareMetal);
 		}
 		return commonMetals;
@@ -97,7 +147,15 @@ public class CommonMetal {
 	 * @return
 	 */
 	public static List<String> fetchMetalValueDefinitions(List<String> nonCurrencyDefinitionInput) {
-		return nonCurrencyDefinitionInput.stream().filter(ncdInput -> ncdInput.endsWith("Credits"))
+		return nonCurrencyDefinitionInput.stream().filter(CommonMetal::isMetalValueDefinition)
 				.collect(Collectors.toList());
 	}
+
+	/**
+	 * @param nonCurrencyDefinitionInput
+	 * @return
+	 */
+	public static boolean isMetalValueDefinition(String nonCurrencyDefinitionInput) {
+		return nonCurrencyDefinitionInput.endsWith("Credits");
+	}
 }
@@ -0,0 +1,75 @@
+package galaxy.merchant.model;
+
+import java.util.function.Function;
+
+/**
+ * Galactic Currencies and Common Metals shared between query threads and
+ * writers. Readers get the published immutable snapshot with a single volatile
+ * read, so reads are wait free and always see a complete set of definitions.
+ * Writers are serialized; the changes of an {@link #update(Function)} are
+ * applied to a private registry and published together as one new snapshot.
+ *
+ * @author kommineni
+ *
+ */
+public class ConcurrentSymbolRegistry {
+
+	// guarded by this
+	private final GalacticSymbolRegistry definitions;
+
+	private volatile GalacticSymbolRegistry published;
+
+	public ConcurrentSymbolRegistry() {
+		this(new GalacticSymbolRegistry());
+	}
+
+	/**
+	 * @param definitions initial definitions, owned by the concurrent registry
+	 *                    afterwards
+	 */
+	public ConcurrentSymbolRegistry(GalacticSymbolRegistry definitions) {
+		this.definitions = definitions;
+		this.published = definitions.snapshot();
+	}
+
+	/**
+	 * @return the definitions published last, an immutable snapshot
+	 */
+	public GalacticSymbolRegistry current() {
+		return published;
+	}
+
+	/**
+	 * Applies changes to the definitions and publishes them in one snapshot.
+	 * Changes made before the update fails are published as well.
+	 * @param update changes the writable definitions, which must not escape the
+	 *               update
+	 * @return the result of the update
+	 */
+	public synchronized <T> T update(Function<GalacticSymbolRegistry, T> update) {
+		try {
+			return update.apply(definitions);
+		} finally {
+			if (definitions.getVersion() != published.getVersion()) {
+				published = definitions.snapshot();
+			}
+		}
+	}
+
+	/**
+	 * @param galacticCurrency
+	 * @return true if the symbol was not known before
+	 */
+	public boolean registerGalacticCurrency(GalacticCurrency galacticCurrency) {
+		return update(registry -> registry.registerGalacticCurrency(galacticCurrency));
+	}
+
+	/**
+	 * @param metal
+	 * @return true if the metal was not known before
+	 */
+	public boolean registerMetal(CommonMetal metal) {
+		return update(registry -> registry.registerMetal(metal));
+	}
+
+}
@@ -0,0 +1,40 @@
+package galaxy.merchant.model;
+
+import java.math.RoundingMode;
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Rounding of credit amounts that have no finite decimal representation (Ex:
+ * 10 Credits for 3 units). Amounts with a finite representation are never
+ * rounded.
+ *
+ * @author kommineni
+ *
+ */
+@EqualsAndHashCode
+@ToString
+@Getter
+public class CreditRounding {
+
+	/**
+	 * Two decimal places, ties to the even neighbour
+	 */
+	public static final CreditRounding DEFAULT = new CreditRounding(2, RoundingMode.HALF_EVEN);
+
+	private final int scale;
+	private final RoundingMode roundingMode;
+
+	/**
+	 * @param scale        number of decimal places kept
+	 * @param roundingMode
+	 */
+	public CreditRounding(int scale, RoundingMode roundingMode) {
+		Preconditions.checkArgument(scale >= 0);
+		Preconditions.checkArgument(roundingMode != null);
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+}
@@ -0,0 +1,149 @@
+package galaxy.merchant.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary file of the Galactic Currencies and metal unit prices of a
+ * registry, so that later runs skip parsing the definition lines. The file is
+ * read through a memory mapping.
+ * <p>
+ * Layout, big endian: magic, format version, currency count, metal count, every
+ * currency as symbol and roman numeral, every metal as name and exact unit
+ * price, CRC32 of everything before it. Strings are written as UTF-8 with their
+ * byte length.
+ *
+ * @author kommineni
+ *
+ */
+public final class DefinitionSnapshot {
+
+	static final int MAGIC = 0x47414C53;
+	static final short FORMAT_VERSION = 1;
+
+	private DefinitionSnapshot() {
+	}
+
+	/**
+	 * Writes the definitions of the registry, the file is replaced atomically
+	 * @param symbolRegistry
+	 * @param snapshotFile
+	 * @throws IOException
+	 */
+	public static void write(GalacticSymbolRegistry symbolRegistry, Path snapshotFile) throws IOException {
+		final Path directory = snapshotFile.toAbsolutePath().getParent();
+		final Path temporaryFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+		try {
+			final CRC32 checksum = new CRC32();
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+					new CheckedOutputStream(Files.newOutputStream(temporaryFile), checksum)))) {
+				writeDefinitions(symbolRegistry, output);
+				output.flush();
+				output.writeInt((int) checksum.getValue());
+			}
+			Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * @param snapshotFile written by {@link #write(GalacticSymbolRegistry, Path)}
+	 * @return new registry holding the definitions of the snapshot as provisional
+	 *         ones, which the definitions of an input replace, numerals are the
+	 *         ones of {@link NumeralTable#standard()}
+	 * @throws IOException if the file is not a valid snapshot
+	 */
+	public static GalacticSymbolRegistry read(Path snapshotFile) throws IOException {
+		final MappedByteBuffer snapshot;
+		try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+			snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (snapshot.limit() < Integer.BYTES * 4 || snapshot.getInt() != MAGIC) {
+			throw new IOException("Not a definition snapshot: " + snapshotFile);
+		}
+		final short formatVersion = snapshot.getShort();
+		if (formatVersion != FORMAT_VERSION) {
+			throw new IOException("Unsupported definition snapshot version " + formatVersion + ": " + snapshotFile);
+		}
+		final ByteBuffer content = snapshot.duplicate();
+		content.position(0).limit(snapshot.limit() - Integer.BYTES);
+		final CRC32 checksum = new CRC32();
+		checksum.update(content);
+		if ((int) checksum.getValue() != snapshot.getInt(snapshot.limit() - Integer.BYTES)) {
+			throw new IOException("Corrupted definition snapshot: " + snapshotFile);
+		}
+		try {
+			final GalacticSymbolRegistry symbolRegistry = readDefinitions(snapshot);
+			symbolRegistry.markProvisional();
+			return symbolRegistry;
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupted definition snapshot: " + snapshotFile, e);
+		}
+	}
+
+	private static void writeDefinitions(GalacticSymbolRegistry symbolRegistry, DataOutputStream output)
+			throws IOException {
+		output.writeInt(MAGIC);
+		output.writeShort(FORMAT_VERSION);
+		output.writeInt(symbolRegistry.getGalacticCurrencies().size());
+		output.writeInt(symbolRegistry.getMetals().size());
+		for (GalacticCurrency galacticCurrency : symbolRegistry.getGalacticCurrencies()) {
+			writeString(galacticCurrency.getSymbol(), output);
+			output.writeChar(galacticCurrency.getRomanNumeral().getSymbol());
+		}
+		for (CommonMetal metal : symbolRegistry.getMetals()) {
+			writeString(metal.getMetalName(), output);
+			metal.getUnitPrice().writeTo(output);
+		}
+	}
+
+	private static GalacticSymbolRegistry readDefinitions(ByteBuffer snapshot) throws IOException {
+		final int currencyCount = snapshot.getInt();
+		final int metalCount = snapshot.getInt();
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		for (int currency = 0; currency < currencyCount; currency++) {
+			final String symbol = readString(snapshot);
+			final char numeralSymbol = snapshot.getChar();
+			symbolRegistry.registerGalacticCurrency(new GalacticCurrency(symbol, standardNumeral(numeralSymbol)));
+		}
+		for (int metal = 0; metal < metalCount; metal++) {
+			final String metalName = readString(snapshot);
+			symbolRegistry.registerMetal(new CommonMetal(metalName, UnitPrice.readFrom(snapshot)));
+		}
+		return symbolRegistry;
+	}
+
+	private static RomanNumeral standardNumeral(char numeralSymbol) throws IOException {
+		for (RomanNumeral romanNumeral : NumeralTable.standardRomanSymbols()) {
+			if (romanNumeral.isSameSymbol(numeralSymbol)) {
+				return romanNumeral;
+			}
+		}
+		throw new IOException("Unknown roman numeral " + numeralSymbol);
+	}
+
+	private static void writeString(String value, DataOutputStream output) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(ByteBuffer input) {
+		final byte[] bytes = new byte[input.getInt()];
+		input.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
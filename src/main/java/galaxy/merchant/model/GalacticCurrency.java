@@ -1,9 +1,9 @@
 package galaxy.merchant.model;
 
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.QueryErrorCode;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -26,21 +26,14 @@ public class GalacticCurrency {
 	public static GalacticCurrency createFromQueryComponent(String galacticCurrencySymbol,
 			List<GalacticCurrency> galacticCurrenciesMasterList) {
 		return galacticCurrenciesMasterList.stream()
-				.filter(galacticCurrency -> galacticCurrency.isSame(galacticCurrencySymbol)).findFirst().get();
+				.filter(galacticCurrency -> galacticCurrency.isSame(galacticCurrencySymbol)).findFirst().orElseThrow(
+						() -> InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.UNKNOWN_CURRENCY));
 	}
 
 	public static List<GalacticCurrency> getGalacticCurrencyFromComponents(List<String> galacticCurrencyQueryComponents,
 			List<GalacticCurrency> galacticCurrenciesMasterList) {
-		final Stream<String> galacticCurrencyComponents = galacticCurrencyQueryComponents.stream()
-				.filter(gcComponent -> {
-					return galacticCurrenciesMasterList.stream()
-							.anyMatch(galacticCurrency -> galacticCurrency.isSame(gcComponent));
-				});
-		final List<GalacticCurrency> galacticCurrenciesInQuery = galacticCurrencyComponents
-				.map(galacticCurrencySymbol -> createFromQueryComponent(galacticCurrencySymbol,
-						galacticCurrenciesMasterList))
-				.collect(Collectors.toList());
-		return galacticCurrenciesInQuery;
+		return GalacticSymbolRegistry.of(galacticCurrenciesMasterList)
+				.resolveGalacticCurrencies(galacticCurrencyQueryComponents);
 	}
 
 	public Boolean isValidSubtraction(GalacticCurrency galacticCurrency) {
@@ -1,13 +1,11 @@
 package galaxy.merchant.model;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+import galaxy.merchant.exception.QueryErrorCode;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
@@ -26,8 +24,7 @@ public class GalacticCurrencyExpression {
 
 	public GalacticCurrencyExpression(List<GalacticCurrency> galacticCurrencies) {
 		this.galacticCurrencyExpression = ImmutableList.copyOf(galacticCurrencies);
-		validateGCExpression(galacticCurrencies);
-		galacticCurrencyExpressionValue = calculateGCExpressionValue(galacticCurrencies);
+		galacticCurrencyExpressionValue = validateAndEvaluate(galacticCurrencyExpression, true);
 
 	}
 
@@ -37,31 +34,7 @@ public class GalacticCurrencyExpression {
 	 * @return
 	 */
 	static Integer calculateGCExpressionValue(List<GalacticCurrency> galacticCurrencyExpression) {
-		final List<Integer> decimalValues = galacticCurrencyExpression.stream()
-				.mapToInt(GalacticCurrency::getRomanValue).boxed().collect(Collectors.toList());
-		final List<Integer> additionsList = Lists.newArrayList();
-		for (int currentIndex = 0; currentIndex < decimalValues.size();) {
-			Integer currentValue = decimalValues.get(currentIndex);
-			Integer nextValue = hasReachedEndOfExpression(decimalValues, currentIndex) ? 0
-					: decimalValues.get(currentIndex + 1);
-			if (currentValue >= nextValue) {
-				additionsList.add(currentValue);
-				currentIndex++;
-			} else {
-				additionsList.add(nextValue - currentValue);
-				currentIndex = currentIndex + 2;
-			}
-		}
-		return additionsList.stream().mapToInt(value -> value.intValue()).sum();
-	}
-
-	/**
-	 * @param decimalValues
-	 * @param currentIndex
-	 * @return
-	 */
-	private static boolean hasReachedEndOfExpression(List<Integer> decimalValues, int currentIndex) {
-		return currentIndex + 1 >= decimalValues.size();
+		return validateAndEvaluate(galacticCurrencyExpression, false);
 	}
 
 	/**
@@ -69,70 +42,109 @@ public class GalacticCurrencyExpression {
 	 * @throws InvalidGalacticCurrencyExpressionException
 	 */
 	static void validateGCExpression(List<GalacticCurrency> galacticCurrencyExpression) {
-		validateRepetition(galacticCurrencyExpression);
-		subtractionRule(galacticCurrencyExpression);
-	}
-
-	static void validateRepetition(List<GalacticCurrency> galacticCurrencyExpression) {
-		validateOnlyRepeatableCurrenciesAreRepeated(galacticCurrencyExpression);
-		validateCurrenciesConsecutiveRepetition(galacticCurrencyExpression);
-
+		validateAndEvaluate(galacticCurrencyExpression, true);
 	}
 
 	/**
+	 * Validates the expression and calculates its value with the precomputed
+	 * {@link NumeralTable}, falling back to the rules for expressions the table
+	 * does not cover.
 	 * @param galacticCurrencyExpression
+	 * @param validate false to only calculate the value
+	 * @return the value of the expression
+	 * @throws InvalidGalacticCurrencyExpressionException
 	 */
-	private static void validateCurrenciesConsecutiveRepetition(List<GalacticCurrency> galacticCurrencyExpression) {
-		for (int currentIndex = 0; currentIndex < galacticCurrencyExpression.size(); currentIndex++) {
-			GalacticCurrency candidateGalacticCurrency = galacticCurrencyExpression.get(currentIndex);
-			int endIndexToCheckRepeatLimit = currentIndex + LEGAL_REPETITION_LIMIT + 1;
-			endIndexToCheckRepeatLimit = endIndexToCheckRepeatLimit > galacticCurrencyExpression.size()
-					? galacticCurrencyExpression.size()
-					: endIndexToCheckRepeatLimit;
-			final List<GalacticCurrency> currenciesImmediatelyFollowingCurrentCurrency = galacticCurrencyExpression
-					.subList(currentIndex + 1, endIndexToCheckRepeatLimit);
-			if (LEGAL_REPETITION_LIMIT > currenciesImmediatelyFollowingCurrentCurrency.size()) {
-				break;
-			}
-
-			final boolean isRepeatLimitExceeded = currenciesImmediatelyFollowingCurrentCurrency.stream()
-					.allMatch(galacticCurrency -> galacticCurrency.equals(candidateGalacticCurrency));
-			if (isRepeatLimitExceeded)
-				throw new InvalidGalacticCurrencyExpressionException(
-						"Invalid Currency Format - Repetition beyond permitted");
+	static int validateAndEvaluate(List<GalacticCurrency> galacticCurrencyExpression, boolean validate) {
+		final int expressionValue = NumeralTable.standard().validateAndEvaluate(galacticCurrencyExpression, validate);
+		if (expressionValue != NumeralTable.NOT_TABULATED) {
+			return expressionValue;
 		}
+		return applyRules(galacticCurrencyExpression, validate);
 	}
 
 	/**
+	 * Validates the expression and calculates its value in a single left to right
+	 * pass over the primitive roman values. All the rule violations are collected
+	 * during the pass and reported in the order the rules are documented: non
+	 * repeatable currencies repeated, repetition beyond the legal limit and
+	 * invalid subtraction.
+	 * <p>
+	 * Repetitions are detected on the Galactic Currency rather than on its value
+	 * as two currencies may be defined for the same roman numeral.
 	 * @param galacticCurrencyExpression
+	 * @param validate false to only calculate the value
+	 * @return the value of the expression
+	 * @throws InvalidGalacticCurrencyExpressionException
 	 */
-	private static void validateOnlyRepeatableCurrenciesAreRepeated(List<GalacticCurrency> galacticCurrencyExpression) {
-		for (GalacticCurrency galacticCurrency : galacticCurrencyExpression) {
-			final int frequency = Collections.frequency(galacticCurrencyExpression, galacticCurrency);
-			if (!galacticCurrency.isRepeatable()) {
-				if (frequency > 1)
-					throw new InvalidGalacticCurrencyExpressionException(
-							"Invalid Currency Format - Repetition not permitted");
+	static int applyRules(List<GalacticCurrency> galacticCurrencyExpression, boolean validate) {
+		final int size = galacticCurrencyExpression.size();
+		GalacticCurrency[] nonRepeatableCurrencies = null;
+		int nonRepeatableCount = 0;
+		boolean repetitionNotPermitted = false;
+		boolean repetitionBeyondPermitted = false;
+		boolean invalidSubtraction = false;
+
+		int expressionValue = 0;
+		boolean subtracted = false;
+		int consecutiveRepetitions = 0;
+		GalacticCurrency previous = null;
+		GalacticCurrency current = size > 0 ? galacticCurrencyExpression.get(0) : null;
+		int currentValue = size > 0 ? current.getRomanValue() : 0;
+		for (int currentIndex = 0; currentIndex < size; currentIndex++) {
+			final GalacticCurrency next = currentIndex + 1 < size ? galacticCurrencyExpression.get(currentIndex + 1)
+					: null;
+			final int nextValue = next == null ? 0 : next.getRomanValue();
+
+			if (validate) {
+				if (!current.isRepeatable()) {
+					for (int i = 0; i < nonRepeatableCount && !repetitionNotPermitted; i++) {
+						repetitionNotPermitted = nonRepeatableCurrencies[i].equals(current);
+					}
+					if (nonRepeatableCurrencies == null) {
+						nonRepeatableCurrencies = new GalacticCurrency[size];
+					}
+					nonRepeatableCurrencies[nonRepeatableCount++] = current;
+				}
+				consecutiveRepetitions = current.equals(previous) ? consecutiveRepetitions + 1 : 1;
+				repetitionBeyondPermitted |= consecutiveRepetitions > LEGAL_REPETITION_LIMIT;
+				invalidSubtraction |= currentValue < nextValue && !current.isValidSubtraction(next);
+			}
+
+			// a smaller value followed by a larger one is subtracted from it, the pair
+			// counts as one
+			if (subtracted) {
+				subtracted = false;
+			} else if (currentValue >= nextValue) {
+				expressionValue += currentValue;
+			} else {
+				expressionValue += nextValue - currentValue;
+				subtracted = true;
 			}
+
+			previous = current;
+			current = next;
+			currentValue = nextValue;
 		}
+
+		checkViolations(repetitionNotPermitted, repetitionBeyondPermitted, invalidSubtraction);
+		return expressionValue;
 	}
 
 	/**
-	 * @param galacticCurrencyExpression
+	 * Reports the first violated rule in the documented order
+	 * @param repetitionNotPermitted
+	 * @param repetitionBeyondPermitted
+	 * @param invalidSubtraction
+	 * @throws InvalidGalacticCurrencyExpressionException
 	 */
-	static void subtractionRule(List<GalacticCurrency> galacticCurrencyExpression) {
-		for (int i = 0; i < galacticCurrencyExpression.size() - 1; i++) {
-			GalacticCurrency currentGalacticCurrencyInExpression = galacticCurrencyExpression.get(i);
-			GalacticCurrency nextGalacticCurrencyInExpression = galacticCurrencyExpression.get(i + 1);
-			if (currentGalacticCurrencyInExpression.getRomanValue() < nextGalacticCurrencyInExpression
-					.getRomanValue()) {
-				final Boolean validSubtraction = currentGalacticCurrencyInExpression
-						.isValidSubtraction(nextGalacticCurrencyInExpression);
-				if (!validSubtraction)
-					throw new InvalidGalacticCurrencyExpressionException(
-							"Invalid Currency Format - character Sequence invalid for substraction");
-			}
-		}
+	static void checkViolations(boolean repetitionNotPermitted, boolean repetitionBeyondPermitted,
+			boolean invalidSubtraction) {
+		if (repetitionNotPermitted)
+			throw InvalidGalacticCurrencyExpressionException.of(QueryErrorCode.REPETITION_NOT_PERMITTED);
+		if (repetitionBeyondPermitted)
+			throw InvalidGalacticCurrencyExpressionException.of(QueryErrorCode.REPETITION_BEYOND_PERMITTED);
+		if (invalidSubtraction)
+			throw InvalidGalacticCurrencyExpressionException.of(QueryErrorCode.INVALID_SUBTRACTION);
 	}
 
 	public List<GalacticCurrency> getGalacticCurrencyExpression() {
@@ -0,0 +1,225 @@
+package galaxy.merchant.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import com.google.common.collect.ImmutableList;
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+import galaxy.merchant.exception.QueryErrorCode;
+
+/**
+ * Per-digit table of the canonical Galactic Currency expressions of values.
+ * Every decimal digit of a value maps to at most four roman numerals (Ex: 4 is
+ * IV, 40 is XL), which are rendered with the first Galactic Currency defined
+ * for them, so a value is converted with one lookup per digit.
+ * <p>
+ * Only values whose canonical numerals pass the rules of the
+ * {@link NumeralTable} are expressible. The standard numerals do not repeat M,
+ * which makes 1899 the largest expressible value.
+ *
+ * @author kommineni
+ *
+ */
+public final class GalacticExpressionTable {
+
+	private static final int PLACES = 4;
+	private static final int DIGITS = 10;
+	private static final int MAX_TABULATED_VALUE = 3999;
+
+	// numerals of every digit by decimal place, units first, null if the
+	// standard numerals have no canonical form for the digit
+	private static final List<List<RomanNumeral>> ROMAN_DIGITS = romanDigits(
+			NumeralTable.standardRomanSymbols());
+	private static final BitSet EXPRESSIBLE_VALUES = expressibleValues();
+
+	// currencies of every digit by decimal place, units first, null if a numeral
+	// of the digit has no currency
+	private final List<List<GalacticCurrency>> digitExpressions;
+
+	/**
+	 * @param galacticCurrencies in definition order, the first currency of a
+	 *                           numeral is used
+	 */
+	GalacticExpressionTable(List<GalacticCurrency> galacticCurrencies) {
+		digitExpressions = new ArrayList<List<GalacticCurrency>>(PLACES * DIGITS);
+		for (List<RomanNumeral> romanDigit : ROMAN_DIGITS) {
+			digitExpressions.add(romanDigit == null ? null : currenciesOf(romanDigit, galacticCurrencies));
+		}
+	}
+
+	/**
+	 * @return the largest value with a canonical expression
+	 */
+	public static int maxValue() {
+		return EXPRESSIBLE_VALUES.length() - 1;
+	}
+
+	/**
+	 * @param value
+	 * @return null if the value has an expression, the reason otherwise
+	 */
+	public QueryErrorCode check(long value) {
+		if (value < 1 || value > MAX_TABULATED_VALUE || !EXPRESSIBLE_VALUES.get((int) value)) {
+			return QueryErrorCode.VALUE_OUT_OF_RANGE;
+		}
+		for (int remaining = (int) value, place = 0; remaining > 0; remaining /= 10, place++) {
+			if (digitExpressions.get(place * DIGITS + remaining % 10) == null) {
+				return QueryErrorCode.NO_CURRENCY_FOR_NUMERAL;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param value
+	 * @return the Galactic Currencies of the canonical expression of the value
+	 * @throws InvalidGalacticCurrencyConvesionQueryException if the value has no
+	 *                                                        expression
+	 */
+	public List<GalacticCurrency> toGalacticCurrencies(long value) {
+		final QueryErrorCode errorCode = check(value);
+		if (errorCode != null) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(errorCode);
+		}
+		return digits(digitExpressions, (int) value);
+	}
+
+	/**
+	 * @param output
+	 * @param value
+	 * @return the output with the symbols of the canonical expression appended,
+	 *         separated by spaces
+	 * @throws InvalidGalacticCurrencyConvesionQueryException if the value has no
+	 *                                                        expression
+	 */
+	public StringBuilder appendExpression(StringBuilder output, long value) {
+		final int start = output.length();
+		for (GalacticCurrency galacticCurrency : toGalacticCurrencies(value)) {
+			if (output.length() > start) {
+				output.append(' ');
+			}
+			output.append(galacticCurrency.getSymbol());
+		}
+		return output;
+	}
+
+	/**
+	 * @param table digit table by decimal place, units first
+	 * @param value
+	 * @return the entries of the digits of the value, most significant first
+	 */
+	private static <T> List<T> digits(List<List<T>> table, int value) {
+		final List<T> entries = new ArrayList<T>(PLACES * 4);
+		for (int place = PLACES - 1, divisor = 1000; place >= 0; place--, divisor /= 10) {
+			entries.addAll(table.get(place * DIGITS + value / divisor % 10));
+		}
+		return entries;
+	}
+
+	/**
+	 * @param romanSymbols numerals whose values are 1, 5, 10, ... 1000
+	 * @return the canonical numerals of every digit by decimal place
+	 */
+	private static List<List<RomanNumeral>> romanDigits(List<RomanNumeral> romanSymbols) {
+		final List<List<RomanNumeral>> romanDigits = new ArrayList<List<RomanNumeral>>(PLACES * DIGITS);
+		int one = 1;
+		for (int place = 0; place < PLACES; place++, one *= 10) {
+			final RomanNumeral unit = numeralOf(one, romanSymbols);
+			final RomanNumeral five = numeralOf(5 * one, romanSymbols);
+			final RomanNumeral ten = numeralOf(10 * one, romanSymbols);
+			for (int digit = 0; digit < DIGITS; digit++) {
+				romanDigits.add(romanDigit(digit, unit, five, ten));
+			}
+		}
+		return romanDigits;
+	}
+
+	/**
+	 * @param digit
+	 * @param unit  numeral of the value 1 of the place
+	 * @param five  numeral of the value 5 of the place
+	 * @param ten   numeral of the value 1 of the next place
+	 * @return the numerals of the digit, null if one of them is missing
+	 */
+	private static List<RomanNumeral> romanDigit(int digit, RomanNumeral unit, RomanNumeral five,
+			RomanNumeral ten) {
+		final List<RomanNumeral> numerals = new ArrayList<RomanNumeral>(4);
+		if (digit == 4 || digit == 9) {
+			numerals.add(unit);
+			numerals.add(digit == 4 ? five : ten);
+		} else {
+			if (digit >= 5) {
+				numerals.add(five);
+			}
+			for (int repetition = 0; repetition < digit % 5; repetition++) {
+				numerals.add(unit);
+			}
+		}
+		return numerals.contains(null) ? null : ImmutableList.copyOf(numerals);
+	}
+
+	/**
+	 * Validates the canonical numerals of every tabulated value with the rules of
+	 * the standard {@link NumeralTable}
+	 * @return the values with a valid canonical expression
+	 */
+	private static BitSet expressibleValues() {
+		final List<List<GalacticCurrency>> numeralCurrencies = new ArrayList<List<GalacticCurrency>>(
+				ROMAN_DIGITS.size());
+		for (List<RomanNumeral> romanDigit : ROMAN_DIGITS) {
+			final List<GalacticCurrency> currencies = new ArrayList<GalacticCurrency>();
+			if (romanDigit != null) {
+				for (RomanNumeral romanNumeral : romanDigit) {
+					currencies.add(new GalacticCurrency(romanNumeral.getSymbol().toString(), romanNumeral));
+				}
+			}
+			numeralCurrencies.add(romanDigit == null ? null : currencies);
+		}
+		final BitSet expressibleValues = new BitSet(MAX_TABULATED_VALUE + 1);
+		values: for (int value = 1; value <= MAX_TABULATED_VALUE; value++) {
+			for (int remaining = value, place = 0; remaining > 0; remaining /= 10, place++) {
+				if (numeralCurrencies.get(place * DIGITS + remaining % 10) == null) {
+					continue values;
+				}
+			}
+			try {
+				if (NumeralTable.standard().validateAndEvaluate(digits(numeralCurrencies, value), true) == value) {
+					expressibleValues.set(value);
+				}
+			} catch (InvalidGalacticCurrencyExpressionException invalidNumerals) {
+				// the canonical numerals break a rule, the value is not expressible
+			}
+		}
+		return expressibleValues;
+	}
+
+	private static RomanNumeral numeralOf(int numeralValue, List<RomanNumeral> romanSymbols) {
+		for (RomanNumeral romanNumeral : romanSymbols) {
+			if (romanNumeral.getValue() == numeralValue) {
+				return romanNumeral;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param romanDigit
+	 * @param galacticCurrencies
+	 * @return the first currency of every numeral, null if a numeral has none
+	 */
+	private static List<GalacticCurrency> currenciesOf(List<RomanNumeral> romanDigit,
+			List<GalacticCurrency> galacticCurrencies) {
+		final List<GalacticCurrency> currencies = new ArrayList<GalacticCurrency>(romanDigit.size());
+		numerals: for (RomanNumeral romanNumeral : romanDigit) {
+			for (GalacticCurrency galacticCurrency : galacticCurrencies) {
+				if (romanNumeral.equals(galacticCurrency.getRomanNumeral())) {
+					currencies.add(galacticCurrency);
+					continue numerals;
+				}
+			}
+			return null;
+		}
+		return ImmutableList.copyOf(currencies);
+	}
+}
@@ -0,0 +1,293 @@
+package galaxy.merchant.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.ToString;
+
+/**
+ * Symbol table of the Galactic Currencies and Common Metals known in a
+ * conversion run. Symbols are hash indexed so resolving a token is O(1)
+ * regardless of the number of definitions. The first registration of a symbol
+ * wins, later registrations are ignored; the put methods replace a definition
+ * instead. Provisional definitions, such as the ones restored from a
+ * {@link DefinitionSnapshot}, are replaced by the next registration of their
+ * symbol.
+ * 
+ * @author kommineni
+ *
+ */
+@ToString
+public class GalacticSymbolRegistry {
+
+	// versions are unique across registries, only a snapshot shares the version
+	// of its source
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	private final SymbolIndex<GalacticCurrency> galacticCurrencies;
+	private final SymbolIndex<CommonMetal> metals;
+	private final boolean frozen;
+	private long version;
+	// symbols and metal names whose definition the next registration replaces
+	private final Set<String> provisionalCurrencies;
+	private final Set<String> provisionalMetals;
+	// built on first use, dropped when a currency is registered
+	@ToString.Exclude
+	private volatile GalacticExpressionTable expressionTable;
+
+	public GalacticSymbolRegistry() {
+		this.galacticCurrencies = new SymbolIndex<GalacticCurrency>();
+		this.metals = new SymbolIndex<CommonMetal>();
+		this.frozen = false;
+		this.version = VERSIONS.incrementAndGet();
+		this.provisionalCurrencies = new HashSet<String>();
+		this.provisionalMetals = new HashSet<String>();
+	}
+
+	/**
+	 * @param source registry to copy
+	 * @param frozen true if the copy does not accept definitions
+	 */
+	private GalacticSymbolRegistry(GalacticSymbolRegistry source, boolean frozen) {
+		this.galacticCurrencies = new SymbolIndex<GalacticCurrency>(source.galacticCurrencies);
+		this.metals = new SymbolIndex<CommonMetal>(source.metals);
+		this.frozen = frozen;
+		this.version = source.version;
+		this.provisionalCurrencies = new HashSet<String>(source.provisionalCurrencies);
+		this.provisionalMetals = new HashSet<String>(source.provisionalMetals);
+	}
+
+	/**
+	 * @param galacticCurrencies
+	 * @param metals
+	 */
+	public GalacticSymbolRegistry(Collection<GalacticCurrency> galacticCurrencies, Collection<CommonMetal> metals) {
+		this();
+		galacticCurrencies.forEach(this::registerGalacticCurrency);
+		metals.forEach(this::registerMetal);
+	}
+
+	/**
+	 * @param galacticCurrencies
+	 * @return
+	 */
+	public static GalacticSymbolRegistry of(Collection<GalacticCurrency> galacticCurrencies) {
+		return new GalacticSymbolRegistry(galacticCurrencies, Collections.emptyList());
+	}
+
+	/**
+	 * @param galacticCurrency
+	 * @return true if the symbol was not known before or its definition was
+	 *         provisional
+	 */
+	public boolean registerGalacticCurrency(GalacticCurrency galacticCurrency) {
+		checkNotFrozen();
+		if (provisionalCurrencies.contains(galacticCurrency.getSymbol())) {
+			putGalacticCurrency(galacticCurrency);
+			return true;
+		}
+		final boolean registered = galacticCurrencies.putIfAbsent(galacticCurrency.getSymbol(),
+				galacticCurrency) == null;
+		if (registered) {
+			version = VERSIONS.incrementAndGet();
+			expressionTable = null;
+		}
+		return registered;
+	}
+
+	/**
+	 * @param metal
+	 * @return true if the metal was not known before or its definition was
+	 *         provisional
+	 */
+	public boolean registerMetal(CommonMetal metal) {
+		checkNotFrozen();
+		if (provisionalMetals.contains(metal.getMetalName())) {
+			putMetal(metal);
+			return true;
+		}
+		final boolean registered = metals.putIfAbsent(metal.getMetalName(), metal) == null;
+		if (registered) {
+			version = VERSIONS.incrementAndGet();
+		}
+		return registered;
+	}
+
+	/**
+	 * Registers or redefines the Galactic Currency of a symbol
+	 * @param galacticCurrency
+	 * @return the currency replaced, null if the symbol was not known before
+	 */
+	public GalacticCurrency putGalacticCurrency(GalacticCurrency galacticCurrency) {
+		checkNotFrozen();
+		provisionalCurrencies.remove(galacticCurrency.getSymbol());
+		final GalacticCurrency previous = galacticCurrencies.put(galacticCurrency.getSymbol(), galacticCurrency);
+		if (!galacticCurrency.equals(previous)) {
+			version = VERSIONS.incrementAndGet();
+			expressionTable = null;
+		}
+		return previous;
+	}
+
+	/**
+	 * Registers or redefines a metal
+	 * @param metal
+	 * @return the metal replaced, null if the metal was not known before
+	 */
+	public CommonMetal putMetal(CommonMetal metal) {
+		checkNotFrozen();
+		provisionalMetals.remove(metal.getMetalName());
+		final CommonMetal previous = metals.put(metal.getMetalName(), metal);
+		if (!metal.equals(previous)) {
+			version = VERSIONS.incrementAndGet();
+		}
+		return previous;
+	}
+
+	/**
+	 * Marks every definition known now as provisional, the next registration of
+	 * its symbol replaces it instead of being ignored
+	 */
+	public void markProvisional() {
+		checkNotFrozen();
+		for (GalacticCurrency galacticCurrency : getGalacticCurrencies()) {
+			provisionalCurrencies.add(galacticCurrency.getSymbol());
+		}
+		for (CommonMetal metal : getMetals()) {
+			provisionalMetals.add(metal.getMetalName());
+		}
+	}
+
+	/**
+	 * @return a writable copy of the definitions, changing it leaves this
+	 *         registry unchanged
+	 */
+	public GalacticSymbolRegistry copy() {
+		return new GalacticSymbolRegistry(this, false);
+	}
+
+	/**
+	 * @return an immutable copy of the definitions that can be shared between
+	 *         threads, the registry itself if it is already frozen
+	 */
+	public GalacticSymbolRegistry snapshot() {
+		return frozen ? this : new GalacticSymbolRegistry(this, true);
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * @return identifies the definitions of the registry, changes whenever a
+	 *         definition is added. A snapshot has the version of its source.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("Definitions of a snapshot can not be changed");
+		}
+	}
+
+	public Optional<GalacticCurrency> findGalacticCurrency(String symbol) {
+		return Optional.ofNullable(galacticCurrencies.get(symbol));
+	}
+
+	public Optional<CommonMetal> findMetal(String metalName) {
+		return Optional.ofNullable(metals.get(metalName));
+	}
+
+	/**
+	 * Looks up the Galactic Currency for a region of a line without copying it.
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return the Galactic Currency, null if the symbol is unknown
+	 */
+	public GalacticCurrency lookupGalacticCurrency(CharSequence text, int start, int end) {
+		return galacticCurrencies.get(text, start, end);
+	}
+
+	/**
+	 * Looks up the Common Metal for a region of a line without copying it.
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return the Common Metal, null if the metal is unknown
+	 */
+	public CommonMetal lookupMetal(CharSequence text, int start, int end) {
+		return metals.get(text, start, end);
+	}
+
+	/**
+	 * Resolves the tokens to Galactic Currencies, tokens that are not a known
+	 * Galactic Currency symbol are skipped.
+	 * @param galacticCurrencyQueryComponents
+	 * @return
+	 */
+	public List<GalacticCurrency> resolveGalacticCurrencies(List<String> galacticCurrencyQueryComponents) {
+		final List<GalacticCurrency> galacticCurrenciesInQuery = new ArrayList<GalacticCurrency>(
+				galacticCurrencyQueryComponents.size());
+		for (String gcComponent : galacticCurrencyQueryComponents) {
+			final GalacticCurrency galacticCurrency = galacticCurrencies.get(gcComponent);
+			if (galacticCurrency != null) {
+				galacticCurrenciesInQuery.add(galacticCurrency);
+			}
+		}
+		return galacticCurrenciesInQuery;
+	}
+
+	/**
+	 * Resolves the space separated tokens in a region of a line to Galactic
+	 * Currencies, tokens that are not a known Galactic Currency symbol are skipped.
+	 * @param line
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public List<GalacticCurrency> resolveGalacticCurrencies(CharSequence line, int start, int end) {
+		final List<GalacticCurrency> galacticCurrenciesInQuery = new ArrayList<GalacticCurrency>();
+		int tokenStart = start;
+		for (int position = start; position <= end; position++) {
+			if (position == end || line.charAt(position) == ' ') {
+				if (position > tokenStart) {
+					final GalacticCurrency galacticCurrency = galacticCurrencies.get(line, tokenStart, position);
+					if (galacticCurrency != null) {
+						galacticCurrenciesInQuery.add(galacticCurrency);
+					}
+				}
+				tokenStart = position + 1;
+			}
+		}
+		return galacticCurrenciesInQuery;
+	}
+
+	/**
+	 * @return table rendering values with the currencies of the registry, the
+	 *         first currency defined for a numeral is used
+	 */
+	public GalacticExpressionTable getExpressionTable() {
+		GalacticExpressionTable table = expressionTable;
+		if (table == null) {
+			table = new GalacticExpressionTable(galacticCurrencies.values());
+			expressionTable = table;
+		}
+		return table;
+	}
+
+	public List<GalacticCurrency> getGalacticCurrencies() {
+		return galacticCurrencies.values();
+	}
+
+	public List<CommonMetal> getMetals() {
+		return metals.values();
+	}
+}
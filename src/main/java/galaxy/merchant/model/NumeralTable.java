@@ -0,0 +1,302 @@
+package galaxy.merchant.model;
+
+import java.util.Arrays;
+import java.util.List;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Precomputed validation and evaluation of Galactic Currency expressions.
+ * <p>
+ * The repetition and subtraction rules of the roman numerals only depend on
+ * the previous symbol, whether it is still waiting to be added, the length of
+ * the current run of repetitions and the non repeatable symbols used so far.
+ * The table holds the transitions between these states for every symbol, built
+ * once from the rules of the {@link RomanNumeral}s. It is the automaton
+ * accepting every valid numeral, an expression is validated and evaluated with
+ * one lookup per currency.
+ * <p>
+ * Repetitions are defined on the Galactic Currency, not on its numeral, so an
+ * expression in which two currencies stand for the same numeral is not
+ * covered by the table.
+ *
+ * @author kommineni
+ *
+ */
+public final class NumeralTable {
+
+	/**
+	 * Result of {@link #validateAndEvaluate(List, boolean)} for expressions the
+	 * table does not cover
+	 */
+	static final int NOT_TABULATED = -1;
+
+	static final int REPETITION_NOT_PERMITTED = 1;
+	static final int REPETITION_BEYOND_PERMITTED = 1 << 1;
+	static final int INVALID_SUBTRACTION = 1 << 2;
+
+	private static final int MAX_STATES = 1 << 12;
+	private static final int ERROR_SHIFT = 12;
+	private static final int STATE_MASK = MAX_STATES - 1;
+	private static final int VALUE_SHIFT = 16;
+	private static final int ERROR_MASK = REPETITION_NOT_PERMITTED | REPETITION_BEYOND_PERMITTED
+			| INVALID_SUBTRACTION;
+
+	private static final List<RomanNumeral> STANDARD_ROMAN_SYMBOLS = createRomanSymbols();
+
+	private final List<RomanNumeral> romanSymbols;
+	private final int symbolCount;
+	private final int nonRepeatableCount;
+	// (previous symbol + 1, pending, run length, non repeatable symbols used)
+	// packed into the state index
+	private final int[] transitions;
+	private final int[] pendingValues;
+	// position in the table by the symbol character, -1 if it is not known
+	private final int[] symbolIndex;
+
+	/**
+	 * @param romanSymbols numerals the table is built for
+	 * @throws IllegalArgumentException if the states do not fit in the table
+	 */
+	NumeralTable(List<RomanNumeral> romanSymbols) {
+		this.romanSymbols = ImmutableList.copyOf(romanSymbols);
+		this.symbolCount = romanSymbols.size();
+		int nonRepeatable = 0;
+		for (RomanNumeral romanNumeral : romanSymbols) {
+			if (!romanNumeral.getIsRepeatable()) {
+				nonRepeatable++;
+			}
+		}
+		this.nonRepeatableCount = nonRepeatable;
+		final int stateCount = state(symbolCount - 1, true, GalacticCurrencyExpression.LEGAL_REPETITION_LIMIT,
+				(1 << nonRepeatableCount) - 1) + 1;
+		Preconditions.checkArgument(stateCount <= MAX_STATES && symbolCount <= Long.SIZE,
+				"Too many roman symbols for a numeral table");
+		this.transitions = new int[stateCount * symbolCount];
+		this.pendingValues = new int[stateCount];
+		this.symbolIndex = buildSymbolIndex(this.romanSymbols);
+		buildTransitions();
+	}
+
+	/**
+	 * @return the table of the roman numerals I, V, X, L, C, D and M, built on
+	 *         first use
+	 */
+	public static NumeralTable standard() {
+		return Standard.TABLE;
+	}
+
+	/**
+	 * @return the roman numerals I, V, X, L, C, D and M, without building their
+	 *         table
+	 */
+	public static List<RomanNumeral> standardRomanSymbols() {
+		return STANDARD_ROMAN_SYMBOLS;
+	}
+
+	public List<RomanNumeral> getRomanSymbols() {
+		return romanSymbols;
+	}
+
+	/**
+	 * @param galacticCurrencyExpression
+	 * @param validate false to only calculate the value
+	 * @return the value of the expression, {@link #NOT_TABULATED} if a currency
+	 *         is not one of the numerals of the table or two currencies stand for
+	 *         the same numeral
+	 * @throws InvalidGalacticCurrencyExpressionException
+	 */
+	int validateAndEvaluate(List<GalacticCurrency> galacticCurrencyExpression, boolean validate) {
+		final int size = galacticCurrencyExpression.size();
+		// symbols of the table used so far
+		long usedSymbols = 0;
+		int state = initialState();
+		int errors = 0;
+		int expressionValue = 0;
+		for (int index = 0; index < size; index++) {
+			final GalacticCurrency galacticCurrency = galacticCurrencyExpression.get(index);
+			final int symbol = symbolOf(galacticCurrency.getRomanNumeral());
+			if (symbol < 0) {
+				return NOT_TABULATED;
+			}
+			final long symbolBit = 1L << symbol;
+			if ((usedSymbols & symbolBit) == 0) {
+				usedSymbols |= symbolBit;
+			} else {
+				final GalacticCurrency knownCurrency = lastCurrencyOf(galacticCurrencyExpression, index, symbol);
+				if (knownCurrency != galacticCurrency && !knownCurrency.equals(galacticCurrency)) {
+					return NOT_TABULATED;
+				}
+			}
+			final int transition = transitions[state * symbolCount + symbol];
+			state = transition & STATE_MASK;
+			errors |= (transition >>> ERROR_SHIFT) & ERROR_MASK;
+			expressionValue += transition >>> VALUE_SHIFT;
+		}
+		if (validate) {
+			GalacticCurrencyExpression.checkViolations((errors & REPETITION_NOT_PERMITTED) != 0,
+					(errors & REPETITION_BEYOND_PERMITTED) != 0, (errors & INVALID_SUBTRACTION) != 0);
+		}
+		return expressionValue + pendingValues[state];
+	}
+
+	/**
+	 * @param romanNumeral
+	 * @return position of the numeral in the table, -1 if it is not known
+	 */
+	private int symbolOf(RomanNumeral romanNumeral) {
+		final char character = romanNumeral.getSymbol();
+		final int symbol = character < symbolIndex.length ? symbolIndex[character] : -1;
+		if (symbol < 0) {
+			return -1;
+		}
+		final RomanNumeral tableNumeral = romanSymbols.get(symbol);
+		return tableNumeral == romanNumeral || tableNumeral.equals(romanNumeral) ? symbol : -1;
+	}
+
+	/**
+	 * The earlier currencies of the symbol were already found to be the same, so
+	 * the nearest one stands for all of them
+	 * @param galacticCurrencyExpression
+	 * @param index                      position of the repeated symbol
+	 * @param symbol                     used before the position
+	 * @return the nearest currency of the symbol before the position
+	 */
+	private GalacticCurrency lastCurrencyOf(List<GalacticCurrency> galacticCurrencyExpression, int index,
+			int symbol) {
+		int previous = index - 1;
+		while (symbolOf(galacticCurrencyExpression.get(previous).getRomanNumeral()) != symbol) {
+			previous--;
+		}
+		return galacticCurrencyExpression.get(previous);
+	}
+
+	/**
+	 * @param romanSymbols
+	 * @return positions of the numerals by their symbol character, the first
+	 *         numeral of a character wins
+	 */
+	private static int[] buildSymbolIndex(List<RomanNumeral> romanSymbols) {
+		char maxCharacter = 0;
+		for (RomanNumeral romanNumeral : romanSymbols) {
+			maxCharacter = (char) Math.max(maxCharacter, romanNumeral.getSymbol());
+		}
+		final int[] symbolIndex = new int[maxCharacter + 1];
+		Arrays.fill(symbolIndex, -1);
+		for (int symbol = romanSymbols.size() - 1; symbol >= 0; symbol--) {
+			symbolIndex[romanSymbols.get(symbol).getSymbol()] = symbol;
+		}
+		return symbolIndex;
+	}
+
+	private void buildTransitions() {
+		for (int previous = -1; previous < symbolCount; previous++) {
+			// only a previous symbol can be pending
+			for (int pending = 0; pending < (previous < 0 ? 1 : 2); pending++) {
+				for (int run = 0; run <= GalacticCurrencyExpression.LEGAL_REPETITION_LIMIT; run++) {
+					for (int used = 0; used < 1 << nonRepeatableCount; used++) {
+						final int state = state(previous, pending == 1, run, used);
+						pendingValues[state] = pending == 1 ? romanSymbols.get(previous).getValue() : 0;
+						for (int symbol = 0; symbol < symbolCount; symbol++) {
+							transitions[state * symbolCount + symbol] = transition(previous, pending == 1, run, used,
+									symbol);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the rules of {@link GalacticCurrencyExpression} to the next symbol
+	 * of an expression
+	 * @return the next state, the violations and the value added, packed
+	 */
+	private int transition(int previous, boolean pending, int run, int used, int symbol) {
+		final RomanNumeral current = romanSymbols.get(symbol);
+		final RomanNumeral previousNumeral = previous < 0 ? null : romanSymbols.get(previous);
+		int errors = 0;
+
+		int nextUsed = used;
+		if (!current.getIsRepeatable()) {
+			final int usedBit = 1 << nonRepeatableIndex(symbol);
+			if ((used & usedBit) != 0) {
+				errors |= REPETITION_NOT_PERMITTED;
+			}
+			nextUsed |= usedBit;
+		}
+
+		int nextRun = previous == symbol ? run + 1 : 1;
+		if (nextRun > GalacticCurrencyExpression.LEGAL_REPETITION_LIMIT) {
+			errors |= REPETITION_BEYOND_PERMITTED;
+			nextRun = GalacticCurrencyExpression.LEGAL_REPETITION_LIMIT;
+		}
+
+		if (previousNumeral != null && previousNumeral.getValue() < current.getValue()
+				&& !(previousNumeral.getIsSubtractable() && previousNumeral.getSubtractableFrom().contains(current))) {
+			errors |= INVALID_SUBTRACTION;
+		}
+
+		// a smaller value followed by a larger one is subtracted from it, the pair
+		// counts as one
+		final int addedValue;
+		final boolean nextPending;
+		if (!pending) {
+			addedValue = 0;
+			nextPending = true;
+		} else if (previousNumeral.getValue() >= current.getValue()) {
+			addedValue = previousNumeral.getValue();
+			nextPending = true;
+		} else {
+			addedValue = current.getValue() - previousNumeral.getValue();
+			nextPending = false;
+		}
+		return state(symbol, nextPending, nextRun, nextUsed) | errors << ERROR_SHIFT | addedValue << VALUE_SHIFT;
+	}
+
+	private int nonRepeatableIndex(int symbol) {
+		int index = 0;
+		for (int other = 0; other < symbol; other++) {
+			if (!romanSymbols.get(other).getIsRepeatable()) {
+				index++;
+			}
+		}
+		return index;
+	}
+
+	private int initialState() {
+		return state(-1, false, 0, 0);
+	}
+
+	private int state(int previous, boolean pending, int run, int used) {
+		return (((previous + 1) * 2 + (pending ? 1 : 0)) * (GalacticCurrencyExpression.LEGAL_REPETITION_LIMIT + 1)
+				+ run) * (1 << nonRepeatableCount) + used;
+	}
+
+	/**
+	 * @return the roman numerals with their repetition and subtraction rules
+	 */
+	private static List<RomanNumeral> createRomanSymbols() {
+		RomanNumeral romanSymbolThousand = RomanNumeral.standAlone('M', 1000);
+		RomanNumeral romanSymbolFiveHundred = RomanNumeral.standAlone('D', 500);
+		RomanNumeral romanSymbolFifty = RomanNumeral.standAlone('L', 50);
+		RomanNumeral romanSymbolFive = RomanNumeral.standAlone('V', 5);
+		RomanNumeral romanSymbolHundred = RomanNumeral.repeatableAndSubtractable('C',
+				Lists.newArrayList(romanSymbolFiveHundred, romanSymbolThousand), 100);
+		RomanNumeral romanSymbolTen = RomanNumeral.repeatableAndSubtractable('X',
+				Lists.newArrayList(romanSymbolFifty, romanSymbolHundred), 10);
+		RomanNumeral romanSymbolOne = RomanNumeral.repeatableAndSubtractable('I',
+				Lists.newArrayList(romanSymbolFive, romanSymbolTen), 1);
+		return ImmutableList.of(romanSymbolOne, romanSymbolFive, romanSymbolTen, romanSymbolFifty,
+				romanSymbolHundred, romanSymbolFiveHundred, romanSymbolThousand);
+	}
+
+	/**
+	 * Holder of the standard table, which is built when the first expression is
+	 * evaluated rather than when the numerals are first needed for parsing
+	 */
+	private static final class Standard {
+		private static final NumeralTable TABLE = new NumeralTable(STANDARD_ROMAN_SYMBOLS);
+	}
+}
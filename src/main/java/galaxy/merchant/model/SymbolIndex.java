@@ -0,0 +1,148 @@
+package galaxy.merchant.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Open addressing hash index from symbol to value. Besides String keys it can
+ * be probed with a region of any CharSequence, so the tokens of an input line
+ * can be looked up without copying them into Strings. Values are kept in
+ * insertion order.
+ * 
+ * @author kommineni
+ *
+ * @param <V>
+ */
+final class SymbolIndex<V> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final List<String> keys;
+	private final List<V> values;
+	// entry position + 1 for every used slot, 0 for a free slot
+	private int[] slots;
+
+	SymbolIndex() {
+		keys = new ArrayList<String>();
+		values = new ArrayList<V>();
+		slots = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * @param source index to copy
+	 */
+	SymbolIndex(SymbolIndex<V> source) {
+		keys = new ArrayList<String>(source.keys);
+		values = new ArrayList<V>(source.values);
+		slots = source.slots.clone();
+	}
+
+	V get(String key) {
+		return get(key, 0, key.length());
+	}
+
+	V get(CharSequence text, int start, int end) {
+		final int entry = findEntry(text, start, end);
+		return entry < 0 ? null : values.get(entry);
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @return the value already indexed for the key, null if the value was added
+	 */
+	V putIfAbsent(String key, V value) {
+		final int entry = findEntry(key, 0, key.length());
+		if (entry >= 0) {
+			return values.get(entry);
+		}
+		keys.add(key);
+		values.add(value);
+		if (keys.size() * 2 > slots.length) {
+			rehash(slots.length * 2);
+		} else {
+			insertSlot(key, keys.size());
+		}
+		return null;
+	}
+
+	/**
+	 * @param key
+	 * @param value replaces the value indexed for the key, which keeps its position
+	 * @return the value indexed for the key before, null if the value was added
+	 */
+	V put(String key, V value) {
+		final int entry = findEntry(key, 0, key.length());
+		if (entry >= 0) {
+			return values.set(entry, value);
+		}
+		putIfAbsent(key, value);
+		return null;
+	}
+
+	int size() {
+		return keys.size();
+	}
+
+	List<V> values() {
+		return Collections.unmodifiableList(values);
+	}
+
+	private int findEntry(CharSequence text, int start, int end) {
+		final int mask = slots.length - 1;
+		for (int slot = spread(hash(text, start, end)) & mask;; slot = (slot + 1) & mask) {
+			final int entry = slots[slot] - 1;
+			if (entry < 0) {
+				return -1;
+			}
+			final String key = keys.get(entry);
+			if (key.length() == end - start && regionMatches(key, text, start)) {
+				return entry;
+			}
+		}
+	}
+
+	private void insertSlot(String key, int entryPosition) {
+		final int mask = slots.length - 1;
+		int slot = spread(key.hashCode()) & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = entryPosition;
+	}
+
+	private void rehash(int capacity) {
+		slots = new int[capacity];
+		for (int entry = 0; entry < keys.size(); entry++) {
+			insertSlot(keys.get(entry), entry + 1);
+		}
+	}
+
+	private static boolean regionMatches(String key, CharSequence text, int start) {
+		for (int i = 0; i < key.length(); i++) {
+			if (key.charAt(i) != text.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same hash as {@link String#hashCode()} so String keys use their cached hash.
+	 */
+	private static int hash(CharSequence text, int start, int end) {
+		if (text instanceof String && start == 0 && end == text.length()) {
+			return text.hashCode();
+		}
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		return hash;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,254 @@
+package galaxy.merchant.model;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Exact price of one unit of a metal, kept as the reduced fraction of the
+ * credits paid and the units received. Credit amounts are calculated with
+ * long arithmetic and written without intermediate objects, {@link BigDecimal}
+ * is only used when a product overflows, for prices that do not fit the long
+ * fraction and for rounding amounts without a finite decimal representation.
+ *
+ * @author kommineni
+ *
+ */
+@EqualsAndHashCode
+@ToString
+public final class UnitPrice {
+
+	private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+	private static final int MAX_LONG_SCALE = 18;
+	private static final byte FRACTION = 0;
+	private static final byte DECIMAL = 1;
+
+	private final long numerator;
+	private final long denominator;
+	// exact value of prices that do not fit the long fraction, null otherwise
+	private final BigDecimal decimalValue;
+
+	private UnitPrice(long numerator, long denominator, BigDecimal decimalValue) {
+		this.numerator = numerator;
+		this.denominator = denominator;
+		this.decimalValue = decimalValue;
+	}
+
+	/**
+	 * @param credits credits paid
+	 * @param units   units received
+	 * @return
+	 * @throws ArithmeticException if no units were received
+	 */
+	public static UnitPrice of(long credits, long units) {
+		if (units == 0) {
+			throw new ArithmeticException("Division by zero");
+		}
+		if (credits == Long.MIN_VALUE || units == Long.MIN_VALUE) {
+			return new UnitPrice(0, 1,
+					divide(BigDecimal.valueOf(credits), BigDecimal.valueOf(units), CreditRounding.DEFAULT));
+		}
+		final long sign = units < 0 ? -1 : 1;
+		final long gcd = gcd(Math.abs(credits), Math.abs(units));
+		return new UnitPrice(sign * credits / gcd, sign * units / gcd, null);
+	}
+
+	/**
+	 * @param value
+	 * @return the exact price of the decimal value
+	 */
+	public static UnitPrice of(BigDecimal value) {
+		final BigDecimal stripped = value.stripTrailingZeros();
+		if (stripped.scale() < 0) {
+			final BigInteger integral = stripped.toBigIntegerExact();
+			if (integral.abs().compareTo(LONG_MAX) <= 0) {
+				return new UnitPrice(integral.longValue(), 1, null);
+			}
+		} else if (stripped.scale() <= MAX_LONG_SCALE && stripped.unscaledValue().abs().compareTo(LONG_MAX) <= 0) {
+			return of(stripped.unscaledValue().longValue(), BigInteger.TEN.pow(stripped.scale()).longValue());
+		}
+		return new UnitPrice(0, 1, value);
+	}
+
+	/**
+	 * Writes the exact price, read back with {@link #readFrom(ByteBuffer)}
+	 * @param output
+	 * @throws IOException
+	 */
+	void writeTo(DataOutput output) throws IOException {
+		if (decimalValue == null) {
+			output.writeByte(FRACTION);
+			output.writeLong(numerator);
+			output.writeLong(denominator);
+		} else {
+			final byte[] unscaledValue = decimalValue.unscaledValue().toByteArray();
+			output.writeByte(DECIMAL);
+			output.writeInt(decimalValue.scale());
+			output.writeInt(unscaledValue.length);
+			output.write(unscaledValue);
+		}
+	}
+
+	/**
+	 * @param input positioned at a price written by {@link #writeTo(DataOutput)}
+	 * @return the price
+	 * @throws IOException if the input holds no price
+	 */
+	static UnitPrice readFrom(ByteBuffer input) throws IOException {
+		final byte kind = input.get();
+		if (kind == FRACTION) {
+			return new UnitPrice(input.getLong(), input.getLong(), null);
+		}
+		if (kind != DECIMAL) {
+			throw new IOException("Unknown unit price encoding " + kind);
+		}
+		final int scale = input.getInt();
+		final byte[] unscaledValue = new byte[input.getInt()];
+		input.get(unscaledValue);
+		return new UnitPrice(0, 1, new BigDecimal(new BigInteger(unscaledValue), scale));
+	}
+
+	/**
+	 * @param rounding applied if the price has no finite decimal representation
+	 * @return the price as decimal
+	 */
+	public BigDecimal toBigDecimal(CreditRounding rounding) {
+		if (decimalValue != null) {
+			return decimalValue;
+		}
+		return divide(BigDecimal.valueOf(numerator), BigDecimal.valueOf(denominator), rounding);
+	}
+
+	/**
+	 * @param quantity
+	 * @param rounding applied if the credits have no finite decimal representation
+	 * @return the credits of the quantity
+	 */
+	public BigDecimal credits(long quantity, CreditRounding rounding) {
+		if (decimalValue != null) {
+			return decimalValue.multiply(BigDecimal.valueOf(quantity));
+		}
+		return divide(BigDecimal.valueOf(numerator).multiply(BigDecimal.valueOf(quantity)),
+				BigDecimal.valueOf(denominator), rounding);
+	}
+
+	/**
+	 * @param credits
+	 * @return the units bought for the credits, empty unless it is a whole number
+	 */
+	public OptionalLong unitsFor(BigDecimal credits) {
+		final BigDecimal units;
+		try {
+			units = decimalValue != null ? credits.divide(decimalValue)
+					: credits.multiply(BigDecimal.valueOf(denominator)).divide(BigDecimal.valueOf(numerator));
+		} catch (ArithmeticException zeroOrNonTerminating) {
+			return OptionalLong.empty();
+		}
+		try {
+			return OptionalLong.of(units.longValueExact());
+		} catch (ArithmeticException fractionalOrTooLarge) {
+			return OptionalLong.empty();
+		}
+	}
+
+	/**
+	 * Appends the credits of the quantity in plain notation without trailing
+	 * zeros
+	 * @param output
+	 * @param quantity
+	 * @param rounding applied if the credits have no finite decimal representation
+	 * @return the output
+	 */
+	public StringBuilder appendCredits(StringBuilder output, long quantity, CreditRounding rounding) {
+		if (decimalValue == null && !multiplicationOverflows(numerator, quantity)
+				&& appendQuotient(output, numerator * quantity, denominator)) {
+			return output;
+		}
+		return output.append(credits(quantity, rounding).stripTrailingZeros().toPlainString());
+	}
+
+	/**
+	 * Appends the exact quotient if it has a finite decimal representation
+	 * @param output
+	 * @param dividend
+	 * @param divisor positive
+	 * @return false if nothing was appended
+	 */
+	private static boolean appendQuotient(StringBuilder output, long dividend, long divisor) {
+		if (dividend == Long.MIN_VALUE || divisor > Long.MAX_VALUE / 10) {
+			return false;
+		}
+		long remainder = Math.abs(dividend % divisor);
+		if (remainder != 0 && !hasFiniteDecimals(divisor / gcd(remainder, divisor))) {
+			return false;
+		}
+		final long integral = dividend / divisor;
+		if (dividend < 0 && integral == 0) {
+			output.append('-');
+		}
+		output.append(integral);
+		if (remainder != 0) {
+			output.append('.');
+			while (remainder != 0) {
+				remainder *= 10;
+				output.append((char) ('0' + remainder / divisor));
+				remainder %= divisor;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param dividend
+	 * @param divisor
+	 * @param rounding applied if the quotient has no finite decimal
+	 *                 representation
+	 * @return
+	 */
+	private static BigDecimal divide(BigDecimal dividend, BigDecimal divisor, CreditRounding rounding) {
+		try {
+			return dividend.divide(divisor);
+		} catch (ArithmeticException e) {
+			return dividend.divide(divisor, rounding.getScale(), rounding.getRoundingMode());
+		}
+	}
+
+	private static boolean multiplicationOverflows(long a, long b) {
+		final long high = Math.abs(a) | Math.abs(b);
+		if (high >>> 31 == 0) {
+			return false;
+		}
+		final long product = a * b;
+		return b != 0 && (product / b != a || (a == -1 && b == Long.MIN_VALUE));
+	}
+
+	/**
+	 * @param denominator of a reduced fraction
+	 * @return true if the denominator only has the prime factors 2 and 5
+	 */
+	private static boolean hasFiniteDecimals(long denominator) {
+		long remaining = denominator;
+		while (remaining % 2 == 0) {
+			remaining /= 2;
+		}
+		while (remaining % 5 == 0) {
+			remaining /= 5;
+		}
+		return remaining == 1;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			final long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a == 0 ? 1 : a;
+	}
+
+}
@@ -0,0 +1,204 @@
+package galaxy.merchant.output;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import com.google.common.base.Preconditions;
+
+/**
+ * Hands the results over to a background thread that writes them to the
+ * delegate sink, so the conversion does not wait for the output. The queue is
+ * bounded and write blocks while it is full. Results keep their order.
+ * <p>
+ * A failure of the delegate or of the background thread is reported by the
+ * next write, flush or close, including to the callers waiting on the queue or
+ * on a flush when the background thread stops.
+ *
+ * @author kommineni
+ *
+ */
+public class AsyncOutputSink implements OutputSink {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+	// interval at which waiting callers check that the writer thread is alive
+	static final long LIVENESS_CHECK_MILLIS = 100;
+
+	private static final Object CLOSE = new Object();
+
+	private final OutputSink delegate;
+	private final BlockingQueue<Object> queue;
+	private final Thread writerThread;
+	// write and flush enqueue under the read lock, close marks the sink closed
+	// under the write lock, so nothing is enqueued after CLOSE
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+	// null if neither the delegate nor the writer thread failed
+	private volatile Throwable failure;
+	private volatile boolean closed;
+
+	/**
+	 * @param delegate
+	 */
+	public AsyncOutputSink(OutputSink delegate) {
+		this(delegate, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param delegate
+	 * @param queueCapacity
+	 */
+	public AsyncOutputSink(OutputSink delegate, int queueCapacity) {
+		this.delegate = delegate;
+		this.queue = new ArrayBlockingQueue<Object>(queueCapacity);
+		this.writerThread = new Thread(this::writeResults, "galaxy-merchant-output");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	@Override
+	public void write(String result) {
+		enqueueOpen(result);
+	}
+
+	/**
+	 * Blocks until all the results written so far are flushed by the delegate.
+	 */
+	@Override
+	public void flush() {
+		final CountDownLatch flushed = new CountDownLatch(1);
+		enqueueOpen(flushed);
+		await(flushed);
+		checkFailure();
+	}
+
+	@Override
+	public void close() {
+		closeLock.writeLock().lock();
+		try {
+			if (closed) {
+				checkFailure();
+				return;
+			}
+			closed = true;
+		} finally {
+			closeLock.writeLock().unlock();
+		}
+		if (failure == null && writerThread.isAlive()) {
+			enqueue(CLOSE);
+		}
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		checkFailure();
+	}
+
+	private void writeResults() {
+		try {
+			while (true) {
+				final Object element = queue.take();
+				if (element == CLOSE) {
+					closeDelegate();
+					return;
+				} else if (element instanceof CountDownLatch) {
+					flushDelegate();
+					((CountDownLatch) element).countDown();
+				} else if (failure == null) {
+					writeDelegate((String) element);
+				}
+			}
+		} catch (InterruptedException e) {
+			recordFailure(new IllegalStateException("Output writer was interrupted", e));
+		} catch (Throwable e) {
+			recordFailure(e);
+		}
+	}
+
+	private void writeDelegate(String result) {
+		try {
+			delegate.write(result);
+		} catch (RuntimeException e) {
+			recordFailure(e);
+		}
+	}
+
+	private void flushDelegate() {
+		try {
+			if (failure == null) {
+				delegate.flush();
+			}
+		} catch (RuntimeException e) {
+			recordFailure(e);
+		}
+	}
+
+	private void closeDelegate() {
+		try {
+			delegate.close();
+		} catch (RuntimeException e) {
+			recordFailure(e);
+		}
+	}
+
+	private void recordFailure(Throwable e) {
+		if (failure == null) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * @param element result or flush latch, enqueued unless the sink is closed
+	 */
+	private void enqueueOpen(Object element) {
+		closeLock.readLock().lock();
+		try {
+			Preconditions.checkState(!closed, "Output sink is closed");
+			checkFailure();
+			enqueue(element);
+		} finally {
+			closeLock.readLock().unlock();
+		}
+	}
+
+	private void enqueue(Object element) {
+		try {
+			while (!queue.offer(element, LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+				checkWriterAlive();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while writing the output", e);
+		}
+	}
+
+	private void await(CountDownLatch latch) {
+		try {
+			while (!latch.await(LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+				checkWriterAlive();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while flushing the output", e);
+		}
+	}
+
+	private void checkWriterAlive() {
+		checkFailure();
+		if (!writerThread.isAlive()) {
+			throw new IllegalStateException("Output writer stopped");
+		}
+	}
+
+	private void checkFailure() {
+		final Throwable writeFailure = failure;
+		if (writeFailure instanceof RuntimeException) {
+			throw (RuntimeException) writeFailure;
+		} else if (writeFailure != null) {
+			throw new IllegalStateException("Output writer failed", writeFailure);
+		}
+	}
+}
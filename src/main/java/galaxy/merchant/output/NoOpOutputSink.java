@@ -0,0 +1,19 @@
+package galaxy.merchant.output;
+
+/**
+ * Discards the results, for callers that only use the returned results.
+ * 
+ * @author kommineni
+ *
+ */
+final class NoOpOutputSink implements OutputSink {
+
+	static final NoOpOutputSink INSTANCE = new NoOpOutputSink();
+
+	private NoOpOutputSink() {
+	}
+
+	@Override
+	public void write(String result) {
+	}
+}
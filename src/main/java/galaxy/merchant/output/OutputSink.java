@@ -0,0 +1,45 @@
+package galaxy.merchant.output;
+
+import java.io.Closeable;
+
+/**
+ * Destination of the query results of a currency conversion.
+ * 
+ * @author kommineni
+ *
+ */
+public interface OutputSink extends Closeable {
+
+	/**
+	 * @param result formatted result of a single query
+	 */
+	void write(String result);
+
+	/**
+	 * Writes out the results buffered by the sink.
+	 */
+	default void flush() {
+	}
+
+	/**
+	 * Flushes the sink and releases its resources.
+	 */
+	@Override
+	default void close() {
+		flush();
+	}
+
+	/**
+	 * @return sink that discards the results
+	 */
+	static OutputSink noOp() {
+		return NoOpOutputSink.INSTANCE;
+	}
+
+	/**
+	 * @return sink that prints every result to System.out as soon as it is written
+	 */
+	static OutputSink standardOutput() {
+		return StandardOutputSink.INSTANCE;
+	}
+}
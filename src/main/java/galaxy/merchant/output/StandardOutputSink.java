@@ -0,0 +1,25 @@
+package galaxy.merchant.output;
+
+/**
+ * Prints every result to System.out as soon as it is written.
+ * 
+ * @author kommineni
+ *
+ */
+final class StandardOutputSink implements OutputSink {
+
+	static final StandardOutputSink INSTANCE = new StandardOutputSink();
+
+	private StandardOutputSink() {
+	}
+
+	@Override
+	public void write(String result) {
+		System.out.println(result);
+	}
+
+	@Override
+	public void flush() {
+		System.out.flush();
+	}
+}
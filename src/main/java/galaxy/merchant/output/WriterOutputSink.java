@@ -0,0 +1,68 @@
+package galaxy.merchant.output;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the results one per line through a large buffer, the results only
+ * reach the underlying writer when the buffer is full or the sink is flushed.
+ * The sink is not thread safe.
+ * 
+ * @author kommineni
+ *
+ */
+public class WriterOutputSink implements OutputSink {
+
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	private final BufferedWriter writer;
+	private final String lineSeparator = System.lineSeparator();
+
+	/**
+	 * @param outputStream the results are written in UTF-8
+	 */
+	public WriterOutputSink(OutputStream outputStream) {
+		this(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param writer
+	 * @param bufferSize
+	 */
+	public WriterOutputSink(Writer writer, int bufferSize) {
+		this.writer = new BufferedWriter(writer, bufferSize);
+	}
+
+	@Override
+	public void write(String result) {
+		try {
+			writer.write(result);
+			writer.write(lineSeparator);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
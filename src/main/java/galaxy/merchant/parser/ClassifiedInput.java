@@ -0,0 +1,34 @@
+package galaxy.merchant.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Input records grouped by statement type. Queries keep their input order.
+ * 
+ * @author kommineni
+ *
+ */
+@ToString
+@Getter
+public class ClassifiedInput {
+
+	private final List<GalacticCurrencyDefinition> galacticCurrencyDefinitions = new ArrayList<GalacticCurrencyDefinition>();
+	private final List<MetalValueDefinition> metalValueDefinitions = new ArrayList<MetalValueDefinition>();
+	private final List<InputRecord> queries = new ArrayList<InputRecord>();
+
+	void add(InputRecord inputRecord) {
+		switch (inputRecord.getType()) {
+		case GALACTIC_CURRENCY_DEFINITION:
+			galacticCurrencyDefinitions.add((GalacticCurrencyDefinition) inputRecord);
+			break;
+		case METAL_VALUE_DEFINITION:
+			metalValueDefinitions.add((MetalValueDefinition) inputRecord);
+			break;
+		default:
+			queries.add(inputRecord);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package galaxy.merchant.parser;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Credit value query (Ex: how many Credits is glob prok Gold ?). The galactic
+ * currencies and the metal are kept as regions of the line.
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class CreditQuery implements InputRecord {
+
+	static final String PREFIX = "how many Credits";
+	private static final int PREFIX_TOKENS = 3;
+
+	private final String line;
+	private final int expressionStart;
+	private final int expressionEnd;
+	private final int metalStart;
+	private final int metalEnd;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.CREDIT_QUERY;
+	}
+
+	public List<String> getExpressionTokens() {
+		return LineTokenizer.split(line, expressionStart, expressionEnd);
+	}
+
+	public String getMetalName() {
+		return line.substring(metalStart, metalEnd);
+	}
+
+	/**
+	 * @param query sanitized query line
+	 * @return
+	 */
+	public static CreditQuery parse(String query) {
+		return parse(query, new LineTokenizer().tokenize(query));
+	}
+
+	/**
+	 * The metal is the token before the closing question mark, the galactic
+	 * currencies are the tokens between the prefix and the metal.
+	 * @param line sanitized query line
+	 * @param tokens the tokens of the line
+	 * @return
+	 */
+	static CreditQuery parse(String line, LineTokenizer tokens) {
+		final int metalToken = Math.max(tokens.tokenCount() - 2, 0);
+		int startToken = PREFIX_TOKENS;
+		if (startToken < metalToken && tokens.tokenEquals(startToken, "is")) {
+			startToken++;
+		}
+		final int metalStart = tokens.start(metalToken);
+		final int expressionStart = startToken < metalToken ? tokens.start(startToken) : metalStart;
+		final int expressionEnd = startToken < metalToken ? tokens.end(metalToken - 1) : metalStart;
+		return new CreditQuery(line, expressionStart, expressionEnd, metalStart, tokens.end(metalToken));
+	}
+}
@@ -0,0 +1,34 @@
+package galaxy.merchant.parser;
+
+import galaxy.merchant.model.GalacticCurrency;
+import galaxy.merchant.model.RomanNumeral;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Galactic Currency definition (Ex: glob is I)
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class GalacticCurrencyDefinition implements InputRecord {
+
+	private final String line;
+	private final String currencySymbol;
+	private final RomanNumeral romanNumeral;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.GALACTIC_CURRENCY_DEFINITION;
+	}
+
+	public GalacticCurrency toGalacticCurrency() {
+		return new GalacticCurrency(currencySymbol, romanNumeral);
+	}
+}
@@ -0,0 +1,61 @@
+package galaxy.merchant.parser;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Galactic Currency value query (Ex: how much is pish tegj glob glob ?). The
+ * galactic currencies are kept as a region of the line.
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class GalacticCurrencyQuery implements InputRecord {
+
+	static final String PREFIX = "how much is";
+	private static final int PREFIX_TOKENS = 3;
+
+	private final String line;
+	private final int expressionStart;
+	private final int expressionEnd;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.GALACTIC_CURRENCY_QUERY;
+	}
+
+	public List<String> getExpressionTokens() {
+		return LineTokenizer.split(line, expressionStart, expressionEnd);
+	}
+
+	/**
+	 * @param query sanitized query line
+	 * @return
+	 */
+	public static GalacticCurrencyQuery parse(String query) {
+		return parse(query, new LineTokenizer().tokenize(query));
+	}
+
+	/**
+	 * @param line sanitized query line
+	 * @param tokens the tokens of the line
+	 * @return
+	 */
+	static GalacticCurrencyQuery parse(String line, LineTokenizer tokens) {
+		int endToken = tokens.tokenCount();
+		if (endToken > PREFIX_TOKENS && tokens.tokenEquals(endToken - 1, "?")) {
+			endToken--;
+		}
+		if (endToken <= PREFIX_TOKENS) {
+			return new GalacticCurrencyQuery(line, line.length(), line.length());
+		}
+		return new GalacticCurrencyQuery(line, tokens.start(PREFIX_TOKENS), tokens.end(endToken - 1));
+	}
+}
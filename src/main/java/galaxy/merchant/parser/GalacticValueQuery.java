@@ -0,0 +1,60 @@
+package galaxy.merchant.parser;
+
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Reverse Galactic Currency query, the value is rendered in Galactic Currency
+ * (Ex: how many galactic units is 42 ?).
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class GalacticValueQuery implements InputRecord {
+
+	static final String PREFIX = "how many galactic units is";
+	private static final int PREFIX_TOKENS = 5;
+
+	private final String line;
+	private final long value;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.GALACTIC_VALUE_QUERY;
+	}
+
+	/**
+	 * @param query sanitized query line
+	 * @return empty if the query is not followed by a single integer
+	 */
+	public static Optional<GalacticValueQuery> parse(String query) {
+		return parse(query, new LineTokenizer().tokenize(query));
+	}
+
+	/**
+	 * @param line   sanitized query line
+	 * @param tokens the tokens of the line
+	 * @return empty if the query is not followed by a single integer
+	 */
+	static Optional<GalacticValueQuery> parse(String line, LineTokenizer tokens) {
+		int endToken = tokens.tokenCount();
+		if (endToken > PREFIX_TOKENS && tokens.tokenEquals(endToken - 1, "?")) {
+			endToken--;
+		}
+		if (endToken != PREFIX_TOKENS + 1) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(new GalacticValueQuery(line, Long.parseLong(tokens.token(PREFIX_TOKENS))));
+		} catch (NumberFormatException e) {
+			return Optional.empty();
+		}
+	}
+}
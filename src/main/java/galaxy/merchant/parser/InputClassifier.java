@@ -0,0 +1,113 @@
+package galaxy.merchant.parser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import galaxy.merchant.exception.InvalidInputException;
+import galaxy.merchant.exception.InvalidLineHandler;
+import galaxy.merchant.model.RomanNumeral;
+
+/**
+ * Classifies sanitized input lines into typed {@link InputRecord}s. Every line
+ * is tokenized once and checked against the statement types in the order of
+ * precedence documented in assumptions.txt.
+ * <p>
+ * The classifier reuses its tokenizer and is not thread safe.
+ * 
+ * @author kommineni
+ *
+ */
+public class InputClassifier {
+
+	private static final int CURRENCY_DEFINITION_TOKENS = 3;
+
+	private final Map<Character, RomanNumeral> romanSymbolIndex;
+	private final LineTokenizer tokenizer = new LineTokenizer();
+
+	/**
+	 * @param romanSymbols
+	 */
+	public InputClassifier(List<RomanNumeral> romanSymbols) {
+		this.romanSymbolIndex = new HashMap<Character, RomanNumeral>();
+		for (RomanNumeral romanNumeral : romanSymbols) {
+			romanSymbolIndex.put(romanNumeral.getSymbol(), romanNumeral);
+		}
+	}
+
+	/**
+	 * Sanitizes, tokenizes and classifies an input line.
+	 * @param inputLine
+	 * @return the classified record, empty for blank lines
+	 */
+	public Optional<InputRecord> classify(String inputLine) {
+		tokenizer.tokenize(inputLine);
+		final String sanitizedLine = tokenizer.sanitized();
+		if (sanitizedLine != inputLine) {
+			tokenizer.tokenize(sanitizedLine);
+		}
+		if (tokenizer.tokenCount() == 0) {
+			return Optional.empty();
+		}
+		if (tokenizer.tokenCount() == CURRENCY_DEFINITION_TOKENS) {
+			final RomanNumeral romanNumeral = romanSymbolIndex.get(sanitizedLine.charAt(tokenizer.start(2)));
+			if (romanNumeral != null) {
+				return Optional.of(new GalacticCurrencyDefinition(sanitizedLine, tokenizer.token(0), romanNumeral));
+			}
+		}
+		if (sanitizedLine.endsWith("Credits")) {
+			return Optional.of(MetalValueDefinition.parse(sanitizedLine, tokenizer));
+		}
+		if (sanitizedLine.startsWith(GalacticCurrencyQuery.PREFIX)) {
+			return Optional.of(GalacticCurrencyQuery.parse(sanitizedLine, tokenizer));
+		}
+		if (sanitizedLine.startsWith(CreditQuery.PREFIX)) {
+			return Optional.of(CreditQuery.parse(sanitizedLine, tokenizer));
+		}
+		if (sanitizedLine.startsWith(GalacticValueQuery.PREFIX)) {
+			final Optional<GalacticValueQuery> galacticValueQuery = GalacticValueQuery.parse(sanitizedLine, tokenizer);
+			if (galacticValueQuery.isPresent()) {
+				return Optional.of(galacticValueQuery.get());
+			}
+		}
+		if (sanitizedLine.startsWith(MetalQuantityQuery.PREFIX)) {
+			final Optional<MetalQuantityQuery> metalQuantityQuery = MetalQuantityQuery.parse(sanitizedLine, tokenizer);
+			if (metalQuantityQuery.isPresent()) {
+				return Optional.of(metalQuantityQuery.get());
+			}
+		}
+		return Optional.of(new UncategorizedQuery(sanitizedLine));
+	}
+
+	/**
+	 * Classifies all the lines in a single pass.
+	 * @param input
+	 * @return
+	 */
+	public ClassifiedInput classifyAll(List<String> input) {
+		final ClassifiedInput classifiedInput = new ClassifiedInput();
+		for (String inputLine : input) {
+			classify(inputLine).ifPresent(classifiedInput::add);
+		}
+		return classifiedInput;
+	}
+
+	/**
+	 * Classifies every input line, a line that can not be parsed is reported to
+	 * the handler and skipped
+	 * @param input
+	 * @param invalidLineHandler
+	 * @return the classified records grouped by type, in input order
+	 */
+	public ClassifiedInput classifyAll(List<String> input, InvalidLineHandler invalidLineHandler) {
+		final ClassifiedInput classifiedInput = new ClassifiedInput();
+		for (String inputLine : input) {
+			try {
+				classify(inputLine).ifPresent(classifiedInput::add);
+			} catch (InvalidInputException e) {
+				invalidLineHandler.reject(inputLine, e);
+			}
+		}
+		return classifiedInput;
+	}
+}
@@ -0,0 +1,17 @@
+package galaxy.merchant.parser;
+
+/**
+ * A classified and tokenized line of the input.
+ * 
+ * @author kommineni
+ *
+ */
+public interface InputRecord {
+
+	/**
+	 * @return the sanitized input line the record was created from
+	 */
+	String getLine();
+
+	InputRecordType getType();
+}
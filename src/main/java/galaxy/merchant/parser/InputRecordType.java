@@ -0,0 +1,10 @@
+package galaxy.merchant.parser;
+
+/**
+ * @author kommineni
+ *
+ */
+public enum InputRecordType {
+	GALACTIC_CURRENCY_DEFINITION, METAL_VALUE_DEFINITION, GALACTIC_CURRENCY_QUERY, CREDIT_QUERY, GALACTIC_VALUE_QUERY,
+	METAL_QUANTITY_QUERY, UNCATEGORIZED_QUERY
+}
@@ -0,0 +1,181 @@
+package galaxy.merchant.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable tokenizer that records the offsets of the space separated tokens of
+ * a line without copying them. Leading and trailing whitespace is ignored the
+ * same way as {@link String#trim()} does and runs of spaces count as a single
+ * separator, so the tokens are the ones of the sanitized line.
+ * <p>
+ * A tokenizer keeps the offsets of the last tokenized line only and is not
+ * thread safe.
+ * 
+ * @author kommineni
+ *
+ */
+public final class LineTokenizer {
+
+	private static final int INITIAL_TOKEN_CAPACITY = 16;
+
+	private CharSequence line = "";
+	private int[] bounds = new int[INITIAL_TOKEN_CAPACITY * 2];
+	private int tokenCount;
+
+	/**
+	 * @param line
+	 * @return this tokenizer
+	 */
+	public LineTokenizer tokenize(CharSequence line) {
+		this.line = line;
+		this.tokenCount = 0;
+		int end = line.length();
+		while (end > 0 && line.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int position = 0;
+		while (position < end && line.charAt(position) <= ' ') {
+			position++;
+		}
+		while (position < end) {
+			final int tokenStart = position;
+			while (position < end && line.charAt(position) != ' ') {
+				position++;
+			}
+			addToken(tokenStart, position);
+			while (position < end && line.charAt(position) == ' ') {
+				position++;
+			}
+		}
+		return this;
+	}
+
+	private void addToken(int start, int end) {
+		if (tokenCount * 2 == bounds.length) {
+			bounds = Arrays.copyOf(bounds, bounds.length * 2);
+		}
+		bounds[tokenCount * 2] = start;
+		bounds[tokenCount * 2 + 1] = end;
+		tokenCount++;
+	}
+
+	public CharSequence getLine() {
+		return line;
+	}
+
+	public int tokenCount() {
+		return tokenCount;
+	}
+
+	public int start(int token) {
+		return bounds[checkToken(token) * 2];
+	}
+
+	public int end(int token) {
+		return bounds[checkToken(token) * 2 + 1];
+	}
+
+	private int checkToken(int token) {
+		if (token < 0 || token >= tokenCount) {
+			throw new IndexOutOfBoundsException("Token " + token + " of " + tokenCount);
+		}
+		return token;
+	}
+
+	/**
+	 * @param token
+	 * @param value
+	 * @return true if the token has the same characters as the value
+	 */
+	public boolean tokenEquals(int token, String value) {
+		return regionEquals(line, start(token), end(token), value);
+	}
+
+	/**
+	 * Copies the token, only to be used where a String is really required.
+	 * @param token
+	 * @return
+	 */
+	public String token(int token) {
+		return line.subSequence(start(token), end(token)).toString();
+	}
+
+	/**
+	 * @return true if the line has no surrounding whitespace and the tokens are
+	 *         separated by exactly one space
+	 */
+	public boolean isSanitized() {
+		if (tokenCount == 0) {
+			return line.length() == 0;
+		}
+		if (bounds[0] != 0 || bounds[tokenCount * 2 - 1] != line.length()) {
+			return false;
+		}
+		for (int token = 1; token < tokenCount; token++) {
+			if (bounds[token * 2] != bounds[token * 2 - 1] + 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the sanitized line, the tokenized line itself when it is already
+	 *         sanitized
+	 */
+	public String sanitized() {
+		if (isSanitized() && line instanceof String) {
+			return (String) line;
+		}
+		final StringBuilder sanitizedLine = new StringBuilder(line.length());
+		for (int token = 0; token < tokenCount; token++) {
+			if (token > 0) {
+				sanitizedLine.append(' ');
+			}
+			sanitizedLine.append(line, start(token), end(token));
+		}
+		return sanitizedLine.toString();
+	}
+
+	/**
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @param value
+	 * @return true if the region of the text has the same characters as the value
+	 */
+	public static boolean regionEquals(CharSequence text, int start, int end, String value) {
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (text.charAt(start + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Splits a region of a sanitized line into its tokens.
+	 * @param sanitizedLine
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public static List<String> split(String sanitizedLine, int start, int end) {
+		final List<String> tokens = new ArrayList<String>();
+		int tokenStart = start;
+		for (int position = start; position <= end; position++) {
+			if (position == end || sanitizedLine.charAt(position) == ' ') {
+				if (position > tokenStart) {
+					tokens.add(sanitizedLine.substring(tokenStart, position));
+				}
+				tokenStart = position + 1;
+			}
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,71 @@
+package galaxy.merchant.parser;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Metal quantity query, the units of metal bought for the credits are rendered
+ * in Galactic Currency (Ex: how many Silver is 68 Credits ?). The metal is kept
+ * as a region of the line.
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class MetalQuantityQuery implements InputRecord {
+
+	static final String PREFIX = "how many";
+	private static final int METAL_TOKEN = 2;
+	private static final int QUERY_TOKENS = 6;
+
+	private final String line;
+	private final int metalStart;
+	private final int metalEnd;
+	private final BigDecimal credits;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.METAL_QUANTITY_QUERY;
+	}
+
+	public String getMetalName() {
+		return line.substring(metalStart, metalEnd);
+	}
+
+	/**
+	 * @param query sanitized query line
+	 * @return empty if the query is not in the form how many metal is n Credits
+	 */
+	public static Optional<MetalQuantityQuery> parse(String query) {
+		return parse(query, new LineTokenizer().tokenize(query));
+	}
+
+	/**
+	 * @param line   sanitized query line
+	 * @param tokens the tokens of the line
+	 * @return empty if the query is not in the form how many metal is n Credits
+	 */
+	static Optional<MetalQuantityQuery> parse(String line, LineTokenizer tokens) {
+		int endToken = tokens.tokenCount();
+		if (endToken > QUERY_TOKENS && tokens.tokenEquals(endToken - 1, "?")) {
+			endToken--;
+		}
+		if (endToken != QUERY_TOKENS || !tokens.tokenEquals(METAL_TOKEN + 1, "is")
+				|| !tokens.tokenEquals(METAL_TOKEN + 3, "Credits")) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(new MetalQuantityQuery(line, tokens.start(METAL_TOKEN), tokens.end(METAL_TOKEN),
+					new BigDecimal(tokens.token(METAL_TOKEN + 2))));
+		} catch (NumberFormatException e) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package galaxy.merchant.parser;
+
+import java.util.List;
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.QueryErrorCode;
+import galaxy.merchant.model.CommonMetal;
+import galaxy.merchant.model.GalacticCurrencyExpression;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Metal and Value definition (Ex: glob prok Gold is 57800 Credits). The
+ * galactic currencies are kept as a region of the line.
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class MetalValueDefinition implements InputRecord {
+
+	private final String line;
+	private final int expressionStart;
+	private final int expressionEnd;
+	private final String metalName;
+	private final Integer credits;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.METAL_VALUE_DEFINITION;
+	}
+
+	public List<String> getExpressionTokens() {
+		return LineTokenizer.split(line, expressionStart, expressionEnd);
+	}
+
+	/**
+	 * Determines the unit value of the metal
+	 * @param symbolRegistry resolves the galactic currencies of the definition
+	 * @return
+	 */
+	public CommonMetal toCommonMetal(GalacticSymbolRegistry symbolRegistry) {
+		final GalacticCurrencyExpression galacticCurrencyExpression = new GalacticCurrencyExpression(
+				symbolRegistry.resolveGalacticCurrencies(line, expressionStart, expressionEnd));
+		return CommonMetal.createFromMetalValueDefinition(metalName, credits, galacticCurrencyExpression);
+	}
+
+	/**
+	 * @param line sanitized definition line
+	 * @param tokens the tokens of the line
+	 * @return
+	 * @throws InvalidGalacticCurrencyConvesionQueryException when the metal name or the credits are missing
+	 *                                                        or the credits are not a whole number
+	 */
+	static MetalValueDefinition parse(String line, LineTokenizer tokens) {
+		final int metalToken = indexOf(tokens, "is") - 1;
+		if (metalToken < 0) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.NO_METAL_NAME);
+		}
+		final int creditsToken = indexOf(tokens, "Credits");
+		if (creditsToken < 1) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.NO_CREDITS);
+		}
+		final int credits;
+		try {
+			credits = Integer.parseInt(tokens.token(creditsToken - 1));
+		} catch (NumberFormatException e) {
+			throw InvalidGalacticCurrencyConvesionQueryException.of(QueryErrorCode.INVALID_CREDITS);
+		}
+		final int expressionEnd = metalToken > 0 ? tokens.end(metalToken - 1) : 0;
+		return new MetalValueDefinition(line, 0, expressionEnd, tokens.token(metalToken), credits);
+	}
+
+	/**
+	 * @param tokens
+	 * @param value
+	 * @return index of the first token equal to the value, -1 if there is none
+	 */
+	static int indexOf(LineTokenizer tokens, String value) {
+		for (int token = 0; token < tokens.tokenCount(); token++) {
+			if (tokens.tokenEquals(token, value)) {
+				return token;
+			}
+		}
+		return -1;
+	}
+}
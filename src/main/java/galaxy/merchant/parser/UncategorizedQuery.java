@@ -0,0 +1,27 @@
+package galaxy.merchant.parser;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Anything that is neither a definition nor a known query
+ * (Ex: how much wood could a woodchuck chuck if a woodchuck could chuck wood ?)
+ * 
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public class UncategorizedQuery implements InputRecord {
+
+	private final String line;
+
+	@Override
+	public InputRecordType getType() {
+		return InputRecordType.UNCATEGORIZED_QUERY;
+	}
+}
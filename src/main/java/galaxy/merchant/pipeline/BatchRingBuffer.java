@@ -0,0 +1,161 @@
+package galaxy.merchant.pipeline;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import com.google.common.base.Preconditions;
+
+/**
+ * Bounded ring buffer of batches between two pipeline stages, with a single
+ * producer and a single consumer. The producer blocks while the buffer is full,
+ * which slows the stages before a slow stage down instead of buffering its
+ * backlog. The depth of the buffer is sampled whenever a batch is taken.
+ *
+ * @author kommineni
+ *
+ */
+final class BatchRingBuffer<T> {
+
+	private final Object[] slots;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	// guarded by lock
+	private int head;
+	private int size;
+	private boolean closed;
+	private boolean aborted;
+	private long takes;
+	private long depthSum;
+	private int maxDepth;
+
+	/**
+	 * @param capacity number of batches buffered before the producer blocks
+	 */
+	BatchRingBuffer(int capacity) {
+		Preconditions.checkArgument(capacity > 0);
+		this.slots = new Object[capacity];
+	}
+
+	/**
+	 * Blocks while the buffer is full
+	 * @param batch
+	 * @return nanoseconds the producer was blocked
+	 * @throws InterruptedException
+	 * @throws CancellationException if the pipeline was aborted
+	 */
+	long put(List<T> batch) throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			Preconditions.checkState(!closed, "Batch buffer is closed");
+			long blockedNanos = 0;
+			while (size == slots.length && !aborted) {
+				final long waitStart = System.nanoTime();
+				notFull.await();
+				blockedNanos += System.nanoTime() - waitStart;
+			}
+			checkNotAborted();
+			slots[(head + size) % slots.length] = batch;
+			size++;
+			notEmpty.signal();
+			return blockedNanos;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Blocks while the buffer is empty and open
+	 * @return the oldest batch, null once the buffer is closed and drained
+	 * @throws InterruptedException
+	 * @throws CancellationException if the pipeline was aborted
+	 */
+	@SuppressWarnings("unchecked")
+	List<T> take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (size == 0 && !closed && !aborted) {
+				notEmpty.await();
+			}
+			checkNotAborted();
+			if (size == 0) {
+				return null;
+			}
+			takes++;
+			depthSum += size;
+			maxDepth = Math.max(maxDepth, size);
+			final List<T> batch = (List<T>) slots[head];
+			slots[head] = null;
+			head = (head + 1) % slots.length;
+			size--;
+			notFull.signal();
+			return batch;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Ends the input of the consumer after the buffered batches
+	 */
+	void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Wakes the producer and the consumer up, both fail with a
+	 * {@link CancellationException}
+	 */
+	void abort() {
+		lock.lock();
+		try {
+			aborted = true;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int capacity() {
+		return slots.length;
+	}
+
+	/**
+	 * @return the largest number of batches found buffered by a take
+	 */
+	int maxDepth() {
+		lock.lock();
+		try {
+			return maxDepth;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the mean number of batches found buffered by a take
+	 */
+	double averageDepth() {
+		lock.lock();
+		try {
+			return takes == 0 ? 0 : (double) depthSum / takes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void checkNotAborted() {
+		if (aborted) {
+			throw new CancellationException("Pipeline aborted");
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package galaxy.merchant.pipeline;
+
+/**
+ * Stages of a pipelined conversion, each running on its own thread.
+ *
+ * @author kommineni
+ *
+ */
+public enum PipelineStage {
+	/** reading the input lines */
+	READ,
+	/** sanitizing and classifying the input lines */
+	CLASSIFY,
+	/** registering the definitions and answering the queries in input order */
+	EVALUATE,
+	/** writing the results to the output sink */
+	WRITE
+}
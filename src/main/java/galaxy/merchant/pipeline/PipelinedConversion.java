@@ -0,0 +1,341 @@
+package galaxy.merchant.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import galaxy.merchant.CurrencyConversionOutputProcessor;
+import galaxy.merchant.exception.InvalidInputException;
+import galaxy.merchant.exception.InvalidLineHandler;
+import galaxy.merchant.input.LineReader;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.RomanNumeral;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.GalacticCurrencyDefinition;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.MetalValueDefinition;
+
+/**
+ * Streaming conversion split into the stages of {@link PipelineStage}, each on
+ * its own thread. The stages hand batches of lines, records and results to each
+ * other through bounded {@link BatchRingBuffer}s, a stage blocks while the
+ * queue of the next stage is full.
+ * <p>
+ * The evaluation stage registers the definitions and answers the queries in
+ * input order, so the results are the ones of the sequential streaming
+ * conversion. The write stage runs on the calling thread, which also receives
+ * the results. If a stage fails the other stages are stopped and its exception
+ * is rethrown; the results written before stay written. With the invalid line
+ * handler of the processor, invalid lines are reported from the classification
+ * and evaluation threads instead.
+ *
+ * @author kommineni
+ *
+ */
+public class PipelinedConversion {
+
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	private final List<RomanNumeral> romanSymbols;
+	private final CurrencyConversionOutputProcessor currencyConversionOutputProcessor;
+	private final OutputSink outputSink;
+	private final int batchSize;
+	private final int queueCapacity;
+
+	private volatile List<StageStatistics> statistics = Collections.emptyList();
+
+	/**
+	 * @param romanSymbols
+	 * @param currencyConversionOutputProcessor evaluates the queries, the
+	 *                                          definitions of the input are added
+	 *                                          to its registry and replace its
+	 *                                          provisional ones
+	 * @param outputSink                        destination of the query results
+	 */
+	public PipelinedConversion(List<RomanNumeral> romanSymbols,
+			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, OutputSink outputSink) {
+		this(romanSymbols, currencyConversionOutputProcessor, outputSink, DEFAULT_BATCH_SIZE,
+				DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param romanSymbols
+	 * @param currencyConversionOutputProcessor evaluates the queries, the
+	 *                                          definitions of the input are added
+	 *                                          to its registry and replace its
+	 *                                          provisional ones
+	 * @param outputSink                        destination of the query results
+	 * @param batchSize                         lines, records or results handed
+	 *                                          over at once
+	 * @param queueCapacity                     batches buffered between two stages
+	 */
+	public PipelinedConversion(List<RomanNumeral> romanSymbols,
+			CurrencyConversionOutputProcessor currencyConversionOutputProcessor, OutputSink outputSink, int batchSize,
+			int queueCapacity) {
+		Preconditions.checkArgument(!currencyConversionOutputProcessor.getSymbolRegistry().isFrozen());
+		Preconditions.checkArgument(batchSize > 0);
+		Preconditions.checkArgument(queueCapacity > 0);
+		this.romanSymbols = romanSymbols;
+		// the results are written by the write stage
+		this.currencyConversionOutputProcessor = currencyConversionOutputProcessor
+				.withSymbolRegistry(currencyConversionOutputProcessor.getSymbolRegistry(), OutputSink.noOp());
+		this.outputSink = outputSink;
+		this.batchSize = batchSize;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Converts the input and waits for all stages to finish
+	 * @param reader
+	 * @param resultConsumer called on the calling thread for every result
+	 * @return number of query results produced
+	 * @throws IOException
+	 */
+	public long run(LineReader reader, Consumer<String> resultConsumer) throws IOException {
+		final BatchRingBuffer<String> lines = new BatchRingBuffer<String>(queueCapacity);
+		final BatchRingBuffer<InputRecord> records = new BatchRingBuffer<InputRecord>(queueCapacity);
+		final BatchRingBuffer<String> results = new BatchRingBuffer<String>(queueCapacity);
+		final StageRun readRun = new StageRun(PipelineStage.READ, null);
+		final StageRun classifyRun = new StageRun(PipelineStage.CLASSIFY, lines);
+		final StageRun evaluateRun = new StageRun(PipelineStage.EVALUATE, records);
+		final StageRun writeRun = new StageRun(PipelineStage.WRITE, results);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final Runnable abort = () -> {
+			lines.abort();
+			records.abort();
+			results.abort();
+		};
+
+		final List<Thread> threads = ImmutableList.of(
+				startStage(readRun, failure, abort, () -> read(reader, readRun, lines)),
+				startStage(classifyRun, failure, abort, () -> classify(classifyRun, lines, records)),
+				startStage(evaluateRun, failure, abort, () -> evaluate(evaluateRun, records, results)));
+		runStage(writeRun, failure, abort, () -> write(writeRun, results, resultConsumer));
+		try {
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			abort.run();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the pipeline", e);
+		}
+		statistics = ImmutableList.of(readRun.statistics(), classifyRun.statistics(), evaluateRun.statistics(),
+				writeRun.statistics());
+		rethrow(failure.get());
+		return writeRun.items;
+	}
+
+	/**
+	 * @return statistics of the stages of the last run, in stage order
+	 */
+	public List<StageStatistics> getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return table of the statistics of the last run
+	 */
+	public String getReport() {
+		final StringBuilder report = new StringBuilder(String.format("%-10s %10s %8s %14s %8s %8s %8s %12s%n",
+				"stage", "items", "batches", "items/s", "busy %", "starved", "blocked", "queue max/avg"));
+		for (StageStatistics stage : statistics) {
+			report.append(String.format("%-10s %10d %8d %14.0f %8.1f %6.1fms %6.1fms %6d/%5.1f%n",
+					stage.getStage(), stage.getItems(), stage.getBatches(), stage.getThroughput(),
+					stage.getElapsedNanos() == 0 ? 0 : 100.0 * stage.getBusyNanos() / stage.getElapsedNanos(),
+					stage.getStarvedNanos() / 1e6, stage.getBlockedNanos() / 1e6, stage.getMaxInputQueueDepth(),
+					stage.getAverageInputQueueDepth()));
+		}
+		return report.toString();
+	}
+
+	private void read(LineReader reader, StageRun run, BatchRingBuffer<String> lines) throws Exception {
+		List<String> batch = new ArrayList<String>(batchSize);
+		String line;
+		while ((line = reader.readLine()) != null) {
+			batch.add(line);
+			if (batch.size() == batchSize) {
+				run.emit(lines, batch);
+				batch = new ArrayList<String>(batchSize);
+			}
+		}
+		run.emit(lines, batch);
+		lines.close();
+	}
+
+	private void classify(StageRun run, BatchRingBuffer<String> lines, BatchRingBuffer<InputRecord> records)
+			throws Exception {
+		final InputClassifier inputClassifier = new InputClassifier(romanSymbols);
+		final InvalidLineHandler invalidLineHandler = currencyConversionOutputProcessor.getInvalidLineHandler();
+		List<String> batch;
+		while ((batch = run.take(lines)) != null) {
+			final List<InputRecord> classifiedBatch = new ArrayList<InputRecord>(batch.size());
+			for (String line : batch) {
+				try {
+					inputClassifier.classify(line).ifPresent(classifiedBatch::add);
+				} catch (InvalidInputException e) {
+					if (invalidLineHandler == null) {
+						throw e;
+					}
+					invalidLineHandler.reject(line, e);
+				}
+			}
+			run.emit(records, classifiedBatch);
+		}
+		records.close();
+	}
+
+	private void evaluate(StageRun run, BatchRingBuffer<InputRecord> records, BatchRingBuffer<String> results)
+			throws Exception {
+		final GalacticSymbolRegistry symbolRegistry = currencyConversionOutputProcessor.getSymbolRegistry();
+		List<InputRecord> batch;
+		while ((batch = run.take(records)) != null) {
+			final List<String> resultBatch = new ArrayList<String>(batch.size());
+			for (InputRecord inputRecord : batch) {
+				switch (inputRecord.getType()) {
+				case GALACTIC_CURRENCY_DEFINITION:
+					symbolRegistry.registerGalacticCurrency(
+							((GalacticCurrencyDefinition) inputRecord).toGalacticCurrency());
+					break;
+				case METAL_VALUE_DEFINITION:
+					registerMetal((MetalValueDefinition) inputRecord, symbolRegistry);
+					break;
+				default:
+					resultBatch.add(currencyConversionOutputProcessor.calculateValuesForQuery(inputRecord));
+				}
+			}
+			run.emit(results, resultBatch);
+		}
+		results.close();
+	}
+
+	/**
+	 * Registers the metal unless its definition is invalid and reported to the
+	 * invalid line handler of the processor
+	 */
+	private void registerMetal(MetalValueDefinition metalValueDefinition, GalacticSymbolRegistry symbolRegistry) {
+		try {
+			symbolRegistry.registerMetal(metalValueDefinition.toCommonMetal(symbolRegistry));
+		} catch (InvalidInputException e) {
+			if (currencyConversionOutputProcessor.getInvalidLineHandler() == null) {
+				throw e;
+			}
+			currencyConversionOutputProcessor.getInvalidLineHandler().reject(metalValueDefinition.getLine(), e);
+		}
+	}
+
+	private void write(StageRun run, BatchRingBuffer<String> results, Consumer<String> resultConsumer)
+			throws Exception {
+		List<String> batch;
+		while ((batch = run.take(results)) != null) {
+			for (String result : batch) {
+				outputSink.write(result);
+				resultConsumer.accept(result);
+			}
+			run.items += batch.size();
+			run.batches++;
+		}
+		outputSink.flush();
+	}
+
+	private static Thread startStage(StageRun run, AtomicReference<Throwable> failure, Runnable abort,
+			StageBody body) {
+		final Thread thread = new Thread(() -> runStage(run, failure, abort, body),
+				"galaxy-merchant-" + run.stage.name().toLowerCase());
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Runs the stage, the first failure of a stage aborts the pipeline
+	 */
+	private static void runStage(StageRun run, AtomicReference<Throwable> failure, Runnable abort,
+			StageBody body) {
+		run.startNanos = System.nanoTime();
+		try {
+			body.run();
+		} catch (CancellationException aborted) {
+			// stopped after the failure of another stage
+		} catch (Throwable e) {
+			failure.compareAndSet(null, e);
+			abort.run();
+		} finally {
+			run.endNanos = System.nanoTime();
+		}
+	}
+
+	private static void rethrow(Throwable failure) throws IOException {
+		if (failure == null) {
+			return;
+		}
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure instanceof InterruptedException) {
+			Thread.currentThread().interrupt();
+		}
+		throw new IllegalStateException("Pipeline stage failed", failure);
+	}
+
+	@FunctionalInterface
+	private interface StageBody {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Counters of a stage, written by the thread of the stage only and read after
+	 * it finished
+	 */
+	private static final class StageRun {
+
+		private final PipelineStage stage;
+		// null for the read stage
+		private final BatchRingBuffer<?> input;
+		private long items;
+		private long batches;
+		private long starvedNanos;
+		private long blockedNanos;
+		private long startNanos;
+		private long endNanos;
+
+		private StageRun(PipelineStage stage, BatchRingBuffer<?> input) {
+			this.stage = stage;
+			this.input = input;
+		}
+
+		private <T> List<T> take(BatchRingBuffer<T> buffer) throws InterruptedException {
+			final long waitStart = System.nanoTime();
+			final List<T> batch = buffer.take();
+			starvedNanos += System.nanoTime() - waitStart;
+			return batch;
+		}
+
+		private <T> void emit(BatchRingBuffer<T> buffer, List<T> batch) throws InterruptedException {
+			if (!batch.isEmpty()) {
+				blockedNanos += buffer.put(batch);
+				items += batch.size();
+				batches++;
+			}
+		}
+
+		private StageStatistics statistics() {
+			return new StageStatistics(stage, items, batches, endNanos - startNanos, starvedNanos, blockedNanos,
+					input == null ? 0 : input.capacity(), input == null ? 0 : input.maxDepth(),
+					input == null ? 0 : input.averageDepth());
+		}
+	}
+}
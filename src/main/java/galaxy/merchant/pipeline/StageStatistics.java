@@ -0,0 +1,48 @@
+package galaxy.merchant.pipeline;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Throughput and queue depth of a stage of a pipelined conversion run. The
+ * elapsed time of a stage is split into the time it was busy, the time it
+ * waited for input (starved) and the time it waited for space in the queue of
+ * the next stage (blocked by backpressure).
+ *
+ * @author kommineni
+ *
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Getter
+public final class StageStatistics {
+
+	private final PipelineStage stage;
+	// lines read, records classified, results evaluated or results written
+	private final long items;
+	private final long batches;
+	private final long elapsedNanos;
+	private final long starvedNanos;
+	private final long blockedNanos;
+	// 0 for the read stage, which has no input queue
+	private final int inputQueueCapacity;
+	private final int maxInputQueueDepth;
+	private final double averageInputQueueDepth;
+
+	/**
+	 * @return items per second of elapsed time
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0 ? 0 : items * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * @return nanoseconds the stage was neither starved nor blocked
+	 */
+	public long getBusyNanos() {
+		return Math.max(0, elapsedNanos - starvedNanos - blockedNanos);
+	}
+}
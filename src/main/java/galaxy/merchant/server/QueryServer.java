@@ -0,0 +1,126 @@
+package galaxy.merchant.server;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+
+/**
+ * Local HTTP front end of a {@link QueryService}. The body of a POST request
+ * holds definition and query lines, the response holds the results of the
+ * queries, one per line. An invalid line fails the request with status 400 and
+ * the message of the exception, none of the definitions of a failed request
+ * are applied.
+ * <p>
+ * Every request is handled on a virtual thread when the runtime provides them,
+ * on a pooled platform thread otherwise.
+ *
+ * @author kommineni
+ *
+ */
+public class QueryServer implements Closeable {
+
+	private static final String TEXT_PLAIN = "text/plain; charset=UTF-8";
+
+	private final HttpServer httpServer;
+	private final ExecutorService requestExecutor;
+	private final QueryService queryService;
+
+	/**
+	 * Starts a server on the loopback interface
+	 * @param port         0 to pick a free port
+	 * @param queryService
+	 * @throws IOException
+	 */
+	public QueryServer(int port, QueryService queryService) throws IOException {
+		this.queryService = queryService;
+		this.requestExecutor = newRequestExecutor();
+		this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.createContext("/", this::handle);
+		httpServer.setExecutor(requestExecutor);
+		httpServer.start();
+	}
+
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+
+	public QueryService getQueryService() {
+		return queryService;
+	}
+
+	@Override
+	public void close() {
+		httpServer.stop(0);
+		requestExecutor.shutdown();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"POST".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "POST");
+				respond(exchange, 405, "Only POST requests are supported");
+				return;
+			}
+			final List<String> results;
+			try {
+				results = queryService.process(new BufferedReader(
+						new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)));
+			} catch (InvalidGalacticCurrencyExpressionException | InvalidGalacticCurrencyConvesionQueryException
+					| NumberFormatException e) {
+				respond(exchange, 400, e.getMessage());
+				return;
+			}
+			final StringBuilder response = new StringBuilder();
+			for (String result : results) {
+				response.append(result).append('\n');
+			}
+			respond(exchange, 200, response.toString());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		final byte[] bytes = String.valueOf(body).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		if (bytes.length > 0) {
+			try (OutputStream responseBody = exchange.getResponseBody()) {
+				responseBody.write(bytes);
+			}
+		}
+	}
+
+	/**
+	 * The project targets Java 8, virtual threads are looked up reflectively
+	 * @return executor starting a virtual thread per request if available
+	 */
+	static ExecutorService newRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			final ThreadFactory threadFactory = runnable -> {
+				final Thread thread = new Thread(runnable, "galaxy-merchant-request-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+			return Executors.newCachedThreadPool(threadFactory);
+		}
+	}
+
+}
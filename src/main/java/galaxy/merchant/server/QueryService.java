@@ -0,0 +1,153 @@
+package galaxy.merchant.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import galaxy.merchant.CurrencyConversionOutputProcessor;
+import galaxy.merchant.DefinitionSession;
+import galaxy.merchant.QueryResultCache;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.RomanNumeral;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.GalacticCurrencyDefinition;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+import galaxy.merchant.parser.InputRecordType;
+import galaxy.merchant.parser.MetalValueDefinition;
+
+/**
+ * Keeps the currency and metal definitions in memory between requests and
+ * answers the queries against them. A definition replaces an earlier one of the
+ * same symbol or metal and the metals using it are repriced, see
+ * {@link DefinitionSession}.
+ * <p>
+ * A request is applied as a whole: its definitions are applied to a copy of
+ * the session and published only when every line of the request succeeded, an
+ * invalid line leaves none of them applied. Requests with definitions are
+ * applied one at a time, requests with only queries are evaluated concurrently
+ * against the published snapshot.
+ * <p>
+ * The service is thread safe.
+ *
+ * @author kommineni
+ *
+ */
+public class QueryService {
+
+	private final List<RomanNumeral> romanSymbols;
+
+	// guarded by this, replaced by its updated copy when a request succeeds
+	private DefinitionSession definitionSession = new DefinitionSession();
+
+	private volatile GalacticSymbolRegistry publishedDefinitions = definitionSession.getSymbolRegistry().snapshot();
+
+	// null if the query results are not cached
+	private final QueryResultCache queryResultCache;
+
+	private volatile CurrencyConversionOutputProcessor currencyConversionOutputProcessor;
+
+	/**
+	 * @param romanSymbols
+	 */
+	public QueryService(List<RomanNumeral> romanSymbols) {
+		this(romanSymbols, null);
+	}
+
+	/**
+	 * @param romanSymbols
+	 * @param queryResultCache answers repeated queries, null to evaluate every
+	 *                         query
+	 */
+	public QueryService(List<RomanNumeral> romanSymbols, QueryResultCache queryResultCache) {
+		this.romanSymbols = romanSymbols;
+		this.queryResultCache = queryResultCache;
+		this.currencyConversionOutputProcessor = CurrencyConversionOutputProcessor.builder()
+				.symbolRegistry(publishedDefinitions).outputSink(OutputSink.noOp())
+				.queryResultCache(queryResultCache).build();
+	}
+
+	/**
+	 * Applies the definitions and evaluates the queries of the input in the
+	 * order of the lines. A query sees the definitions published before the
+	 * request and the ones of the request above it. Nothing is published if a
+	 * line fails.
+	 * @param input
+	 * @return results of the queries in input order
+	 * @throws IOException
+	 */
+	public List<String> process(BufferedReader input) throws IOException {
+		final InputClassifier inputClassifier = new InputClassifier(romanSymbols);
+		final List<InputRecord> inputRecords = new ArrayList<InputRecord>();
+		boolean hasDefinitions = false;
+		String line;
+		while ((line = input.readLine()) != null) {
+			final Optional<InputRecord> classifiedLine = inputClassifier.classify(line);
+			if (classifiedLine.isPresent()) {
+				inputRecords.add(classifiedLine.get());
+				hasDefinitions |= isDefinition(classifiedLine.get());
+			}
+		}
+		if (!hasDefinitions) {
+			final CurrencyConversionOutputProcessor processor = currentProcessor();
+			final List<String> results = new ArrayList<String>();
+			for (InputRecord query : inputRecords) {
+				results.add(processor.calculateValuesForQuery(query));
+			}
+			return results;
+		}
+		return apply(inputRecords);
+	}
+
+	/**
+	 * @return snapshot of the definitions the queries are evaluated against
+	 */
+	public GalacticSymbolRegistry getDefinitions() {
+		return publishedDefinitions;
+	}
+
+	/**
+	 * Applies the request to a copy of the session and publishes the copy once
+	 * every line succeeded
+	 * @param inputRecords definitions and queries in input order
+	 * @return results of the queries in input order
+	 */
+	private synchronized List<String> apply(List<InputRecord> inputRecords) {
+		final DefinitionSession session = definitionSession.copy();
+		final CurrencyConversionOutputProcessor processor = currencyConversionOutputProcessor
+				.withSymbolRegistry(session.getSymbolRegistry(), OutputSink.noOp());
+		final List<String> results = new ArrayList<String>();
+		for (InputRecord inputRecord : inputRecords) {
+			if (inputRecord.getType() == InputRecordType.GALACTIC_CURRENCY_DEFINITION) {
+				session.defineGalacticCurrency(((GalacticCurrencyDefinition) inputRecord).toGalacticCurrency());
+			} else if (inputRecord.getType() == InputRecordType.METAL_VALUE_DEFINITION) {
+				session.defineMetal((MetalValueDefinition) inputRecord);
+			} else {
+				results.add(processor.calculateValuesForQuery(inputRecord));
+			}
+		}
+		definitionSession = session;
+		publishedDefinitions = session.getSymbolRegistry().snapshot();
+		return results;
+	}
+
+	/**
+	 * @return processor over the published definitions
+	 */
+	private CurrencyConversionOutputProcessor currentProcessor() {
+		final GalacticSymbolRegistry definitions = publishedDefinitions;
+		CurrencyConversionOutputProcessor processor = currencyConversionOutputProcessor;
+		if (processor.getSymbolRegistry() != definitions) {
+			processor = processor.withSymbolRegistry(definitions, OutputSink.noOp());
+			currencyConversionOutputProcessor = processor;
+		}
+		return processor;
+	}
+
+	private static boolean isDefinition(InputRecord inputRecord) {
+		return inputRecord.getType() == InputRecordType.GALACTIC_CURRENCY_DEFINITION
+				|| inputRecord.getType() == InputRecordType.METAL_VALUE_DEFINITION;
+	}
+
+}
@@ -0,0 +1,329 @@
+package galaxy.merchant.workload;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import com.google.common.base.Preconditions;
+
+/**
+ * Generates conversion input of any size for performance work: the currency and
+ * metal definitions followed by a mix of queries. The queries are drawn from a
+ * pool of distinct queries with a Zipf distribution, so the repetition of
+ * queries can be skewed, and the values have roman numerals of a chosen length.
+ * A share of the lines can be made invalid: numerals breaking the subtraction
+ * or the repetition rule, unknown metals and credits that are not a number.
+ * Undefined currency symbols are not among them, the conversion skips them.
+ * <p>
+ * The input only depends on the profile and the seed. It is passed on line by
+ * line, only the pool of distinct queries is held in memory.
+ *
+ * @author kommineni
+ *
+ */
+public class WorkloadGenerator {
+
+	static final char[] ROMAN_SYMBOLS = { 'I', 'V', 'X', 'L', 'C', 'D', 'M' };
+
+	// M is not repeatable, so 1899 (MDCCCXCIX) is the largest value and 1888
+	// (MDCCCLXXXVIII) the longest numeral
+	static final int LARGEST_VALUE = 1899;
+	static final int MAX_NUMERAL_LENGTH = 13;
+
+	// the credits of a metal, up to LARGEST_VALUE * (metal + 17), must be an int
+	static final int MAX_METALS = Integer.MAX_VALUE / LARGEST_VALUE - 17;
+
+	static final String UNCATEGORIZED_QUERY = "how much wood could a woodchuck chuck if a woodchuck could chuck wood ?";
+	static final String UNKNOWN_METAL = "Unobtainium";
+
+	private static final String[] METAL_NAMES = { "Silver", "Gold", "Iron", "Copper", "Platinum", "Nickel", "Cobalt",
+			"Titanium", "Zinc", "Tin" };
+	private static final int INVALID_LINE_KINDS = 4;
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+	// values by the length of their roman numeral
+	private static final int[][] VALUES_BY_NUMERAL_LENGTH = valuesByNumeralLength();
+
+	private final WorkloadProfile profile;
+	private final long seed;
+
+	/**
+	 * @param profile
+	 * @param seed    the same seed generates the same input
+	 */
+	public WorkloadGenerator(WorkloadProfile profile, long seed) {
+		Preconditions.checkArgument(profile != null);
+		this.profile = profile;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param lines        total number of lines including the definitions
+	 * @param lineConsumer receives every line in input order
+	 * @return number of lines generated
+	 */
+	public long generate(long lines, Consumer<String> lineConsumer) {
+		final Random random = new Random(seed);
+		long generated = 0;
+		for (int symbol = 0; symbol < profile.getCurrencySymbols() && generated < lines; symbol++, generated++) {
+			lineConsumer.accept(currencySymbol(symbol) + " is " + ROMAN_SYMBOLS[symbol % ROMAN_SYMBOLS.length]);
+		}
+		for (int metal = 0; metal < profile.getMetals() && generated < lines; metal++, generated++) {
+			final int units = value(random);
+			lineConsumer.accept(galacticExpression(units, random) + " " + metalName(metal) + " is "
+					+ units * (metal + 17) + " Credits");
+		}
+		if (generated == lines) {
+			return generated;
+		}
+		final List<String> queries = queries(random);
+		final double[] cumulativeFrequencies = cumulativeFrequencies(queries.size(), profile.getRepetitionSkew());
+		for (; generated < lines; generated++) {
+			if (profile.getInvalidRate() > 0 && random.nextDouble() < profile.getInvalidRate()) {
+				lineConsumer.accept(invalidLine(random));
+			} else {
+				lineConsumer.accept(queries.get(rank(cumulativeFrequencies, random.nextDouble())));
+			}
+		}
+		return generated;
+	}
+
+	/**
+	 * @param lines total number of lines including the definitions
+	 * @return the lines in input order
+	 */
+	public List<String> generate(int lines) {
+		final List<String> input = new ArrayList<String>(lines);
+		generate(lines, input::add);
+		return input;
+	}
+
+	/**
+	 * @param lines  total number of lines including the definitions
+	 * @param writer receives the lines, each followed by a line separator
+	 * @return number of lines generated
+	 * @throws IOException
+	 */
+	public long write(long lines, Writer writer) throws IOException {
+		try {
+			return generate(lines, line -> {
+				try {
+					writer.write(line);
+					writer.write(System.lineSeparator());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * @param args --lines=n, --seed=n, --currencies=n, --metals=n,
+	 *             --mix=howMuch,howManyCredits,uncategorized, --distinct=n,
+	 *             --skew=exponent, --numeral-length=min-max, --invalid=rate and
+	 *             the output file, System.out otherwise
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		final WorkloadProfile.WorkloadProfileBuilder profile = WorkloadProfile.DEFAULT.toBuilder();
+		long lines = 1_000_000;
+		long seed = 42;
+		String outputFile = null;
+		for (String arg : args) {
+			final String value = arg.substring(arg.indexOf('=') + 1);
+			if (arg.startsWith("--lines=")) {
+				lines = Long.parseLong(value);
+			} else if (arg.startsWith("--seed=")) {
+				seed = Long.parseLong(value);
+			} else if (arg.startsWith("--currencies=")) {
+				profile.currencySymbols(Integer.parseInt(value));
+			} else if (arg.startsWith("--metals=")) {
+				profile.metals(Integer.parseInt(value));
+			} else if (arg.startsWith("--mix=")) {
+				final String[] weights = value.split(",");
+				Preconditions.checkArgument(weights.length == 3, "--mix=howMuch,howManyCredits,uncategorized");
+				profile.howMuchWeight(Integer.parseInt(weights[0]))
+						.howManyCreditsWeight(Integer.parseInt(weights[1]))
+						.uncategorizedWeight(Integer.parseInt(weights[2]));
+			} else if (arg.startsWith("--distinct=")) {
+				profile.distinctQueries(Integer.parseInt(value));
+			} else if (arg.startsWith("--skew=")) {
+				profile.repetitionSkew(Double.parseDouble(value));
+			} else if (arg.startsWith("--numeral-length=")) {
+				final String[] range = value.split("-");
+				profile.minNumeralLength(Integer.parseInt(range[0]))
+						.maxNumeralLength(Integer.parseInt(range[range.length - 1]));
+			} else if (arg.startsWith("--invalid=")) {
+				profile.invalidRate(Double.parseDouble(value));
+			} else {
+				outputFile = arg;
+			}
+		}
+		final WorkloadGenerator workloadGenerator = new WorkloadGenerator(profile.build(), seed);
+		try (Writer writer = outputFile == null
+				? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE)
+				: new BufferedWriter(Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8),
+						OUTPUT_BUFFER_SIZE)) {
+			workloadGenerator.write(lines, writer);
+		}
+	}
+
+	/**
+	 * @param random
+	 * @return the distinct queries, the most frequent first
+	 */
+	private List<String> queries(Random random) {
+		final int totalWeight = profile.getHowMuchWeight() + profile.getHowManyCreditsWeight()
+				+ profile.getUncategorizedWeight();
+		final List<String> queries = new ArrayList<String>(profile.getDistinctQueries());
+		for (int i = 0; i < profile.getDistinctQueries(); i++) {
+			final int kind = random.nextInt(totalWeight);
+			if (kind < profile.getHowMuchWeight()) {
+				queries.add("how much is " + galacticExpression(value(random), random) + " ?");
+			} else if (kind < profile.getHowMuchWeight() + profile.getHowManyCreditsWeight()) {
+				queries.add("how many Credits is " + galacticExpression(value(random), random) + " "
+						+ metalName(random.nextInt(profile.getMetals())) + " ?");
+			} else {
+				queries.add(UNCATEGORIZED_QUERY);
+			}
+		}
+		return queries;
+	}
+
+	private String invalidLine(Random random) {
+		switch (random.nextInt(INVALID_LINE_KINDS)) {
+		case 0:
+			// I before M
+			return "how much is " + currencySymbol(0) + " " + currencySymbol(6) + " ?";
+		case 1:
+			// the same currency four times
+			final String one = currencySymbol(0);
+			return "how much is " + one + " " + one + " " + one + " " + one + " ?";
+		case 2:
+			return "how many Credits is " + galacticExpression(value(random), random) + " " + UNKNOWN_METAL + " ?";
+		default:
+			return galacticExpression(value(random), random) + " " + metalName(random.nextInt(profile.getMetals()))
+					+ " is many Credits";
+		}
+	}
+
+	/**
+	 * @param random
+	 * @return a value whose numeral length is uniform within the profile
+	 */
+	private int value(Random random) {
+		final int[] values = VALUES_BY_NUMERAL_LENGTH[profile.getMinNumeralLength()
+				+ random.nextInt(profile.getMaxNumeralLength() - profile.getMinNumeralLength() + 1)];
+		return values[random.nextInt(values.length)];
+	}
+
+	/**
+	 * @param value
+	 * @param random
+	 * @return the canonical roman numeral of the value written with random alias
+	 *         symbols
+	 */
+	private String galacticExpression(int value, Random random) {
+		final StringBuilder expression = new StringBuilder();
+		for (char romanSymbol : toRoman(value).toCharArray()) {
+			if (expression.length() > 0) {
+				expression.append(' ');
+			}
+			expression.append(aliasOf(romanSymbol, random));
+		}
+		return expression.toString();
+	}
+
+	private String aliasOf(char romanSymbol, Random random) {
+		int numeral = 0;
+		while (ROMAN_SYMBOLS[numeral] != romanSymbol) {
+			numeral++;
+		}
+		final int aliases = (profile.getCurrencySymbols() - numeral + ROMAN_SYMBOLS.length - 1)
+				/ ROMAN_SYMBOLS.length;
+		return currencySymbol(numeral + ROMAN_SYMBOLS.length * random.nextInt(aliases));
+	}
+
+	static String currencySymbol(int symbol) {
+		final StringBuilder currencySymbol = new StringBuilder("g");
+		int remaining = symbol;
+		do {
+			currencySymbol.append((char) ('a' + remaining % 26));
+			remaining /= 26;
+		} while (remaining > 0);
+		return currencySymbol.toString();
+	}
+
+	static String metalName(int metal) {
+		return metal < METAL_NAMES.length ? METAL_NAMES[metal] : "Alloy" + metal;
+	}
+
+	static String toRoman(int value) {
+		final int[] values = { 1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1 };
+		final String[] numerals = { "M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I" };
+		final StringBuilder roman = new StringBuilder();
+		int remaining = value;
+		for (int i = 0; i < values.length; i++) {
+			while (remaining >= values[i]) {
+				roman.append(numerals[i]);
+				remaining -= values[i];
+			}
+		}
+		return roman.toString();
+	}
+
+	/**
+	 * @param ranks
+	 * @param skew  exponent of the Zipf distribution
+	 * @return cumulative probability of the ranks, the last one is 1
+	 */
+	static double[] cumulativeFrequencies(int ranks, double skew) {
+		final double[] cumulativeFrequencies = new double[ranks];
+		double total = 0;
+		for (int rank = 0; rank < ranks; rank++) {
+			total += 1 / Math.pow(rank + 1, skew);
+			cumulativeFrequencies[rank] = total;
+		}
+		for (int rank = 0; rank < ranks; rank++) {
+			cumulativeFrequencies[rank] /= total;
+		}
+		cumulativeFrequencies[ranks - 1] = 1;
+		return cumulativeFrequencies;
+	}
+
+	/**
+	 * @param cumulativeFrequencies
+	 * @param probability           uniform in [0, 1)
+	 * @return the first rank whose cumulative probability exceeds the probability
+	 */
+	static int rank(double[] cumulativeFrequencies, double probability) {
+		final int index = Arrays.binarySearch(cumulativeFrequencies, probability);
+		return index >= 0 ? Math.min(index + 1, cumulativeFrequencies.length - 1) : -index - 1;
+	}
+
+	private static int[][] valuesByNumeralLength() {
+		final List<List<Integer>> values = new ArrayList<List<Integer>>(MAX_NUMERAL_LENGTH + 1);
+		for (int length = 0; length <= MAX_NUMERAL_LENGTH; length++) {
+			values.add(new ArrayList<Integer>());
+		}
+		for (int value = 1; value <= LARGEST_VALUE; value++) {
+			values.get(toRoman(value).length()).add(value);
+		}
+		final int[][] valuesByNumeralLength = new int[MAX_NUMERAL_LENGTH + 1][];
+		for (int length = 0; length <= MAX_NUMERAL_LENGTH; length++) {
+			valuesByNumeralLength[length] = values.get(length).stream().mapToInt(Integer::intValue).toArray();
+		}
+		return valuesByNumeralLength;
+	}
+}
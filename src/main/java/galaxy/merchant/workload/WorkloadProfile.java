@@ -0,0 +1,84 @@
+package galaxy.merchant.workload;
+
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Shape of a synthetic conversion input generated by {@link WorkloadGenerator}.
+ * Profiles are built from {@link #DEFAULT} with {@link #toBuilder()}.
+ *
+ * @author kommineni
+ *
+ */
+@EqualsAndHashCode
+@ToString
+@Getter
+public class WorkloadProfile {
+
+	/**
+	 * The bundled input at scale: one symbol per roman numeral, three metals,
+	 * mostly credit queries over 1024 distinct queries of uniform frequency
+	 */
+	public static final WorkloadProfile DEFAULT = builder().currencySymbols(7).metals(3).howMuchWeight(4)
+			.howManyCreditsWeight(5).uncategorizedWeight(1).distinctQueries(1024).repetitionSkew(0).minNumeralLength(1)
+			.maxNumeralLength(WorkloadGenerator.MAX_NUMERAL_LENGTH).invalidRate(0).build();
+
+	// currency symbols are spread evenly over the roman numerals
+	private final int currencySymbols;
+	private final int metals;
+	// relative weights of the query kinds
+	private final int howMuchWeight;
+	private final int howManyCreditsWeight;
+	private final int uncategorizedWeight;
+	private final int distinctQueries;
+	// exponent of the Zipf distribution of the distinct queries, 0 for uniform
+	private final double repetitionSkew;
+	// roman numeral length of the values, uniform between both
+	private final int minNumeralLength;
+	private final int maxNumeralLength;
+	// share of the lines after the definitions that are invalid
+	private final double invalidRate;
+
+	/**
+	 * @param currencySymbols      at least one per roman numeral
+	 * @param metals               at most {@link WorkloadGenerator#MAX_METALS}
+	 * @param howMuchWeight        weight of how much is queries
+	 * @param howManyCreditsWeight weight of how many Credits is queries
+	 * @param uncategorizedWeight  weight of queries that can not be answered
+	 * @param distinctQueries      number of different valid queries
+	 * @param repetitionSkew       0 to repeat every query equally often, larger
+	 *                             to repeat the first queries more often
+	 * @param minNumeralLength     shortest roman numeral of a value
+	 * @param maxNumeralLength     longest roman numeral of a value
+	 * @param invalidRate          probability of an invalid line among the queries
+	 */
+	@Builder(toBuilder = true)
+	private WorkloadProfile(int currencySymbols, int metals, int howMuchWeight, int howManyCreditsWeight,
+			int uncategorizedWeight, int distinctQueries, double repetitionSkew, int minNumeralLength,
+			int maxNumeralLength, double invalidRate) {
+		Preconditions.checkArgument(currencySymbols >= WorkloadGenerator.ROMAN_SYMBOLS.length,
+				"At least one currency symbol per roman numeral");
+		Preconditions.checkArgument(metals > 0 && metals <= WorkloadGenerator.MAX_METALS,
+				"Between 1 and %s metals", WorkloadGenerator.MAX_METALS);
+		Preconditions.checkArgument(howMuchWeight >= 0 && howManyCreditsWeight >= 0 && uncategorizedWeight >= 0
+				&& howMuchWeight + howManyCreditsWeight + uncategorizedWeight > 0);
+		Preconditions.checkArgument(distinctQueries > 0);
+		Preconditions.checkArgument(repetitionSkew >= 0);
+		Preconditions.checkArgument(minNumeralLength >= 1 && minNumeralLength <= maxNumeralLength
+				&& maxNumeralLength <= WorkloadGenerator.MAX_NUMERAL_LENGTH);
+		Preconditions.checkArgument(invalidRate >= 0 && invalidRate <= 1);
+		this.currencySymbols = currencySymbols;
+		this.metals = metals;
+		this.howMuchWeight = howMuchWeight;
+		this.howManyCreditsWeight = howManyCreditsWeight;
+		this.uncategorizedWeight = uncategorizedWeight;
+		this.distinctQueries = distinctQueries;
+		this.repetitionSkew = repetitionSkew;
+		this.minNumeralLength = minNumeralLength;
+		this.maxNumeralLength = maxNumeralLength;
+		this.invalidRate = invalidRate;
+	}
+}
@@ -12,6 +12,7 @@ import galaxy.merchant.model.GalacticCurrency;
 import galaxy.merchant.model.GalacticCurrencyExpression;
 import galaxy.merchant.model.CommonMetal;
 import galaxy.merchant.model.RomanNumeral;
+import galaxy.merchant.output.OutputSink;
 
 /**
  * @author kommineni
@@ -80,6 +81,18 @@ public class CurrencyConversionOutputProcessorTest {
 		assertThat(gcQueryResult).isEqualTo(expectedResult);
 	}
 
+	@Test
+	public void unknownSymbolsOnly_formatGCQueryResult_shouldNotStartWithASpace() {
+		final GalacticCurrencyExpression noSymbols = new GalacticCurrencyExpression(new ArrayList<GalacticCurrency>());
+
+		assertThat(CurrencyConversionOutputProcessor.formatGCQueryResult("how much is foo ?", noSymbols))
+				.isEqualTo("is 0");
+		assertThat(CurrencyConversionOutputProcessor.formatGCQueryResult(noSymbols)).isEqualTo("is 0");
+		assertThat(new GalaxyMerchant(OutputSink.noOp())
+				.galacticCurrencyConversion(Lists.newArrayList("glob is I", "how much is foo ?")))
+						.containsExactly("is 0");
+	}
+
 	@Test
 	public void creditQuery_calculateValuesForCreditQueries_shouldReturnCreditsQueryResults() {
 		CommonMetal silver = new CommonMetal("Silver", BigDecimal.valueOf(17));
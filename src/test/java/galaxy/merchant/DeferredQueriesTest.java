@@ -0,0 +1,103 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import galaxy.merchant.model.CommonMetal;
+import galaxy.merchant.model.GalacticCurrency;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.model.NumeralTable;
+import galaxy.merchant.model.UnitPrice;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.GalacticCurrencyDefinition;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+
+/**
+ * @author kommineni
+ *
+ */
+public class DeferredQueriesTest {
+
+	final InputClassifier inputClassifier = new InputClassifier(NumeralTable.standard().getRomanSymbols());
+
+	@Test
+	public void queriesBeforeDefinitions_galacticCurrencyConversion_shouldAnswerThemWhenTheDefinitionsArrive()
+			throws Exception {
+		String input = String.join("\n", "glob is I", "how many Credits is glob glob Silver ?",
+				"how much is prok glob ?", "how much is glob glob ?", "prok is V", "glob glob Silver is 34 Credits",
+				"how many Credits is glob Gold ?");
+		DeferredQueries deferredQueries = new DeferredQueries();
+		List<String> results = new ArrayList<String>();
+		List<String> invalidLines = new ArrayList<String>();
+
+		long resultCount = GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.invalidLineHandler((line, errorCode) -> invalidLines.add(line)).build().galacticCurrencyConversion(
+				new BufferedReader(new StringReader(input))::readLine, new GalacticSymbolRegistry(), deferredQueries,
+				results::add);
+
+		assertThat(results).containsExactly("glob glob is 2", "prok glob is 6",
+				"glob glob Silver is 34 Credits", "Common metal not found in credit transaction");
+		assertThat(resultCount).isEqualTo(4);
+		assertThat(invalidLines).containsExactly("how many Credits is glob Gold ?");
+		assertThat(deferredQueries.getParkedCount()).isEqualTo(3);
+		assertThat(deferredQueries.getResolvedCount()).isEqualTo(2);
+		assertThat(deferredQueries.size()).isZero();
+	}
+
+	@Test
+	public void queryMissingCurrencyAndMetal_resolve_shouldParkItUnderTheNextMissingSymbol() {
+		GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		DeferredQueries deferredQueries = new DeferredQueries();
+		List<InputRecord> released = new ArrayList<InputRecord>();
+		InputRecord creditQuery = classify("how many Credits is glob Silver ?");
+
+		assertThat(deferredQueries.defer(creditQuery, symbolRegistry, released::add)).isTrue();
+		symbolRegistry.registerGalacticCurrency(classifyCurrency("glob is I"));
+		deferredQueries.resolve("glob", symbolRegistry, released::add);
+		assertThat(released).isEmpty();
+		assertThat(DeferredQueries.missingSymbol(creditQuery, symbolRegistry)).isEqualTo("Silver");
+
+		symbolRegistry.registerMetal(new CommonMetal("Silver", UnitPrice.of(17, 1)));
+		deferredQueries.resolve("Silver", symbolRegistry, released::add);
+		assertThat(released).containsExactly(creditQuery);
+	}
+
+	@Test
+	public void parkedQueries_expireAndDefer_shouldReleaseTimedOutAndOldestQueries() {
+		AtomicLong nanoTime = new AtomicLong();
+		DeferredQueries deferredQueries = new DeferredQueries(2, Duration.ofNanos(100), nanoTime::get);
+		GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		List<InputRecord> released = new ArrayList<InputRecord>();
+		InputRecord first = classify("how much is glob ?");
+		InputRecord second = classify("how much is prok ?");
+		InputRecord third = classify("how much is pish ?");
+
+		deferredQueries.defer(first, symbolRegistry, released::add);
+		nanoTime.set(50);
+		deferredQueries.defer(second, symbolRegistry, released::add);
+		deferredQueries.defer(third, symbolRegistry, released::add);
+		assertThat(released).containsExactly(first);
+
+		nanoTime.set(150);
+		deferredQueries.expire(released::add);
+		assertThat(released).containsExactly(first, second, third);
+		assertThat(deferredQueries.getEvictedCount()).isEqualTo(1);
+		assertThat(deferredQueries.getExpiredCount()).isEqualTo(2);
+		deferredQueries.resolve("prok", symbolRegistry, released::add);
+		assertThat(released).hasSize(3);
+	}
+
+	private InputRecord classify(String line) {
+		return inputClassifier.classify(line).get();
+	}
+
+	private GalacticCurrency classifyCurrency(String line) {
+		return ((GalacticCurrencyDefinition) classify(line)).toGalacticCurrency();
+	}
+}
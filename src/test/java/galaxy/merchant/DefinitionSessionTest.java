@@ -0,0 +1,85 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.Test;
+import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+import galaxy.merchant.model.CommonMetal;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+
+/**
+ * @author kommineni
+ *
+ */
+public class DefinitionSessionTest {
+
+	@Test
+	public void redefinedCurrency_define_shouldRecomputeOnlyDependentMetals() {
+		final DefinitionSession definitionSession = session("glob is I", "prok is V", "pish is X",
+				"glob glob Silver is 34 Credits", "glob prok Gold is 57800 Credits", "pish pish Iron is 3910 Credits");
+
+		final List<CommonMetal> recomputedMetals = definitionSession.define("glob is X");
+
+		assertThat(recomputedMetals).extracting("metalName").containsExactly("Silver", "Gold");
+		assertThat(unitValue(definitionSession, "Silver")).isEqualByComparingTo("1.7");
+		assertThat(unitValue(definitionSession, "Gold")).isEqualByComparingTo("3853.33");
+		assertThat(unitValue(definitionSession, "Iron")).isEqualByComparingTo("195.5");
+		assertThat(definitionSession.define("glob is X")).isEmpty();
+	}
+
+	@Test
+	public void symbolDefinedLater_define_shouldRecomputeTheMetal() {
+		final DefinitionSession definitionSession = session("glob is I", "glob tegj Gold is 100 Credits");
+		assertThat(definitionSession.getSymbolRegistry().findMetal("Gold")).isEmpty();
+		assertThat(definitionSession.getDependentMetals("tegj")).containsExactly("Gold");
+
+		assertThat(definitionSession.define("tegj is V")).extracting("metalName").containsExactly("Gold");
+		assertThat(unitValue(definitionSession, "Gold")).isEqualByComparingTo("25");
+
+		definitionSession.define("glob glob Gold is 100 Credits");
+		assertThat(definitionSession.getDependentMetals("tegj")).isEmpty();
+		assertThat(definitionSession.getDependentMetals("glob")).containsExactly("Gold");
+		assertThat(definitionSession.define("tegj is X")).isEmpty();
+		assertThat(unitValue(definitionSession, "Gold")).isEqualByComparingTo("50");
+	}
+
+	@Test
+	public void updateInvalidatingAMetal_define_shouldChangeNothing() {
+		final DefinitionSession definitionSession = session("glob is I", "prok is V", "glob prok Silver is 40 Credits");
+		final long version = definitionSession.getSymbolRegistry().getVersion();
+
+		assertThatThrownBy(() -> definitionSession.define("prok is M"))
+				.isInstanceOf(InvalidGalacticCurrencyExpressionException.class);
+
+		assertThat(definitionSession.getSymbolRegistry().getVersion()).isEqualTo(version);
+		assertThat(definitionSession.getSymbolRegistry().findGalacticCurrency("prok").get().getRomanValue())
+				.isEqualTo(5);
+		assertThat(unitValue(definitionSession, "Silver")).isEqualByComparingTo("10");
+	}
+
+	@Test
+	public void redefinedMetalWithUndefinedSymbol_define_shouldKeepTheEarlierPrice() {
+		final DefinitionSession definitionSession = session("glob is I", "glob glob Silver is 34 Credits");
+
+		assertThat(definitionSession.define("glob pish Silver is 100 Credits")).isEmpty();
+		assertThat(unitValue(definitionSession, "Silver")).isEqualByComparingTo("17");
+
+		definitionSession.define("pish is X");
+		assertThat(unitValue(definitionSession, "Silver")).isEqualByComparingTo("11.11");
+	}
+
+	private static DefinitionSession session(String... definitions) {
+		final DefinitionSession definitionSession = new DefinitionSession(new GalacticSymbolRegistry());
+		for (String definition : definitions) {
+			definitionSession.define(definition);
+		}
+		return definitionSession;
+	}
+
+	private static BigDecimal unitValue(DefinitionSession definitionSession, String metalName) {
+		return definitionSession.getSymbolRegistry().findMetal(metalName).get().getPerUnitValue();
+	}
+
+}
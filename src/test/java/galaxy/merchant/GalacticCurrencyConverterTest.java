@@ -0,0 +1,131 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author kommineni
+ *
+ */
+public class GalacticCurrencyConverterTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+	private PrintStream standardOutput;
+
+	@Before
+	public void captureOutput() throws IOException {
+		standardOutput = System.out;
+		System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8.name()));
+	}
+
+	@After
+	public void restoreOutput() {
+		System.setOut(standardOutput);
+	}
+
+	@Test
+	public void queriesBeforeDefinitions_main_shouldAnswerThemAgainstAllDefinitions() throws Exception {
+		Path inputFile = write("input.txt", "how much is glob glob ?", "how many Credits is glob Silver ?",
+				"glob is I", "glob glob Silver is 34 Credits", "how much is glob ?");
+
+		GalacticCurrencyConverter.main(new String[] { inputFile.toString() });
+
+		assertThat(outputLines()).containsExactly("glob glob is 2", "glob Silver is 17 Credits", "glob is 1");
+	}
+
+	@Test
+	public void inputFile_main_shouldLeaveStandardOutputOpen() throws Exception {
+		GalacticCurrencyConverter.main(new String[] { write("input.txt", "glob is I", "how much is glob ?").toString() });
+		System.out.println("after the conversion");
+
+		assertThat(outputLines()).containsExactly("glob is 1", "after the conversion");
+	}
+
+	@Test
+	public void changedDefinitions_mainWithSnapshot_shouldPreferTheInputAndRewriteTheSnapshot() throws Exception {
+		Path snapshotFile = temporaryFolder.getRoot().toPath().resolve("definitions.snapshot");
+		String snapshotOption = "--snapshot=" + snapshotFile;
+		Path firstInput = write("a.txt", "glob is I", "prok is V", "glob glob Silver is 34 Credits",
+				"how much is glob prok ?");
+		Path secondInput = write("b.txt", "glob is X", "glob glob Silver is 40 Credits", "how much is glob prok ?",
+				"how many Credits is glob prok Silver ?");
+
+		GalacticCurrencyConverter.main(new String[] { snapshotOption, firstInput.toString() });
+		byte[] firstSnapshot = Files.readAllBytes(snapshotFile);
+		output.reset();
+		GalacticCurrencyConverter.main(new String[] { snapshotOption, secondInput.toString() });
+
+		assertThat(outputLines()).containsExactly("glob prok is 15", "glob prok Silver is 30 Credits");
+		assertThat(Files.readAllBytes(snapshotFile)).isNotEqualTo(firstSnapshot);
+		output.reset();
+		GalacticCurrencyConverter.main(new String[] { snapshotOption, write("c.txt", "how much is glob ?").toString() });
+		assertThat(outputLines()).containsExactly("glob is 10");
+	}
+
+	@Test
+	public void unknownOption_main_shouldBeRejectedWithTheUsage() throws Exception {
+		Path inputFile = write("input.txt", "glob is I", "how much is glob ?");
+
+		assertThatThrownBy(() -> GalacticCurrencyConverter.main(new String[] { "--paralel", inputFile.toString() }))
+				.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Unknown option --paralel")
+				.hasMessageEndingWith(GalacticCurrencyConverter.USAGE);
+		assertThat(output.toByteArray()).isEmpty();
+	}
+
+	@Test
+	public void incompatibleOptions_main_shouldBeRejected() throws Exception {
+		String inputFile = write("input.txt", "glob is I", "how much is glob ?").toString();
+
+		assertThatThrownBy(() -> GalacticCurrencyConverter.main(new String[] { "--parallel", "--pipeline", inputFile }))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("--parallel can not be combined with --pipeline");
+		assertThatThrownBy(() -> GalacticCurrencyConverter.main(new String[] { "--defer=10", "--ingest=in" }))
+				.hasMessageStartingWith("--defer can not be combined with --ingest");
+		assertThatThrownBy(
+				() -> GalacticCurrencyConverter.main(new String[] { "--server=0", "--snapshot=s.bin", inputFile }))
+						.hasMessageStartingWith("--snapshot can not be combined with --server");
+		assertThatThrownBy(() -> GalacticCurrencyConverter.main(new String[] { "--output-dir=out", inputFile }))
+				.hasMessageStartingWith("--output-dir needs --ingest");
+		assertThat(output.toByteArray()).isEmpty();
+	}
+
+	@Test
+	public void invalidOptionValues_main_shouldBeRejectedWithTheUsage() throws Exception {
+		String inputFile = write("input.txt", "glob is I", "how much is glob ?").toString();
+
+		for (String invalidOption : new String[] { "--cache=abc", "--cache=0", "--server=x", "--server=70000",
+				"--defer=x", "--credit-scale=x", "--credit-scale=-1", "--credit-rounding=FOO" }) {
+			assertThatThrownBy(() -> GalacticCurrencyConverter.main(new String[] { invalidOption, inputFile }))
+					.as(invalidOption).isInstanceOf(IllegalArgumentException.class)
+					.hasMessageStartingWith("Invalid value for " + invalidOption.substring(0, invalidOption.indexOf('=')))
+					.hasMessageEndingWith(GalacticCurrencyConverter.USAGE);
+		}
+		assertThat(output.toByteArray()).isEmpty();
+	}
+
+	private Path write(String fileName, String... lines) throws IOException {
+		return Files.write(temporaryFolder.getRoot().toPath().resolve(fileName), Arrays.asList(lines),
+				StandardCharsets.UTF_8);
+	}
+
+	private List<String> outputLines() throws IOException {
+		System.out.flush();
+		return Arrays.asList(new String(output.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator()));
+	}
+}
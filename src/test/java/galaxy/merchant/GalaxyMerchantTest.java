@@ -1,11 +1,18 @@
 package galaxy.merchant;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import com.google.common.collect.Lists;
+import galaxy.merchant.exception.QueryErrorCode;
 import galaxy.merchant.model.GalacticCurrency;
+import galaxy.merchant.output.OutputSink;
 
 /**
  * @author kommineni
@@ -77,4 +84,75 @@ public class GalaxyMerchantTest {
 		assertThat(actualOutput).isEqualTo(expectedOutput);
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void inputData_streamingGalacticCurrencyConversion_shouldEmitResultsInInputOrder() throws Exception {
+
+		List<String> expectedOutput = Lists.newArrayList("pish tegj glob glob is 42", "glob prok Silver is 68 Credits",
+				"glob prok Gold is 57800 Credits", "glob prok Iron is 782 Credits","I have no idea what you are talking about");
+
+		GalaxyMerchant galaxyMerchant = new GalaxyMerchant();
+		final List<String> actualOutput = new ArrayList<String>();
+		final long resultCount = galaxyMerchant
+				.galacticCurrencyConversion(new StringReader(String.join("\n", inputData)), actualOutput::add);
+		assertThat(actualOutput).isEqualTo(expectedOutput);
+		assertThat(resultCount).isEqualTo(5);
+	}
+
+	@Test
+	public void nonTerminatingUnitValue_galacticCurrencyConversion_shouldRoundTheCredits() {
+		final List<String> actualOutput = new GalaxyMerchant(OutputSink.noOp())
+				.galacticCurrencyConversion(Lists.newArrayList("glob is I", "glob glob glob Copper is 10 Credits",
+						"how many Credits is glob Copper ?", "how many Credits is glob glob glob Copper ?"));
+		assertThat(actualOutput).containsExactly("glob Copper is 3.33 Credits", "glob glob glob Copper is 10 Credits");
+	}
+
+	@Test
+	public void reverseQueries_galacticCurrencyConversion_shouldRenderValuesInGalacticCurrency() {
+		final List<String> reverseQueries = new ArrayList<String>(inputData.subList(0, 7));
+		reverseQueries.addAll(Lists.newArrayList("how many galactic units is 42 ?", "how many Silver is 68 Credits ?",
+				"how many Iron is 3910 Credits ?", "how many galactic units is forty ?"));
+
+		final List<String> actualOutput = new GalaxyMerchant(OutputSink.noOp()).galacticCurrencyConversion(reverseQueries);
+
+		assertThat(actualOutput).containsExactly("42 is pish tegj glob glob", "68 Credits is glob prok Silver",
+				"3910 Credits is pish pish Iron", "I have no idea what you are talking about");
+	}
+
+	@Test
+	public void dirtyInput_galacticCurrencyConversion_shouldReportInvalidLinesAndContinue() {
+		final List<String> dirtyInput = Lists.newArrayList("glob is I", "prok is V", "glob glob Silver is 34 Credits",
+				"glob Gold is lots Credits", "zorg Copper is 10 Credits", "how many Credits is glob prok Silver ?",
+				"how much is glob glob glob glob ?", "how many Credits is glob Gold ?", "how much is prok glob ?");
+		final Map<String, QueryErrorCode> invalidLines = new LinkedHashMap<String, QueryErrorCode>();
+
+		final List<String> actualOutput = GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.invalidLineHandler(invalidLines::put).build().galacticCurrencyConversion(dirtyInput);
+
+		assertThat(actualOutput).containsExactly("glob prok Silver is 68 Credits",
+				"Invalid Currency Format - Repetition beyond permitted",
+				"Common metal not found in credit transaction", "prok glob is 6");
+		assertThat(invalidLines).containsExactly(entry("glob Gold is lots Credits", QueryErrorCode.INVALID_CREDITS),
+				entry("zorg Copper is 10 Credits", QueryErrorCode.NO_UNITS),
+				entry("how much is glob glob glob glob ?", QueryErrorCode.REPETITION_BEYOND_PERMITTED),
+				entry("how many Credits is glob Gold ?", QueryErrorCode.UNKNOWN_METAL));
+	}
+
+	@Test
+	public void dirtyInput_streamingGalacticCurrencyConversion_shouldReportInvalidLinesAndContinue()
+			throws Exception {
+		final List<String> invalidLines = new ArrayList<String>();
+		final List<String> actualOutput = new ArrayList<String>();
+
+		final long resultCount = GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.invalidLineHandler((line, errorCode) -> invalidLines.add(line)).build().galacticCurrencyConversion(
+						new StringReader("glob is I\nglob Silver is Credits\nhow much is glob glob glob glob ?\n"
+								+ "how much is glob glob ?"),
+						actualOutput::add);
+
+		assertThat(actualOutput).containsExactly("Invalid Currency Format - Repetition beyond permitted",
+				"glob glob is 2");
+		assertThat(resultCount).isEqualTo(2);
+		assertThat(invalidLines).containsExactly("glob Silver is Credits", "how much is glob glob glob glob ?");
+	}
+
+}
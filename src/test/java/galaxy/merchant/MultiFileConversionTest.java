@@ -0,0 +1,88 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.output.OutputSink;
+
+/**
+ * @author kommineni
+ *
+ */
+public class MultiFileConversionTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	@After
+	public void shutdownExecutor() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void filesSharingDefinitions_run_shouldAnswerTheQueriesOfEachFileAgainstTheMergedDefinitions()
+			throws IOException {
+		Path inputDirectory = temporaryFolder.newFolder("input").toPath();
+		write(inputDirectory.resolve("a.txt"), "glob is I", "prok is V", "how many Credits is glob prok Silver ?");
+		write(inputDirectory.resolve("b.txt"), "glob is X", "glob glob Silver is 34 Credits", "pish is X",
+				"how much is pish glob ?");
+		write(inputDirectory.resolve("c.txt"), "glob glob Silver is 1000 Credits", "how many Credits is glob Silver ?");
+		write(inputDirectory.resolve("notes.md"), "how much is glob ?");
+		Path outputDirectory = inputDirectory.resolve("out");
+		GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		List<Path> inputFiles = MultiFileConversion.listInputFiles(inputDirectory, "*.txt");
+
+		Map<Path, Long> resultCounts = new GalaxyMerchant(OutputSink.noOp()).multiFileConversion(executor)
+				.run(inputFiles, symbolRegistry, MultiFileConversion.outputDirectory(outputDirectory));
+
+		assertThat(resultCounts.keySet()).containsExactly(inputDirectory.resolve("a.txt"),
+				inputDirectory.resolve("b.txt"), inputDirectory.resolve("c.txt"));
+		assertThat(resultCounts.values()).containsExactly(1L, 1L, 1L);
+		assertThat(Files.readAllLines(outputDirectory.resolve("a.txt.out")))
+				.containsExactly("glob prok Silver is 68 Credits");
+		assertThat(Files.readAllLines(outputDirectory.resolve("b.txt.out"))).containsExactly("pish glob is 11");
+		assertThat(Files.readAllLines(outputDirectory.resolve("c.txt.out")))
+				.containsExactly("glob Silver is 17 Credits");
+		assertThat(symbolRegistry.getMetals()).hasSize(1);
+	}
+
+	@Test
+	public void invalidLines_run_shouldReportThemOnceAndConvertTheOtherLines() throws IOException {
+		Path inputDirectory = temporaryFolder.newFolder("input").toPath();
+		write(inputDirectory.resolve("a.txt"), "glob is I", "glob Silver is many Credits", "how much is glob ?");
+		write(inputDirectory.resolve("b.txt"), "glob glob Gold is 100 Credits", "how many Credits is glob Gold ?");
+		List<String> invalidLines = new ArrayList<String>();
+		List<String> results = new ArrayList<String>();
+
+		GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.invalidLineHandler((line, errorCode) -> invalidLines.add(line)).build()
+				.multiFileConversion(executor).run(MultiFileConversion.listInputFiles(inputDirectory, "*"),
+						new GalacticSymbolRegistry(), inputFile -> result -> {
+							synchronized (results) {
+								results.add(result);
+							}
+						});
+
+		assertThat(invalidLines).containsExactly("glob Silver is many Credits");
+		assertThat(results).containsExactlyInAnyOrder("glob is 1", "glob Gold is 50 Credits");
+	}
+
+	private static void write(Path file, String... lines) throws IOException {
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+	}
+}
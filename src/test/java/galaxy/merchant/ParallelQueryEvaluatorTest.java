@@ -0,0 +1,149 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.ClassifiedInput;
+import galaxy.merchant.parser.InputClassifier;
+import galaxy.merchant.parser.InputRecord;
+
+/**
+ * @author kommineni
+ *
+ */
+public class ParallelQueryEvaluatorTest {
+
+	final List<String> definitions = Lists.newArrayList("glob is I", "prok is V", "pish is X", "tegj is L",
+			"glob glob Silver is 34 Credits", "glob prok Gold is 57800 Credits", "pish pish Iron is 3910 Credits");
+
+	final List<String> queries = Lists.newArrayList("how much is pish tegj glob glob ?",
+			"how many Credits is glob prok Silver ?", "how many Credits is glob prok Gold ?",
+			"how many Credits is glob prok Iron ?", "how much wood could a woodchuck chuck if a woodchuck could chuck wood ?");
+
+	final List<String> expectedResults = Lists.newArrayList("pish tegj glob glob is 42",
+			"glob prok Silver is 68 Credits", "glob prok Gold is 57800 Credits", "glob prok Iron is 782 Credits",
+			"I have no idea what you are talking about");
+
+	final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void manyQueries_evaluate_shouldReturnAndWriteResultsInInputOrder() {
+		final List<String> input = new ArrayList<String>(definitions);
+		final List<String> expectedOutput = new ArrayList<String>();
+		for (int repeat = 0; repeat < 1000; repeat++) {
+			input.addAll(queries);
+			expectedOutput.addAll(expectedResults);
+		}
+		final List<String> writtenOutput = new ArrayList<String>();
+
+		final List<String> actualOutput = GalaxyMerchant.builder().outputSink(writtenOutput::add)
+				.parallelQueryEvaluator(new ParallelQueryEvaluator(executor, 7)).build().galacticCurrencyConversion(input);
+
+		assertThat(actualOutput).isEqualTo(expectedOutput);
+		assertThat(writtenOutput).isEqualTo(expectedOutput);
+	}
+
+	@Test
+	public void unknownMetal_evaluate_shouldWriteResultsBeforeTheFailingQuery() {
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		final List<InputRecord> classifiedQueries = classify(definitions, queries, symbolRegistry);
+		classifiedQueries.add(2, classify(definitions, Lists.newArrayList("how many Credits is glob Copper ?"),
+				new GalacticSymbolRegistry()).get(0));
+		final List<String> writtenOutput = new ArrayList<String>();
+
+		assertThatThrownBy(() -> new ParallelQueryEvaluator(executor, 1).evaluate(classifiedQueries, symbolRegistry,
+				writtenOutput::add)).isInstanceOf(InvalidGalacticCurrencyConvesionQueryException.class)
+						.hasMessage("Common metal not found in credit transaction");
+		assertThat(writtenOutput).isEqualTo(expectedResults.subList(0, 2));
+	}
+
+	@Test
+	public void parallelEvaluator_streamingGalacticCurrencyConversion_shouldEmitResultsInInputOrder() throws Exception {
+		final List<String> actualOutput = new ArrayList<String>();
+		final long resultCount = GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.parallelQueryEvaluator(new ParallelQueryEvaluator(executor, 2)).build()
+				.galacticCurrencyConversion(new StringReader(String.join("\n", definitions) + "\n"
+						+ String.join("\n", queries)), actualOutput::add);
+		assertThat(actualOutput).isEqualTo(expectedResults);
+		assertThat(resultCount).isEqualTo(5);
+	}
+
+	@Test
+	public void definitionsBetweenQueries_streamingGalacticCurrencyConversion_shouldEvaluateSmallBatchesInline()
+			throws Exception {
+		final List<String> input = new ArrayList<String>();
+		for (int i = 0; i < definitions.size(); i++) {
+			input.add(definitions.get(i));
+			input.add("how much is glob ?");
+		}
+		input.addAll(queries);
+		final List<String> actualOutput = new ArrayList<String>();
+
+		GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.parallelQueryEvaluator(new ParallelQueryEvaluator(command -> {
+					throw new AssertionError("Batch evaluated in parallel");
+				}, queries.size() + 1)).build()
+				.galacticCurrencyConversion(new StringReader(String.join("\n", input)), actualOutput::add);
+
+		assertThat(actualOutput).hasSize(definitions.size() + queries.size()).startsWith("glob is 1")
+				.endsWith(expectedResults.toArray(new String[0]));
+	}
+
+	@Test
+	public void unchangedDefinitions_snapshotOf_shouldReuseTheSnapshot() {
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		classify(definitions, queries, symbolRegistry);
+		final ParallelQueryEvaluator parallelQueryEvaluator = new ParallelQueryEvaluator(executor, 2);
+
+		final GalacticSymbolRegistry snapshot = parallelQueryEvaluator.snapshotOf(symbolRegistry);
+
+		assertThat(snapshot.isFrozen()).isTrue();
+		assertThat(parallelQueryEvaluator.snapshotOf(symbolRegistry)).isSameAs(snapshot);
+		classify(Lists.newArrayList("gloop is C"), queries, symbolRegistry);
+		assertThat(parallelQueryEvaluator.snapshotOf(symbolRegistry)).isNotSameAs(snapshot);
+	}
+
+	@Test
+	public void snapshot_registerGalacticCurrency_shouldBeRejected() {
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		classify(definitions, queries, symbolRegistry);
+		final GalacticSymbolRegistry snapshot = symbolRegistry.snapshot();
+
+		assertThat(snapshot.isFrozen()).isTrue();
+		assertThat(snapshot.snapshot()).isSameAs(snapshot);
+		assertThat(snapshot.getGalacticCurrencies()).isEqualTo(symbolRegistry.getGalacticCurrencies());
+		assertThat(snapshot.getMetals()).isEqualTo(symbolRegistry.getMetals());
+		assertThatThrownBy(() -> snapshot.registerGalacticCurrency(symbolRegistry.getGalacticCurrencies().get(0)))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	/**
+	 * Registers the definitions and returns the classified queries
+	 */
+	private static List<InputRecord> classify(List<String> definitions, List<String> queries,
+			GalacticSymbolRegistry symbolRegistry) {
+		final List<String> input = new ArrayList<String>(definitions);
+		input.addAll(queries);
+		final ClassifiedInput classifiedInput = new InputClassifier(
+				new GalaxyMerchant().getRomanSymbols()).classifyAll(input);
+		GalaxyMerchant.registerGalacticCurrencies(classifiedInput.getGalacticCurrencyDefinitions(), symbolRegistry);
+		GalaxyMerchant.registerMetals(classifiedInput.getMetalValueDefinitions(), symbolRegistry);
+		return new ArrayList<InputRecord>(classifiedInput.getQueries());
+	}
+
+}
@@ -0,0 +1,64 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.output.OutputSink;
+
+/**
+ * @author kommineni
+ *
+ */
+public class QueryResultCacheTest {
+
+	final List<String> inputData = Lists.newArrayList("glob is I", "prok is V", "glob glob Silver is 34 Credits",
+			"how many Credits is glob prok Silver ?", "how many Credits is   glob prok Silver ?",
+			"how much is glob prok ?", "how many Credits is glob prok Silver ?",
+			"how much wood could a woodchuck chuck if a woodchuck could chuck wood ?");
+
+	@Test
+	public void repeatedQueries_galacticCurrencyConversion_shouldBeAnsweredFromTheCache() {
+		final QueryResultCache queryResultCache = new QueryResultCache(16);
+		final List<String> writtenOutput = new ArrayList<String>();
+
+		final List<String> actualOutput = GalaxyMerchant.builder().outputSink(writtenOutput::add)
+				.queryResultCache(queryResultCache).build()
+				.galacticCurrencyConversion(inputData);
+
+		assertThat(actualOutput).containsExactly("glob prok Silver is 68 Credits", "glob prok Silver is 68 Credits",
+				"glob prok is 4", "glob prok Silver is 68 Credits", "I have no idea what you are talking about");
+		assertThat(writtenOutput).isEqualTo(actualOutput);
+		assertThat(queryResultCache.getMissCount()).isEqualTo(2);
+		assertThat(queryResultCache.getHitCount()).isEqualTo(2);
+		assertThat(queryResultCache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void definitionAfterQuery_streamingGalacticCurrencyConversion_shouldInvalidateTheCache() throws Exception {
+		final QueryResultCache queryResultCache = new QueryResultCache(16);
+		final List<String> actualOutput = new ArrayList<String>();
+
+		GalaxyMerchant.builder().outputSink(OutputSink.noOp()).queryResultCache(queryResultCache).build().galacticCurrencyConversion(
+				new StringReader("glob is I\nhow much is glob pish ?\nhow much is glob pish ?\npish is X\n"
+						+ "how much is glob pish ?"),
+				actualOutput::add);
+
+		assertThat(actualOutput).containsExactly("glob is 1", "glob is 1", "glob pish is 9");
+		assertThat(queryResultCache.getHitCount()).isEqualTo(1);
+		assertThat(queryResultCache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void moreQueriesThanMaximumSize_put_shouldEvictResults() {
+		final QueryResultCache queryResultCache = new QueryResultCache(4);
+		for (int query = 0; query < 100; query++) {
+			queryResultCache.put("query " + query, 1, "result " + query);
+		}
+		assertThat(queryResultCache.size()).isLessThanOrEqualTo(4);
+		assertThat(queryResultCache.get("query 0", 1)).isNull();
+	}
+
+}
@@ -0,0 +1,77 @@
+package galaxy.merchant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.exception.QueryErrorCode;
+import galaxy.merchant.model.CreditRounding;
+import galaxy.merchant.output.OutputSink;
+import galaxy.merchant.parser.InputRecordType;
+
+/**
+ * @author kommineni
+ *
+ */
+public class QueryResultTest {
+
+	final List<String> inputData = Lists.newArrayList("glob is I", "prok is V", "pish is X", "tegj is L",
+			"glob glob Silver is 34 Credits", "glob prok Gold is 57800 Credits", "glob glob glob Iron is 10 Credits",
+			"how much is pish tegj glob glob ?", "how many Credits is glob prok Silver ?",
+			"how many Credits is glob Iron ?", "how much is glob glob glob glob ?",
+			"how many Credits is glob Copper ?", "how much wood could a woodchuck chuck if a woodchuck could chuck wood ?");
+
+	@Test
+	public void inputData_evaluateQueries_shouldReturnTypedResults() {
+		final List<QueryResult> queryResults = new GalaxyMerchant(OutputSink.noOp()).evaluateQueries(inputData);
+
+		assertThat(queryResults).hasSize(6);
+		assertThat(queryResults.get(0)).isEqualTo(
+				QueryResult.ofGalacticCurrencyValue(Lists.newArrayList("pish", "tegj", "glob", "glob"), 42));
+		assertThat(queryResults.get(1).getMetalName()).isEqualTo("Silver");
+		assertThat(queryResults.get(1).getValue()).isEqualTo(4);
+		assertThat(queryResults.get(1).getCredits(CreditRounding.DEFAULT)).isEqualByComparingTo(new BigDecimal(68));
+		assertThat(queryResults.get(2).getCredits(CreditRounding.DEFAULT)).isEqualTo(new BigDecimal("3.33"));
+		assertThat(queryResults.get(3).getErrorCode()).isEqualTo(QueryErrorCode.REPETITION_BEYOND_PERMITTED);
+		assertThat(queryResults.get(3).getCurrencySymbols()).containsExactly("glob", "glob", "glob", "glob");
+		assertThat(queryResults.get(4)).isEqualTo(QueryResult.ofError(InputRecordType.CREDIT_QUERY,
+				Lists.newArrayList("glob"), "Copper", QueryErrorCode.UNKNOWN_METAL));
+		assertThat(queryResults.get(5).getErrorCode()).isEqualTo(QueryErrorCode.UNCATEGORIZED_QUERY);
+		assertThat(queryResults.get(5).isAnswered()).isFalse();
+	}
+
+	@Test
+	public void answeredQueries_toText_shouldMatchTheTextOutput() {
+		final List<String> answerableInput = inputData.stream()
+				.filter(line -> !line.contains("glob glob glob glob") && !line.contains("Copper"))
+				.collect(Collectors.toList());
+
+		final List<String> texts = new GalaxyMerchant(OutputSink.noOp()).evaluateQueries(answerableInput).stream()
+				.map(queryResult -> queryResult.toText(CreditRounding.DEFAULT)).collect(Collectors.toList());
+
+		assertThat(texts).isEqualTo(new GalaxyMerchant(OutputSink.noOp()).galacticCurrencyConversion(answerableInput));
+	}
+
+	@Test
+	public void noKnownSymbols_toText_shouldNotStartWithASpace() {
+		final List<String> input = Lists.newArrayList("glob is I", "how much is foo ?");
+
+		assertThat(QueryResult.ofGalacticCurrencyValue(Lists.newArrayList(), 0).toText(CreditRounding.DEFAULT))
+				.isEqualTo("is 0");
+		assertThat(new GalaxyMerchant(OutputSink.noOp()).evaluateQueries(input).get(0).toText(CreditRounding.DEFAULT))
+				.isEqualTo("is 0");
+	}
+
+	@Test
+	public void failedQuery_toText_shouldReturnTheErrorMessage() {
+		final QueryResult queryResult = QueryResult.ofError(InputRecordType.GALACTIC_CURRENCY_QUERY,
+				Lists.newArrayList("glob"), null, QueryErrorCode.INVALID_SUBTRACTION);
+
+		assertThat(queryResult.toText(CreditRounding.DEFAULT))
+				.isEqualTo("Invalid Currency Format - character Sequence invalid for substraction");
+		assertThat(queryResult.getCredits(CreditRounding.DEFAULT)).isNull();
+	}
+
+}
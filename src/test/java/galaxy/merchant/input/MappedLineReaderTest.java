@@ -0,0 +1,86 @@
+package galaxy.merchant.input;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import galaxy.merchant.GalaxyMerchant;
+import galaxy.merchant.output.OutputSink;
+
+/**
+ * @author kommineni
+ *
+ */
+public class MappedLineReaderTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void linesAcrossRegions_readLine_shouldReturnEveryLine() throws IOException {
+		final Path inputFile = write("glob is I\r\n\n   \nprok is V\nhow much is glob prok ?\nsymbol \u00e9 is X\nlast line");
+
+		for (long regionSize : new long[] { 26, 64, MappedLineReader.DEFAULT_REGION_SIZE }) {
+			assertThat(readAll(inputFile, regionSize)).as("region size " + regionSize).containsExactly("glob is I", "",
+					"", "prok is V", "how much is glob prok ?", "symbol \u00e9 is X", "last line");
+		}
+	}
+
+	@Test
+	public void whiteSpaceAndNonAsciiBeyondAWord_readLine_shouldBeDetected() throws IOException {
+		final Path inputFile = write(" \t        \t  \r\n           !\n~               \n          \u00e9   \n");
+
+		assertThat(readAll(inputFile, MappedLineReader.DEFAULT_REGION_SIZE)).containsExactly("",
+				"           !", "~               ", "          \u00e9   ");
+	}
+
+	@Test
+	public void emptyFile_readLine_shouldReturnNull() throws IOException {
+		assertThat(readAll(write(""), MappedLineReader.DEFAULT_REGION_SIZE)).isEmpty();
+		assertThat(readAll(write("\n"), MappedLineReader.DEFAULT_REGION_SIZE)).containsExactly("");
+	}
+
+	@Test
+	public void lineLongerThanRegion_readLine_shouldFail() throws IOException {
+		final Path inputFile = write("how much is glob prok glob prok ?\nglob is I\n");
+		assertThatThrownBy(() -> readAll(inputFile, 16)).isInstanceOf(IOException.class)
+				.hasMessage("Line at offset 0 is longer than 16 bytes");
+	}
+
+	@Test
+	public void inputFile_galacticCurrencyConversionMapped_shouldProcessAllLines() throws IOException {
+		final Path inputFile = write("glob is I\nprok is V\nglob glob Silver is 34 Credits\n"
+				+ "how many Credits is glob prok Silver ?\nhow much is prok glob ?\n");
+		final List<String> results = new ArrayList<String>();
+
+		final long resultCount = new GalaxyMerchant(results::add).galacticCurrencyConversionMapped(inputFile);
+
+		assertThat(resultCount).isEqualTo(2);
+		assertThat(results).containsExactly("glob prok Silver is 68 Credits", "prok glob is 6");
+	}
+
+	private Path write(String content) throws IOException {
+		final Path inputFile = temporaryFolder.newFile().toPath();
+		Files.write(inputFile, content.getBytes(StandardCharsets.UTF_8));
+		return inputFile;
+	}
+
+	private static List<String> readAll(Path inputFile, long regionSize) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		try (MappedLineReader reader = new MappedLineReader(inputFile, regionSize)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+}
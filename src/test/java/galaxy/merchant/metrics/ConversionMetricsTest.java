@@ -0,0 +1,81 @@
+package galaxy.merchant.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.ObjectName;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.GalaxyMerchant;
+import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+import galaxy.merchant.output.OutputSink;
+
+/**
+ * @author kommineni
+ *
+ */
+public class ConversionMetricsTest {
+
+	final List<String> inputData = Lists.newArrayList("glob is I", "prok is V", "glob glob Silver is 34 Credits",
+			"how much is glob prok ?", "how many Credits is glob prok Silver ?", "how much is prok glob ?",
+			"how much wood could a woodchuck chuck if a woodchuck could chuck wood ?");
+
+	@Test
+	public void conversion_galacticCurrencyConversion_shouldRecordStagesAndQueries() {
+		final ConversionMetrics conversionMetrics = new ConversionMetrics();
+
+		GalaxyMerchant.builder().outputSink(OutputSink.noOp()).conversionMetrics(conversionMetrics).build()
+				.galacticCurrencyConversion(inputData);
+
+		for (ConversionStage stage : ConversionStage.values()) {
+			assertThat(conversionMetrics.getStageLatency(stage).getCount()).as(stage.name()).isEqualTo(1);
+		}
+		assertThat(conversionMetrics.getQueryCounts()).containsEntry("GALACTIC_CURRENCY", 2L)
+				.containsEntry("CREDIT", 1L).containsEntry("UNCATEGORIZED", 1L).containsEntry("FAILED", 0L);
+		assertThat(conversionMetrics.getReport()).contains("QUERY_EVALUATION", "GALACTIC_CURRENCY");
+	}
+
+	@Test
+	public void invalidQuery_galacticCurrencyConversion_shouldCountFailedQuery() {
+		final ConversionMetrics conversionMetrics = new ConversionMetrics();
+		final GalaxyMerchant galaxyMerchant = GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.conversionMetrics(conversionMetrics).build();
+
+		assertThatThrownBy(() -> galaxyMerchant
+				.galacticCurrencyConversion(Lists.newArrayList("glob is I", "how much is glob glob glob glob ?")))
+						.isInstanceOf(InvalidGalacticCurrencyExpressionException.class);
+		assertThat(conversionMetrics.getQueryLatency(QueryOutcome.FAILED).getCount()).isEqualTo(1);
+
+		galaxyMerchant.evaluateQueries(Lists.newArrayList("glob is I", "how much is glob glob glob glob ?"));
+		assertThat(conversionMetrics.getQueryLatency(QueryOutcome.FAILED).getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void latencies_getPercentileNanos_shouldReturnBucketUpperBound() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (long nanos = 1; nanos <= 100; nanos++) {
+			histogram.record(nanos * 1000);
+		}
+
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getMeanNanos()).isEqualTo(50500);
+		assertThat(histogram.getPercentileNanos(50)).isBetween(50000L, 100000L);
+		assertThat(histogram.getPercentileNanos(100)).isEqualTo(100000);
+		histogram.reset();
+		assertThat(histogram.getPercentileNanos(99)).isZero();
+	}
+
+	@Test
+	public void metrics_registerMBean_shouldExposeAttributes() throws Exception {
+		final ConversionMetrics conversionMetrics = new ConversionMetrics();
+		final ObjectName objectName = conversionMetrics.registerMBean();
+		try {
+			assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Report"))
+					.isEqualTo(conversionMetrics.getReport());
+		} finally {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package galaxy.merchant.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+/**
+ * @author kommineni
+ *
+ */
+public class ConcurrentSymbolRegistryTest {
+
+	private static final int UPDATES = 2000;
+	private static final int READERS = 4;
+
+	@Test
+	public void failedUpdate_current_shouldPublishCompletedChanges() {
+		ConcurrentSymbolRegistry symbolRegistry = new ConcurrentSymbolRegistry();
+		RomanNumeral one = NumeralTable.standard().getRomanSymbols().get(0);
+
+		try {
+			symbolRegistry.update(registry -> {
+				registry.registerGalacticCurrency(new GalacticCurrency("glob", one));
+				throw new IllegalStateException();
+			});
+		} catch (IllegalStateException expected) {
+			// changes before the failure stay registered
+		}
+
+		assertThat(symbolRegistry.current().isFrozen()).isTrue();
+		assertThat(symbolRegistry.current().findGalacticCurrency("glob")).isPresent();
+	}
+
+	@Test
+	public void pairedUpdates_current_shouldNeverExposeTornDefinitions() throws Exception {
+		ConcurrentSymbolRegistry symbolRegistry = new ConcurrentSymbolRegistry();
+		RomanNumeral one = NumeralTable.standard().getRomanSymbols().get(0);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+		try {
+			List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+			for (int reader = 0; reader < READERS; reader++) {
+				readers.add(executor.submit(() -> {
+					int reads = 0;
+					long lastVersion = Long.MIN_VALUE;
+					do {
+						GalacticSymbolRegistry definitions = symbolRegistry.current();
+						int defined = definitions.getGalacticCurrencies().size();
+						// every update defines a currency and the metal priced with it
+						assertThat(definitions.getMetals()).hasSize(defined);
+						if (defined > 0) {
+							assertThat(definitions.findMetal("Metal" + (defined - 1)).get().getUnitPrice())
+									.isEqualTo(UnitPrice.of(defined - 1, 1));
+						}
+						assertThat(definitions.findMetal("Metal" + defined)).isEmpty();
+						assertThat(definitions.getVersion()).isGreaterThanOrEqualTo(lastVersion);
+						lastVersion = definitions.getVersion();
+						reads++;
+					} while (writing.get());
+					return reads;
+				}));
+			}
+			Future<?> writer = executor.submit(() -> {
+				try {
+					for (int update = 0; update < UPDATES; update++) {
+						final int index = update;
+						symbolRegistry.update(registry -> {
+							registry.registerGalacticCurrency(new GalacticCurrency("s" + index, one));
+							return registry.registerMetal(new CommonMetal("Metal" + index, UnitPrice.of(index, 1)));
+						});
+					}
+				} finally {
+					writing.set(false);
+				}
+			});
+
+			writer.get();
+			for (Future<Integer> reader : readers) {
+				assertThat(reader.get()).isPositive();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(symbolRegistry.current().getMetals()).hasSize(UPDATES);
+	}
+}
@@ -0,0 +1,87 @@
+package galaxy.merchant.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import galaxy.merchant.GalaxyMerchant;
+import galaxy.merchant.input.LineReader;
+
+/**
+ * @author kommineni
+ *
+ */
+public class DefinitionSnapshotTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void registry_writeAndRead_shouldRestoreTheDefinitions() throws IOException {
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		final List<RomanNumeral> romanSymbols = NumeralTable.standard().getRomanSymbols();
+		symbolRegistry.registerGalacticCurrency(new GalacticCurrency("glob", romanSymbols.get(6)));
+		symbolRegistry.registerGalacticCurrency(new GalacticCurrency("pr\u00f6k", romanSymbols.get(5)));
+		symbolRegistry.registerMetal(new CommonMetal("Silver", UnitPrice.of(10, 3)));
+		symbolRegistry.registerMetal(new CommonMetal("Dust", UnitPrice.of(new BigDecimal("1E+40"))));
+		final Path snapshotFile = temporaryFolder.getRoot().toPath().resolve("definitions.snapshot");
+
+		DefinitionSnapshot.write(symbolRegistry, snapshotFile);
+		final GalacticSymbolRegistry restored = DefinitionSnapshot.read(snapshotFile);
+
+		assertThat(restored.getGalacticCurrencies()).isEqualTo(symbolRegistry.getGalacticCurrencies());
+		assertThat(restored.getMetals()).isEqualTo(symbolRegistry.getMetals());
+		assertThat(restored.isFrozen()).isFalse();
+	}
+
+	@Test
+	public void snapshotOfInput_galacticCurrencyConversion_shouldAnswerWithoutDefinitions() throws IOException {
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		new GalaxyMerchant(result -> {
+		}).galacticCurrencyConversion(lines("glob is I", "prok is V", "glob glob Silver is 34 Credits"), symbolRegistry,
+				result -> {
+				});
+		final Path snapshotFile = temporaryFolder.newFile().toPath();
+		DefinitionSnapshot.write(symbolRegistry, snapshotFile);
+		final List<String> results = new ArrayList<String>();
+
+		new GalaxyMerchant(results::add).galacticCurrencyConversion(
+				lines("how many Credits is glob prok Silver ?", "how much is prok glob ?"),
+				DefinitionSnapshot.read(snapshotFile), result -> {
+				});
+
+		assertThat(results).containsExactly("glob prok Silver is 68 Credits", "prok glob is 6");
+	}
+
+	@Test
+	public void invalidFile_read_shouldFail() throws IOException {
+		final Path snapshotFile = temporaryFolder.newFile().toPath();
+		Files.write(snapshotFile, "glob is I".getBytes(StandardCharsets.UTF_8));
+		assertThatThrownBy(() -> DefinitionSnapshot.read(snapshotFile)).isInstanceOf(IOException.class)
+				.hasMessageStartingWith("Not a definition snapshot");
+
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		symbolRegistry.registerMetal(new CommonMetal("Silver", UnitPrice.of(17, 1)));
+		DefinitionSnapshot.write(symbolRegistry, snapshotFile);
+		final byte[] bytes = Files.readAllBytes(snapshotFile);
+		bytes[bytes.length - 6]++;
+		Files.write(snapshotFile, bytes);
+		assertThatThrownBy(() -> DefinitionSnapshot.read(snapshotFile)).isInstanceOf(IOException.class)
+				.hasMessageStartingWith("Corrupted definition snapshot");
+	}
+
+	private static LineReader lines(String... lines) {
+		return new BufferedReader(new StringReader(String.join("\n", lines)))::readLine;
+	}
+
+}
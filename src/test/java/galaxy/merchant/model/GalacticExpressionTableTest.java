@@ -0,0 +1,58 @@
+package galaxy.merchant.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.List;
+import org.junit.Test;
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.QueryErrorCode;
+
+/**
+ * @author kommineni
+ *
+ */
+public class GalacticExpressionTableTest {
+
+	@Test
+	public void everyExpressibleValue_toGalacticCurrencies_shouldEvaluateBackToTheValue() {
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		for (RomanNumeral romanNumeral : NumeralTable.standard().getRomanSymbols()) {
+			symbolRegistry.registerGalacticCurrency(new GalacticCurrency("g" + romanNumeral.getSymbol(), romanNumeral));
+		}
+		final GalacticExpressionTable expressionTable = symbolRegistry.getExpressionTable();
+
+		for (int value = 1; value <= GalacticExpressionTable.maxValue(); value++) {
+			final List<GalacticCurrency> expression = expressionTable.toGalacticCurrencies(value);
+			assertThat(new GalacticCurrencyExpression(expression).getGalacticCurrencyExpressionValue()).isEqualTo(value);
+		}
+		assertThat(GalacticExpressionTable.maxValue()).isEqualTo(1899);
+		assertThat(expressionTable.appendExpression(new StringBuilder(), 1444).toString())
+				.isEqualTo("gM gC gD gX gL gI gV");
+		assertThat(expressionTable.check(0)).isEqualTo(QueryErrorCode.VALUE_OUT_OF_RANGE);
+		assertThat(expressionTable.check(1900)).isEqualTo(QueryErrorCode.VALUE_OUT_OF_RANGE);
+		assertThat(expressionTable.check(2000)).isEqualTo(QueryErrorCode.VALUE_OUT_OF_RANGE);
+	}
+
+	@Test
+	public void missingNumeral_toGalacticCurrencies_shouldFailOnlyForDigitsUsingIt() {
+		final List<RomanNumeral> romanSymbols = NumeralTable.standard().getRomanSymbols();
+		final GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		symbolRegistry.registerGalacticCurrency(new GalacticCurrency("glob", symbol(romanSymbols, 'I')));
+		symbolRegistry.registerGalacticCurrency(new GalacticCurrency("prok", symbol(romanSymbols, 'V')));
+		assertThat(symbolRegistry.getExpressionTable().check(9)).isEqualTo(QueryErrorCode.NO_CURRENCY_FOR_NUMERAL);
+
+		symbolRegistry.registerGalacticCurrency(new GalacticCurrency("pish", symbol(romanSymbols, 'X')));
+		symbolRegistry.registerGalacticCurrency(new GalacticCurrency("tlok", symbol(romanSymbols, 'I')));
+
+		assertThat(symbolRegistry.getExpressionTable().appendExpression(new StringBuilder(), 19).toString())
+				.isEqualTo("pish glob pish");
+		assertThatThrownBy(() -> symbolRegistry.getExpressionTable().toGalacticCurrencies(40))
+				.isInstanceOf(InvalidGalacticCurrencyConvesionQueryException.class)
+				.hasMessage("No Galactic Currency defined for a roman numeral of the value");
+	}
+
+	private static RomanNumeral symbol(List<RomanNumeral> romanSymbols, char symbol) {
+		return romanSymbols.stream().filter(romanNumeral -> romanNumeral.isSameSymbol(symbol)).findFirst().get();
+	}
+
+}
@@ -0,0 +1,66 @@
+package galaxy.merchant.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.math.BigDecimal;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * @author kommineni
+ *
+ */
+public class GalacticSymbolRegistryTest {
+
+	GalacticSymbolRegistry symbolRegistry;
+
+	@Before
+	public void setup() {
+		RomanNumeral romanSymbolFifty = RomanNumeral.standAlone('L', 50);
+		RomanNumeral romanSymbolHundred = RomanNumeral.repeatableAndSubtractable('C', Collections.emptyList(), 100);
+		RomanNumeral romanSymbolTen = RomanNumeral.repeatableAndSubtractable('X',
+				Lists.newArrayList(romanSymbolFifty, romanSymbolHundred), 10);
+		RomanNumeral romanSymbolFive = RomanNumeral.standAlone('V', 5);
+		RomanNumeral romanSymbolOne = RomanNumeral.repeatableAndSubtractable('I',
+				Lists.newArrayList(romanSymbolFive, romanSymbolTen), 1);
+
+		symbolRegistry = new GalacticSymbolRegistry(
+				ImmutableList.of(new GalacticCurrency("glob", romanSymbolOne),
+						new GalacticCurrency("prok", romanSymbolFive), new GalacticCurrency("pish", romanSymbolTen)),
+				ImmutableList.of(new CommonMetal("Silver", BigDecimal.valueOf(17))));
+	}
+
+	@Test
+	public void queryTokens_resolveGalacticCurrencies_shouldSkipUnknownTokens() {
+		assertThat(symbolRegistry.resolveGalacticCurrencies(
+				Lists.newArrayList("how", "much", "is", "pish", "glob", "prok", "?"))).extracting("symbol")
+						.containsExactly("pish", "glob", "prok");
+	}
+
+	@Test
+	public void redefinedSymbol_register_shouldKeepFirstDefinition() {
+		assertThat(symbolRegistry.registerGalacticCurrency(
+				new GalacticCurrency("glob", RomanNumeral.standAlone('M', 1000)))).isFalse();
+		assertThat(symbolRegistry.findGalacticCurrency("glob").get().getRomanValue()).isEqualTo(1);
+		assertThat(symbolRegistry.registerMetal(new CommonMetal("Silver", BigDecimal.ONE))).isFalse();
+		assertThat(symbolRegistry.findMetal("Silver").get().getPerUnitValue()).isEqualTo(BigDecimal.valueOf(17));
+		assertThat(symbolRegistry.findMetal("Gold")).isEmpty();
+	}
+
+	@Test
+	public void provisionalDefinitions_register_shouldReplaceThemOnce() {
+		long version = symbolRegistry.getVersion();
+		symbolRegistry.markProvisional();
+
+		assertThat(symbolRegistry.registerGalacticCurrency(
+				new GalacticCurrency("glob", RomanNumeral.standAlone('M', 1000)))).isTrue();
+		assertThat(symbolRegistry.registerGalacticCurrency(
+				new GalacticCurrency("glob", RomanNumeral.standAlone('D', 500)))).isFalse();
+		assertThat(symbolRegistry.findGalacticCurrency("glob").get().getRomanValue()).isEqualTo(1000);
+		assertThat(symbolRegistry.registerMetal(new CommonMetal("Silver", BigDecimal.ONE))).isTrue();
+		assertThat(symbolRegistry.findMetal("Silver").get().getPerUnitValue()).isEqualTo(BigDecimal.ONE);
+		assertThat(symbolRegistry.getVersion()).isGreaterThan(version);
+	}
+}
@@ -0,0 +1,112 @@
+package galaxy.merchant.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import galaxy.merchant.exception.InvalidGalacticCurrencyExpressionException;
+
+/**
+ * @author kommineni
+ *
+ */
+public class NumeralTableTest {
+
+	final NumeralTable numeralTable = NumeralTable.standard();
+
+	final List<GalacticCurrency> galacticCurrencies = new ArrayList<GalacticCurrency>();
+	{
+		for (RomanNumeral romanNumeral : numeralTable.getRomanSymbols()) {
+			galacticCurrencies.add(new GalacticCurrency("g" + romanNumeral.getSymbol(), romanNumeral));
+		}
+	}
+
+	@Test
+	public void everyExpressionUpToSixCurrencies_validateAndEvaluate_shouldMatchTheRules() {
+		final int symbols = galacticCurrencies.size();
+		for (int length = 0; length <= 6; length++) {
+			final int[] digits = new int[length];
+			int combinations = 1;
+			for (int i = 0; i < length; i++) {
+				combinations *= symbols;
+			}
+			for (int combination = 0; combination < combinations; combination++) {
+				int remainder = combination;
+				final List<GalacticCurrency> expression = new ArrayList<GalacticCurrency>(length);
+				for (int i = 0; i < length; i++) {
+					digits[i] = remainder % symbols;
+					remainder /= symbols;
+					expression.add(galacticCurrencies.get(digits[i]));
+				}
+				assertThat(evaluate(expression, true, true)).as(expression.toString())
+						.isEqualTo(evaluate(expression, true, false));
+				assertThat(evaluate(expression, false, true)).as(expression.toString())
+						.isEqualTo(evaluate(expression, false, false));
+			}
+		}
+	}
+
+	@Test
+	public void canonicalNumerals_validateAndEvaluate_shouldReturnTheirValue() {
+		final List<GalacticCurrency> mcmxcix = new ArrayList<GalacticCurrency>();
+		for (char symbol : "MDCCCXCIX".toCharArray()) {
+			mcmxcix.add(currency(symbol));
+		}
+		assertThat(numeralTable.validateAndEvaluate(mcmxcix, true)).isEqualTo(1899);
+		assertThatThrownBy(() -> numeralTable.validateAndEvaluate(
+				Arrays.asList(currency('I'), currency('L')), true))
+						.isInstanceOf(InvalidGalacticCurrencyExpressionException.class)
+						.hasMessage("Invalid Currency Format - character Sequence invalid for substraction");
+	}
+
+	@Test
+	public void currenciesOfTheSameNumeral_validateAndEvaluate_shouldNotBeTabulated() {
+		final GalacticCurrency glob = currency('I');
+		final GalacticCurrency gleb = new GalacticCurrency("gleb", glob.getRomanNumeral());
+		final List<GalacticCurrency> expression = new ArrayList<GalacticCurrency>();
+		expression.add(glob);
+		expression.add(gleb);
+		expression.add(glob);
+		expression.add(gleb);
+
+		assertThat(numeralTable.validateAndEvaluate(expression, true)).isEqualTo(NumeralTable.NOT_TABULATED);
+		assertThat(GalacticCurrencyExpression.validateAndEvaluate(expression, true)).isEqualTo(4);
+	}
+
+	@Test
+	public void sameNumeralApartOrUnknownNumeral_validateAndEvaluate_shouldNotBeTabulated() {
+		final GalacticCurrency tegj = new GalacticCurrency("tegj", currency('X').getRomanNumeral());
+		final GalacticCurrency pish = new GalacticCurrency("pish", RomanNumeral.standAlone('X', 10));
+
+		assertThat(numeralTable.validateAndEvaluate(Arrays.asList(currency('X'), currency('I'), tegj), true))
+				.isEqualTo(NumeralTable.NOT_TABULATED);
+		assertThat(numeralTable.validateAndEvaluate(Arrays.asList(currency('X'), currency('I'), currency('X')), true))
+				.isEqualTo(19);
+		assertThat(numeralTable.validateAndEvaluate(Arrays.asList(pish, currency('I')), true))
+				.isEqualTo(NumeralTable.NOT_TABULATED);
+	}
+
+	private GalacticCurrency currency(char symbol) {
+		for (GalacticCurrency galacticCurrency : galacticCurrencies) {
+			if (galacticCurrency.getRomanNumeral().isSameSymbol(symbol)) {
+				return galacticCurrency;
+			}
+		}
+		throw new IllegalArgumentException(String.valueOf(symbol));
+	}
+
+	/**
+	 * @return the value or the message of the violated rule
+	 */
+	private Object evaluate(List<GalacticCurrency> expression, boolean validate, boolean tabulated) {
+		try {
+			return tabulated ? numeralTable.validateAndEvaluate(expression, validate)
+					: GalacticCurrencyExpression.applyRules(expression, validate);
+		} catch (InvalidGalacticCurrencyExpressionException e) {
+			return e.getMessage();
+		}
+	}
+
+}
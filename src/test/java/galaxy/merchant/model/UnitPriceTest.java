@@ -0,0 +1,59 @@
+package galaxy.merchant.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.junit.Test;
+
+/**
+ * @author kommineni
+ *
+ */
+public class UnitPriceTest {
+
+	@Test
+	public void nonTerminatingPrice_appendCredits_shouldRoundOnlyTheCredits() {
+		final UnitPrice unitPrice = UnitPrice.of(10, 3);
+
+		assertThat(credits(unitPrice, 3, CreditRounding.DEFAULT)).isEqualTo("10");
+		assertThat(credits(unitPrice, 1, CreditRounding.DEFAULT)).isEqualTo("3.33");
+		assertThat(credits(unitPrice, 2, new CreditRounding(4, RoundingMode.HALF_UP))).isEqualTo("6.6667");
+		assertThat(credits(unitPrice, 2, new CreditRounding(0, RoundingMode.DOWN))).isEqualTo("6");
+		assertThat(unitPrice.toBigDecimal(CreditRounding.DEFAULT)).isEqualTo(new BigDecimal("3.33"));
+	}
+
+	@Test
+	public void terminatingPrices_appendCredits_shouldMatchBigDecimalArithmetic() {
+		for (int credits = -50; credits <= 400; credits += 7) {
+			for (int units = 1; units <= 1000; units += 3) {
+				final UnitPrice unitPrice = UnitPrice.of(credits, units);
+				final BigDecimal exactPrice;
+				try {
+					exactPrice = BigDecimal.valueOf(credits).divide(BigDecimal.valueOf(units));
+				} catch (ArithmeticException nonTerminating) {
+					continue;
+				}
+				assertThat(unitPrice.toBigDecimal(CreditRounding.DEFAULT)).isEqualTo(exactPrice);
+				for (int quantity : new int[] { 0, 1, 2, 3, 42, 1899 }) {
+					assertThat(credits(unitPrice, quantity, CreditRounding.DEFAULT)).as(credits + "/" + units)
+							.isEqualTo(exactPrice.multiply(BigDecimal.valueOf(quantity)).stripTrailingZeros()
+									.toPlainString());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void overflowingProduct_appendCredits_shouldFallBackToBigDecimal() {
+		assertThat(credits(UnitPrice.of(Long.MAX_VALUE, 2), 4, CreditRounding.DEFAULT))
+				.isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).toPlainString());
+		assertThat(credits(UnitPrice.of(new BigDecimal("1E+30")), 3, CreditRounding.DEFAULT))
+				.isEqualTo("3000000000000000000000000000000");
+		assertThat(UnitPrice.of(BigDecimal.valueOf(195.5))).isEqualTo(UnitPrice.of(391, 2));
+	}
+
+	private static String credits(UnitPrice unitPrice, long quantity, CreditRounding creditRounding) {
+		return unitPrice.appendCredits(new StringBuilder(), quantity, creditRounding).toString();
+	}
+
+}
@@ -0,0 +1,76 @@
+package galaxy.merchant.output;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.GalaxyMerchant;
+
+/**
+ * @author kommineni
+ *
+ */
+public class OutputSinkTest {
+
+	final List<String> inputData = Lists.newArrayList("glob is I", "prok is V", "pish is X", "tegj is L",
+			"glob glob Silver is 34 Credits", "how much is pish tegj glob glob ?",
+			"how many Credits is glob prok Silver ?", "how much wood could a woodchuck chuck ?");
+
+	@Test
+	public void writerSink_galacticCurrencyConversion_shouldWriteResultsWhenFlushed() {
+		final StringWriter output = new StringWriter();
+		final WriterOutputSink writerOutputSink = new WriterOutputSink(output, WriterOutputSink.DEFAULT_BUFFER_SIZE);
+		writerOutputSink.write("pish tegj glob glob is 42");
+		assertThat(output.toString()).isEmpty();
+
+		new GalaxyMerchant(writerOutputSink).galacticCurrencyConversion(inputData);
+		assertThat(output.toString().split(System.lineSeparator())).containsExactly("pish tegj glob glob is 42",
+				"pish tegj glob glob is 42", "glob prok Silver is 68 Credits",
+				"I have no idea what you are talking about");
+	}
+
+	@Test
+	public void asyncSink_write_shouldKeepResultOrder() {
+		final StringWriter output = new StringWriter();
+		final List<String> expectedOutput = Lists.newArrayList();
+		try (AsyncOutputSink asyncOutputSink = new AsyncOutputSink(new WriterOutputSink(output, 64), 16)) {
+			for (int i = 0; i < 1000; i++) {
+				asyncOutputSink.write("result " + i);
+				expectedOutput.add("result " + i);
+			}
+			asyncOutputSink.flush();
+			assertThat(output.toString().split(System.lineSeparator())).containsExactlyElementsOf(expectedOutput);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void failingDelegate_asyncSink_shouldReportFailureOnFlush() {
+		final AsyncOutputSink asyncOutputSink = new AsyncOutputSink(result -> {
+			throw new IllegalStateException("disk full");
+		});
+		asyncOutputSink.write("glob prok Silver is 68 Credits");
+		asyncOutputSink.flush();
+	}
+
+	@Test(timeout = 10000)
+	public void writerThreadError_asyncSink_shouldFailBlockedWritesAndFlush() {
+		final AsyncOutputSink asyncOutputSink = new AsyncOutputSink(result -> {
+			throw new AssertionError("writer died");
+		}, 1);
+
+		assertThatThrownBy(() -> {
+			for (int i = 0; i < 100; i++) {
+				asyncOutputSink.write("result " + i);
+			}
+		}).isInstanceOf(IllegalStateException.class).hasCauseInstanceOf(AssertionError.class);
+		assertThatThrownBy(asyncOutputSink::flush).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(asyncOutputSink::close).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void noOpSink_galacticCurrencyConversion_shouldStillReturnResults() {
+		assertThat(new GalaxyMerchant(OutputSink.noOp()).galacticCurrencyConversion(inputData)).hasSize(3);
+	}
+}
@@ -0,0 +1,85 @@
+package galaxy.merchant.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.GalaxyMerchant;
+import galaxy.merchant.exception.InvalidGalacticCurrencyConvesionQueryException;
+import galaxy.merchant.exception.QueryErrorCode;
+
+/**
+ * @author kommineni
+ *
+ */
+public class InputClassifierTest {
+
+	final List<String> inputData = Lists.newArrayList("glob is I", "prok is V", "pish is X", "tegj is L",
+			"glob glob Silver is 34 Credits", "glob prok Gold is 57800 Credits", "pish pish Iron is 3910 Credits",
+			"how much is pish tegj glob glob ?", "how many Credits is glob prok Silver ?",
+			"how many Credits is glob prok Gold ?", "how many Credits is glob prok Iron ?",
+			"how much wood could a woodchuck chuck if a woodchuck could chuck wood ?");
+
+	InputClassifier inputClassifier;
+
+	@Before
+	public void setup() {
+		inputClassifier = new InputClassifier(new GalaxyMerchant().getRomanSymbols());
+	}
+
+	@Test
+	public void inputData_classifyAll_shouldGroupRecordsByType() {
+		final ClassifiedInput classifiedInput = inputClassifier.classifyAll(inputData);
+		assertThat(classifiedInput.getGalacticCurrencyDefinitions()).extracting("currencySymbol")
+				.containsExactly("glob", "prok", "pish", "tegj");
+		assertThat(classifiedInput.getGalacticCurrencyDefinitions()).extracting("romanNumeral.symbol")
+				.containsExactly('I', 'V', 'X', 'L');
+		assertThat(classifiedInput.getMetalValueDefinitions()).extracting("metalName").containsExactly("Silver",
+				"Gold", "Iron");
+		assertThat(classifiedInput.getMetalValueDefinitions()).extracting("credits").containsExactly(34, 57800,
+				3910);
+		assertThat(classifiedInput.getQueries()).extracting("type").containsExactly(
+				InputRecordType.GALACTIC_CURRENCY_QUERY, InputRecordType.CREDIT_QUERY, InputRecordType.CREDIT_QUERY,
+				InputRecordType.CREDIT_QUERY, InputRecordType.UNCATEGORIZED_QUERY);
+	}
+
+	@Test
+	public void invalidRomanSymbol_classify_shouldNotReturnCurrencyDefinition() {
+		assertThat(inputClassifier.classify("testCurrency is T").get().getType())
+				.isEqualTo(InputRecordType.UNCATEGORIZED_QUERY);
+		assertThat(inputClassifier.classify("")).isEmpty();
+	}
+
+	@Test
+	public void queries_classify_shouldExtractExpressionTokens() {
+		final GalacticCurrencyQuery galacticCurrencyQuery = (GalacticCurrencyQuery) inputClassifier
+				.classify("how much is pish tegj glob glob ?").get();
+		assertThat(galacticCurrencyQuery.getExpressionTokens()).containsExactly("pish", "tegj", "glob", "glob");
+
+		final CreditQuery creditQuery = (CreditQuery) inputClassifier.classify("how many Credits is glob prok Silver ?")
+				.get();
+		assertThat(creditQuery.getExpressionTokens()).containsExactly("glob", "prok");
+		assertThat(creditQuery.getMetalName()).isEqualTo("Silver");
+
+		final MetalValueDefinition metalValueDefinition = (MetalValueDefinition) inputClassifier
+				.classify("pish pish Iron is 3910 Credits").get();
+		assertThat(metalValueDefinition.getExpressionTokens()).containsExactly("pish", "pish");
+	}
+
+	@Test(expected = InvalidGalacticCurrencyConvesionQueryException.class)
+	public void metalDefinitionWithoutMetalName_classify_shouldThrowInvalidQueryException() {
+		inputClassifier.classify("glob glob 34 Credits");
+	}
+
+	@Test
+	public void metalDefinitionWithInvalidCredits_classify_shouldThrowSharedExceptionWithErrorCode() {
+		Throwable invalidCredits = catchThrowable(() -> inputClassifier.classify("glob Silver is many Credits"));
+
+		assertThat(invalidCredits).isSameAs(catchThrowable(() -> inputClassifier.classify("glob Gold is 1.5 Credits")));
+		assertThat(((InvalidGalacticCurrencyConvesionQueryException) invalidCredits).getErrorCode())
+				.isEqualTo(QueryErrorCode.INVALID_CREDITS);
+		assertThat(invalidCredits.getStackTrace()).isEmpty();
+	}
+}
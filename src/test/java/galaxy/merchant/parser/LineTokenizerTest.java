@@ -0,0 +1,48 @@
+package galaxy.merchant.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * @author kommineni
+ *
+ */
+public class LineTokenizerTest {
+
+	final LineTokenizer tokenizer = new LineTokenizer();
+
+	@Test
+	public void lineWithSpaces_tokenize_shouldRecordTokenOffsets() {
+		tokenizer.tokenize("   tegj    is  L  ");
+		assertThat(tokenizer.tokenCount()).isEqualTo(3);
+		assertThat(tokenizer.start(0)).isEqualTo(3);
+		assertThat(tokenizer.end(0)).isEqualTo(7);
+		assertThat(tokenizer.tokenEquals(1, "is")).isTrue();
+		assertThat(tokenizer.token(2)).isEqualTo("L");
+		assertThat(tokenizer.isSanitized()).isFalse();
+		assertThat(tokenizer.sanitized()).isEqualTo("tegj is L");
+	}
+
+	@Test
+	public void sanitizedLine_sanitized_shouldReturnSameInstance() {
+		final String line = "how much is pish tegj glob glob ?";
+		assertThat(tokenizer.tokenize(line).sanitized()).isSameAs(line);
+		assertThat(tokenizer.tokenize("  \t ").tokenCount()).isZero();
+		assertThat(tokenizer.sanitized()).isEmpty();
+	}
+
+	@Test
+	public void reusedTokenizer_tokenize_shouldGrowBeyondInitialCapacity() {
+		final StringBuilder line = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			line.append("glob ");
+		}
+		assertThat(tokenizer.tokenize(line).tokenCount()).isEqualTo(100);
+		assertThat(tokenizer.tokenize("glob is I").tokenCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void regionOfSanitizedLine_split_shouldReturnTokens() {
+		assertThat(LineTokenizer.split("how much is pish tegj ?", 12, 21)).containsExactly("pish", "tegj");
+	}
+}
@@ -0,0 +1,90 @@
+package galaxy.merchant.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+import com.google.common.collect.Lists;
+import galaxy.merchant.CurrencyConversionOutputProcessor;
+import galaxy.merchant.GalaxyMerchant;
+import galaxy.merchant.input.LineReader;
+import galaxy.merchant.model.GalacticSymbolRegistry;
+import galaxy.merchant.output.OutputSink;
+
+/**
+ * @author kommineni
+ *
+ */
+public class PipelinedConversionTest {
+
+	final List<String> inputData = Lists.newArrayList("glob is I", "prok is V", "pish is X", "tegj is L", "",
+			"glob glob Silver is 34 Credits", "how much is pish tegj glob glob ?",
+			"how many Credits is glob prok Silver ?", "glob prok Gold is 57800 Credits",
+			"how many Credits is glob prok Gold ?", "pish pish Iron is 3910 Credits", "how many Credits is glob prok Iron ?",
+			"how much wood could a woodchuck chuck if a woodchuck could chuck wood ?");
+
+	@Test
+	public void repeatedInput_run_shouldMatchTheStreamingConversion() throws IOException {
+		List<String> input = new ArrayList<String>();
+		for (int repetition = 0; repetition < 500; repetition++) {
+			input.addAll(inputData);
+		}
+		List<String> expectedResults = new ArrayList<String>();
+		new GalaxyMerchant(OutputSink.noOp()).galacticCurrencyConversion(lineReader(input),
+				expectedResults::add);
+		List<String> written = new ArrayList<String>();
+		PipelinedConversion pipelinedConversion = new PipelinedConversion(
+				new GalaxyMerchant().getRomanSymbols(),
+				new CurrencyConversionOutputProcessor(new GalacticSymbolRegistry(), OutputSink.noOp()),
+				written::add, 3, 2);
+
+		List<String> results = new ArrayList<String>();
+		long resultCount = pipelinedConversion.run(lineReader(input), results::add);
+
+		assertThat(results).isEqualTo(expectedResults);
+		assertThat(written).isEqualTo(expectedResults);
+		assertThat(resultCount).isEqualTo(expectedResults.size());
+		assertThat(pipelinedConversion.getStatistics()).extracting("stage")
+				.containsExactly((Object[]) PipelineStage.values());
+		assertThat(pipelinedConversion.getStatistics()).extracting("items").containsExactly((long) input.size(),
+				(long) input.size() - 500, (long) results.size(), (long) results.size());
+		assertThat(pipelinedConversion.getStatistics().get(1).getMaxInputQueueDepth()).isBetween(1, 2);
+	}
+
+	@Test
+	public void pipelinedConversion_run_shouldAddTheDefinitionsToTheRegistry() throws IOException {
+		GalacticSymbolRegistry symbolRegistry = new GalacticSymbolRegistry();
+		PipelinedConversion pipelinedConversion = new GalaxyMerchant(OutputSink.noOp())
+				.pipelinedConversion(symbolRegistry);
+
+		List<String> results = new ArrayList<String>();
+		pipelinedConversion.run(lineReader(inputData), results::add);
+
+		assertThat(results).startsWith("pish tegj glob glob is 42", "glob prok Silver is 68 Credits");
+		assertThat(symbolRegistry.getMetals()).extracting("metalName").containsExactly("Silver", "Gold", "Iron");
+		assertThat(pipelinedConversion.getReport()).contains("READ", "CLASSIFY", "EVALUATE", "WRITE");
+	}
+
+	@Test
+	public void failingReader_run_shouldRethrowTheFailure() {
+		Iterator<String> lines = inputData.iterator();
+		PipelinedConversion pipelinedConversion = new GalaxyMerchant(OutputSink.noOp())
+				.pipelinedConversion(new GalacticSymbolRegistry());
+
+		assertThatThrownBy(() -> pipelinedConversion.run(() -> {
+			if (!lines.hasNext()) {
+				throw new IOException("Disk failure");
+			}
+			return lines.next();
+		}, result -> {
+		})).isInstanceOf(IOException.class).hasMessage("Disk failure");
+	}
+
+	private static LineReader lineReader(List<String> lines) {
+		Iterator<String> iterator = lines.iterator();
+		return () -> iterator.hasNext() ? iterator.next() : null;
+	}
+}
@@ -0,0 +1,97 @@
+package galaxy.merchant.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import galaxy.merchant.GalaxyMerchant;
+
+/**
+ * @author kommineni
+ *
+ */
+public class QueryServerTest {
+
+	private QueryServer queryServer;
+
+	@Before
+	public void setup() throws IOException {
+		queryServer = new QueryServer(0, new QueryService(new GalaxyMerchant().getRomanSymbols()));
+	}
+
+	@After
+	public void shutdown() {
+		queryServer.close();
+	}
+
+	@Test
+	public void definitionsOfEarlierRequest_post_shouldAnswerQueries() throws IOException {
+		assertThat(post("glob is I\nprok is V\npish is X\ntegj is L\n")).isEqualTo("200:");
+		assertThat(post("glob glob Silver is 34 Credits\nhow much is pish tegj glob glob ?\n"))
+				.isEqualTo("200:pish tegj glob glob is 42\n");
+		assertThat(post("how many Credits is glob prok Silver ?\nhow much wood could a woodchuck chuck ?"))
+				.isEqualTo("200:glob prok Silver is 68 Credits\nI have no idea what you are talking about\n");
+		assertThat(queryServer.getQueryService().getDefinitions().getGalacticCurrencies()).hasSize(4);
+	}
+
+	@Test
+	public void invalidQuery_post_shouldRespondWithBadRequest() throws IOException {
+		post("glob is I\n");
+		assertThat(post("how much is glob glob glob glob ?"))
+				.isEqualTo("400:Invalid Currency Format - Repetition beyond permitted");
+		assertThat(post("how many Credits is glob Copper ?"))
+				.isEqualTo("400:Common metal not found in credit transaction");
+	}
+
+	@Test
+	public void invalidLaterLine_post_shouldApplyNoneOfTheDefinitions() throws IOException {
+		post("glob is I\n");
+		assertThat(post("prok is V\nglob glob Silver is 34 Credits\nhow much is glob glob glob glob ?\n"))
+				.isEqualTo("400:Invalid Currency Format - Repetition beyond permitted");
+
+		assertThat(post("how much is glob prok ?")).isEqualTo("200:glob is 1\n");
+		assertThat(post("how many Credits is glob Silver ?"))
+				.isEqualTo("400:Common metal not found in credit transaction");
+		assertThat(queryServer.getQueryService().getDefinitions().getGalacticCurrencies()).hasSize(1);
+	}
+
+	@Test
+	public void redefinedCurrency_post_shouldRepriceTheMetalsUsingIt() throws IOException {
+		post("glob is I\nprok is V\nglob glob Silver is 34 Credits\n");
+		assertThat(post("glob is X\nhow much is glob prok ?\nhow many Credits is prok Silver ?"))
+				.isEqualTo("200:glob prok is 15\nprok Silver is 8.5 Credits\n");
+	}
+
+	/**
+	 * @return status and body of the response separated by a colon
+	 */
+	private String post(String body) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL(
+				"http://127.0.0.1:" + queryServer.getPort() + "/").openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		try (OutputStream requestBody = connection.getOutputStream()) {
+			requestBody.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		final int status = connection.getResponseCode();
+		final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+		try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			if (response != null) {
+				final byte[] buffer = new byte[1024];
+				int read;
+				while ((read = response.read(buffer)) > 0) {
+					responseBody.write(buffer, 0, read);
+				}
+			}
+		}
+		return status + ":" + new String(responseBody.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+}
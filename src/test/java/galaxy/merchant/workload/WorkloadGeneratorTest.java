@@ -0,0 +1,94 @@
+package galaxy.merchant.workload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import galaxy.merchant.GalaxyMerchant;
+import galaxy.merchant.output.OutputSink;
+
+/**
+ * @author kommineni
+ *
+ */
+public class WorkloadGeneratorTest {
+
+	@Test
+	public void sameSeed_generate_shouldGenerateTheSameInput() throws Exception {
+		WorkloadProfile profile = WorkloadProfile.DEFAULT.toBuilder().currencySymbols(20).metals(4).howMuchWeight(1)
+				.howManyCreditsWeight(1).distinctQueries(50).repetitionSkew(1.2).minNumeralLength(2)
+				.maxNumeralLength(6).invalidRate(0.1).build();
+		List<String> input = new ArrayList<String>();
+		StringWriter writer = new StringWriter();
+
+		long lines = new WorkloadGenerator(profile, 7).generate(500, input::add);
+		new WorkloadGenerator(profile, 7).write(500, writer);
+
+		assertThat(lines).isEqualTo(500);
+		assertThat(writer.toString()).isEqualTo(String.join(System.lineSeparator(), input) + System.lineSeparator());
+		assertThat(input).startsWith("ga is I", "gb is V");
+		assertThat(input.get(20)).matches("(g[a-z]+ )+Silver is [0-9]+ Credits");
+		String silverExpression = input.get(20).substring(0, input.get(20).indexOf(" Silver"));
+		int silverCredits = Integer.parseInt(extractCredits(input.get(20)));
+		List<String> silverInput = new ArrayList<String>(input.subList(0, 24));
+		silverInput.add("how much is " + silverExpression + " ?");
+		assertThat(new GalaxyMerchant(OutputSink.noOp()).galacticCurrencyConversion(silverInput))
+				.containsExactly(silverExpression + " is " + silverCredits / 17);
+		List<String> otherSeed = new ArrayList<String>();
+		new WorkloadGenerator(profile, 8).generate(500, otherSeed::add);
+		assertThat(otherSeed).isNotEqualTo(input);
+	}
+
+	@Test
+	public void validProfile_galacticCurrencyConversion_shouldAnswerEveryQuery() {
+		WorkloadProfile profile = WorkloadProfile.DEFAULT.toBuilder().currencySymbols(14).distinctQueries(200).build();
+		List<String> input = new WorkloadGenerator(profile, 42).generate(2000);
+
+		List<String> results = new GalaxyMerchant(OutputSink.noOp()).galacticCurrencyConversion(input);
+
+		assertThat(results).hasSize(2000 - 17);
+		assertThat(results).allMatch(result -> result.endsWith(" Credits") || result.contains(" is ")
+				|| result.equals("I have no idea what you are talking about"));
+	}
+
+	@Test
+	public void invalidRateOne_galacticCurrencyConversion_shouldReportEveryQueryLine() {
+		WorkloadProfile profile = WorkloadProfile.DEFAULT.toBuilder().metals(2).howMuchWeight(1).howManyCreditsWeight(1)
+				.uncategorizedWeight(0).distinctQueries(10).maxNumeralLength(4).invalidRate(1).build();
+		List<String> input = new ArrayList<String>();
+		new WorkloadGenerator(profile, 42).generate(409, input::add);
+		List<String> invalidLines = Collections.synchronizedList(new ArrayList<String>());
+
+		GalaxyMerchant.builder().outputSink(OutputSink.noOp())
+				.invalidLineHandler((line, errorCode) -> invalidLines.add(line)).build().galacticCurrencyConversion(input);
+
+		assertThat(invalidLines).hasSize(400);
+		assertThat(invalidLines).contains("how much is ga gg ?", "how much is ga ga ga ga ?")
+				.anyMatch(line -> line.contains(WorkloadGenerator.UNKNOWN_METAL))
+				.anyMatch(line -> line.endsWith("is many Credits"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooManyMetals_build_shouldBeRejected() {
+		WorkloadProfile.DEFAULT.toBuilder().metals(WorkloadGenerator.MAX_METALS + 1).build();
+	}
+
+	@Test
+	public void skewedFrequencies_rank_shouldFavourTheFirstRanks() {
+		double[] uniform = WorkloadGenerator.cumulativeFrequencies(4, 0);
+		double[] skewed = WorkloadGenerator.cumulativeFrequencies(1000, 2);
+
+		assertThat(uniform).containsExactly(0.25, 0.5, 0.75, 1);
+		assertThat(WorkloadGenerator.rank(uniform, 0.6)).isEqualTo(2);
+		assertThat(WorkloadGenerator.rank(uniform, 0.5)).isEqualTo(2);
+		assertThat(WorkloadGenerator.rank(skewed, 0.6)).isZero();
+		assertThat(WorkloadGenerator.rank(skewed, 0.99)).isGreaterThan(10);
+	}
+
+	private static String extractCredits(String metalDefinition) {
+		String[] tokens = metalDefinition.split(" ");
+		return tokens[tokens.length - 2];
+	}
+}